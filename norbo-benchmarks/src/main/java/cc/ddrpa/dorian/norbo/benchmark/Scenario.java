@@ -0,0 +1,132 @@
+package cc.ddrpa.dorian.norbo.benchmark;
+
+import cc.ddrpa.dorian.norbo.benchmark.baseline.HandWrittenTypeHandlers;
+import cc.ddrpa.dorian.norbo.benchmark.entity.CodecEntity;
+import cc.ddrpa.dorian.norbo.benchmark.entity.CodecEntityTypeHandler;
+import cc.ddrpa.dorian.norbo.benchmark.entity.FlatEntity;
+import cc.ddrpa.dorian.norbo.benchmark.entity.FlatEntityTypeHandler;
+import cc.ddrpa.dorian.norbo.benchmark.entity.MapOfStringAndListOfFlatEntityTypeHandler;
+import cc.ddrpa.dorian.norbo.benchmark.entity.PointRecord;
+import cc.ddrpa.dorian.norbo.benchmark.entity.PointRecordTypeHandler;
+import cc.ddrpa.dorian.norbo.benchmark.entity.TimeEntity;
+import cc.ddrpa.dorian.norbo.benchmark.entity.TimeEntityTypeHandler;
+import com.baomidou.mybatisplus.core.handlers.IJsonTypeHandler;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 基准测试覆盖的实体类型，每种类型对应一个生成的 TypeHandler 与一个手写的 TypeHandler
+ */
+public enum Scenario {
+    /**
+     * 普通 POJO
+     */
+    FLAT(() -> new FlatEntityTypeHandler(FlatEntity.class),
+        HandWrittenTypeHandlers.FlatEntityHandler::new,
+        Scenario::flatEntity),
+    /**
+     * 普通 POJO，使用编译期生成的编解码器
+     */
+    CODEC(() -> new CodecEntityTypeHandler(CodecEntity.class),
+        HandWrittenTypeHandlers.CodecEntityHandler::new,
+        Scenario::codecEntity),
+    /**
+     * record
+     */
+    RECORD(() -> new PointRecordTypeHandler(PointRecord.class),
+        HandWrittenTypeHandlers.PointRecordHandler::new,
+        () -> new PointRecord("origin", 1.5D, -2.25D, 1024D, List.of("a", "b", "c"))),
+    /**
+     * java.time 属性
+     */
+    TIME(() -> new TimeEntityTypeHandler(TimeEntity.class),
+        HandWrittenTypeHandlers.TimeEntityHandler::new,
+        Scenario::timeEntity),
+    /**
+     * 嵌套的参数化类型 {@code Map<String, List<FlatEntity>>}
+     */
+    NESTED(() -> new MapOfStringAndListOfFlatEntityTypeHandler(Map.class),
+        HandWrittenTypeHandlers.SectionsHandler::new,
+        Scenario::sections);
+
+    private final Supplier<IJsonTypeHandler<?>> generated;
+    private final Supplier<IJsonTypeHandler<?>> baseline;
+    private final Supplier<Object> sample;
+
+    Scenario(Supplier<IJsonTypeHandler<?>> generated, Supplier<IJsonTypeHandler<?>> baseline,
+        Supplier<Object> sample) {
+        this.generated = generated;
+        this.baseline = baseline;
+        this.sample = sample;
+    }
+
+    @SuppressWarnings("unchecked")
+    public IJsonTypeHandler<Object> generated() {
+        return (IJsonTypeHandler<Object>) generated.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    public IJsonTypeHandler<Object> baseline() {
+        return (IJsonTypeHandler<Object>) baseline.get();
+    }
+
+    public Object sample() {
+        return sample.get();
+    }
+
+    private static FlatEntity flatEntity() {
+        FlatEntity entity = new FlatEntity();
+        entity.setId(20241017L);
+        entity.setName("norbo");
+        entity.setDescription("Generate Mybatis-plus boilerplate DAO class");
+        entity.setQuantity(42);
+        entity.setEnabled(true);
+        entity.setPrice(new BigDecimal("1999.99"));
+        entity.setStatus(FlatEntity.Status.PUBLISHED);
+        return entity;
+    }
+
+    private static CodecEntity codecEntity() {
+        CodecEntity entity = new CodecEntity();
+        entity.setId(20241017L);
+        entity.setName("norbo");
+        entity.setDescription("Generate Mybatis-plus boilerplate DAO class");
+        entity.setQuantity(42);
+        entity.setEnabled(true);
+        entity.setPrice(new BigDecimal("1999.99"));
+        entity.setStatus(FlatEntity.Status.PUBLISHED);
+        return entity;
+    }
+
+    private static TimeEntity timeEntity() {
+        TimeEntity entity = new TimeEntity();
+        entity.setDate(LocalDate.of(2024, 10, 17));
+        entity.setCreateTime(LocalDateTime.of(2024, 10, 17, 8, 30, 15));
+        entity.setUpdateTime(OffsetDateTime.of(2024, 10, 17, 9, 0, 0, 0, ZoneOffset.ofHours(8)));
+        entity.setExpireAt(Instant.parse("2025-01-01T00:00:00Z"));
+        entity.setTimeout(Duration.ofSeconds(90));
+        return entity;
+    }
+
+    private static Map<String, List<FlatEntity>> sections() {
+        Map<String, List<FlatEntity>> sections = new LinkedHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            List<FlatEntity> entities = new ArrayList<>();
+            for (int j = 0; j < 8; j++) {
+                entities.add(flatEntity());
+            }
+            sections.put("section-" + i, entities);
+        }
+        return sections;
+    }
+}
@@ -0,0 +1,82 @@
+package cc.ddrpa.dorian.norbo.benchmark;
+
+import com.baomidou.mybatisplus.core.handlers.IJsonTypeHandler;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 生成的 TypeHandler 与手写 TypeHandler 的 parse / toJson 对比
+ * <p>
+ * Throughput 模式给出吞吐量，SampleTime 模式给出 p99 等延迟分位数，通过 {@link #main(String[])} 运行时附带
+ * GC profiler 输出每次调用的分配量（gc.alloc.rate.norm）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypeHandlerBenchmark {
+
+    @Param
+    private Scenario scenario;
+
+    private IJsonTypeHandler<Object> generated;
+    private IJsonTypeHandler<Object> baseline;
+    private Object value;
+    private String json;
+
+    @Setup
+    public void setup() {
+        generated = scenario.generated();
+        baseline = scenario.baseline();
+        value = scenario.sample();
+        json = generated.toJson(value);
+        // 两种实现必须能解析对方的输出，否则对比没有意义
+        baseline.parse(json);
+        generated.parse(baseline.toJson(value));
+    }
+
+    @Benchmark
+    public Object parseGenerated() {
+        return generated.parse(json);
+    }
+
+    @Benchmark
+    public Object parseHandWritten() {
+        return baseline.parse(json);
+    }
+
+    @Benchmark
+    public String toJsonGenerated() {
+        return generated.toJson(value);
+    }
+
+    @Benchmark
+    public String toJsonHandWritten() {
+        return baseline.toJson(value);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(TypeHandlerBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
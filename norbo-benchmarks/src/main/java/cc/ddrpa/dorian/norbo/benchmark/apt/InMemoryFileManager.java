@@ -0,0 +1,93 @@
+package cc.ddrpa.dorian.norbo.benchmark.apt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+
+/**
+ * 将编译器输出的所有文件保存在内存中，并统计写出的文件数与字节数
+ */
+class InMemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+
+    private final AtomicLong writtenFiles = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+
+    InMemoryFileManager(JavaFileManager fileManager) {
+        super(fileManager);
+    }
+
+    long writtenFiles() {
+        return writtenFiles.get();
+    }
+
+    long writtenBytes() {
+        return writtenBytes.get();
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className,
+        JavaFileObject.Kind kind, FileObject sibling) {
+        URI uri = URI.create("mem:///" + location.getName() + "/"
+            + className.replace('.', '/') + kind.extension);
+        return new MemoryFileObject(uri, kind);
+    }
+
+    @Override
+    public FileObject getFileForOutput(Location location, String packageName,
+        String relativeName, FileObject sibling) {
+        return getJavaFileForOutput(location,
+            packageName.isEmpty() ? relativeName : packageName + "." + relativeName,
+            JavaFileObject.Kind.OTHER, sibling);
+    }
+
+    @Override
+    public boolean isSameFile(FileObject a, FileObject b) {
+        if (a instanceof MemoryFileObject || b instanceof MemoryFileObject) {
+            return a.toUri().equals(b.toUri());
+        }
+        return super.isSameFile(a, b);
+    }
+
+    private class MemoryFileObject extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        MemoryFileObject(URI uri, Kind kind) {
+            super(uri, kind);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            content.reset();
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                    content.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    content.write(b, off, len);
+                }
+
+                @Override
+                public void close() {
+                    writtenFiles.incrementAndGet();
+                    writtenBytes.addAndGet(content.size());
+                }
+            };
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package cc.ddrpa.dorian.norbo.benchmark.apt;
+
+import cc.ddrpa.dorian.norbo.benchmark.apt.ProfilingProcessor.Sample;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+/**
+ * 使用内存中的 {@link JavaCompiler} 对合成实体类执行注解处理，输出每一轮、每个生成器的耗时、分配字节数与生成文件大小
+ * <p>
+ * 用法：{@code java -cp target/benchmarks.jar cc.ddrpa.dorian.norbo.benchmark.apt.ProcessingBenchmark
+ * [--warmup N] [实体数量...]}，默认对 100、1000、5000 个实体各执行一次
+ * <p>
+ * 只执行注解处理（{@code -proc:only}），只报告合成实体类上的错误
+ */
+public class ProcessingBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int warmup = 2;
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--warmup".equals(args[i])) {
+                warmup = Integer.parseInt(args[++i]);
+            } else {
+                sizes.add(Integer.parseInt(args[i]));
+            }
+        }
+        if (sizes.isEmpty()) {
+            sizes = List.of(100, 1_000, 5_000);
+        }
+        for (int i = 0; i < warmup; i++) {
+            run(100);
+        }
+        for (int size : sizes) {
+            report(size, run(size));
+        }
+    }
+
+    private static Result run(int entityCount) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        InMemoryFileManager fileManager = new InMemoryFileManager(
+            compiler.getStandardFileManager(diagnostics, Locale.ROOT, null));
+        List<JavaFileObject> sources = SyntheticCorpus.generate(entityCount);
+        ProfilingProcessor processor = new ProfilingProcessor(fileManager);
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+            List.of("-proc:only", "-encoding", "UTF-8",
+                "-classpath", System.getProperty("java.class.path")),
+            null, sources);
+        task.setProcessors(List.of(processor));
+
+        long allocated = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        task.call();
+        long elapsed = System.nanoTime() - start;
+        Sample total = new Sample(elapsed,
+            THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - allocated,
+            fileManager.writtenFiles(), fileManager.writtenBytes());
+
+        // 只关心合成实体类上的诊断信息
+        List<Diagnostic<? extends JavaFileObject>> corpusErrors = diagnostics.getDiagnostics()
+            .stream()
+            .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+            .filter(d -> d.getSource() != null
+                && "string".equals(d.getSource().toUri().getScheme()))
+            .toList();
+        return new Result(total, processor.rounds(), corpusErrors);
+    }
+
+    private static void report(int entityCount, Result result) {
+        System.out.printf("%n== %,d entities: javac %s, allocated %s, generated %,d files / %s%n",
+            entityCount, millis(result.total().nanos()), mebibytes(result.total().allocatedBytes()),
+            result.total().files(), mebibytes(result.total().bytes()));
+        Map<String, Sample> totals = new LinkedHashMap<>();
+        for (int i = 0; i < result.rounds().size(); i++) {
+            Map<String, Sample> round = result.rounds().get(i);
+            System.out.printf("-- round %d%n", i + 1);
+            if (round.isEmpty()) {
+                System.out.println("   (no annotated elements)");
+            }
+            round.forEach((step, sample) -> {
+                print(step, sample);
+                totals.merge(step, sample, Sample::plus);
+            });
+        }
+        System.out.println("-- all rounds");
+        totals.forEach(ProcessingBenchmark::print);
+        result.corpusErrors().forEach(d -> System.out.printf("   error: %s%n",
+            d.getMessage(Locale.ROOT)));
+    }
+
+    private static void print(String step, Sample sample) {
+        System.out.printf("   %-32s %12s %12s %8d files %12s%n", step, millis(sample.nanos()),
+            mebibytes(sample.allocatedBytes()), sample.files(), mebibytes(sample.bytes()));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%,.1f ms", nanos / 1_000_000D);
+    }
+
+    private static String mebibytes(long bytes) {
+        return String.format("%,.2f MiB", bytes / 1024D / 1024D);
+    }
+
+    private record Result(Sample total, List<Map<String, Sample>> rounds,
+                          List<Diagnostic<? extends JavaFileObject>> corpusErrors) {
+
+    }
+}
@@ -0,0 +1,112 @@
+package cc.ddrpa.dorian.norbo.benchmark.apt;
+
+import cc.ddrpa.dorian.norbo.processor.Generator;
+import cc.ddrpa.dorian.norbo.processor.GeneratorContext;
+import cc.ddrpa.dorian.norbo.processor.NorboProcessor;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * 与 {@link NorboProcessor} 执行相同的流程，同时记录每一轮中构建实体模型以及每个 {@link Generator} 的耗时、
+ * 当前线程分配的字节数和写出的文件
+ */
+class ProfilingProcessor extends AbstractProcessor {
+
+    /**
+     * 构建实体模型这一步在统计结果中的名称
+     */
+    static final String ENTITY_MODEL = "EntityModel";
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final InMemoryFileManager fileManager;
+    private final List<Generator> generators = new ArrayList<>();
+    private final List<Map<String, Sample>> rounds = new ArrayList<>();
+
+    ProfilingProcessor(InMemoryFileManager fileManager) {
+        this.fileManager = fileManager;
+    }
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        for (Generator generator : ServiceLoader.load(Generator.class,
+            NorboProcessor.class.getClassLoader())) {
+            generators.add(generator);
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(NorboProcessor.class.getAnnotation(SupportedAnnotationTypes.class).value());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<String, Sample> round = new LinkedHashMap<>();
+        rounds.add(round);
+        if (annotations.isEmpty()) {
+            return false;
+        }
+        GeneratorContext context = new GeneratorContext(processingEnv, roundEnv);
+        // 实体模型在首次访问时构建，单独计量，避免算到第一个生成器头上
+        round.put(ENTITY_MODEL, measure(context::entities));
+        for (Generator generator : generators) {
+            round.put(generator.getClass().getSimpleName(),
+                measure(() -> generator.generate(context)));
+        }
+        return false;
+    }
+
+    /**
+     * 每一轮中各步骤的统计结果，顺序与执行顺序一致
+     *
+     * @return
+     */
+    List<Map<String, Sample>> rounds() {
+        return rounds;
+    }
+
+    private Sample measure(Runnable step) {
+        long files = fileManager.writtenFiles();
+        long bytes = fileManager.writtenBytes();
+        long allocated = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        step.run();
+        long elapsed = System.nanoTime() - start;
+        return new Sample(elapsed,
+            THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - allocated,
+            fileManager.writtenFiles() - files,
+            fileManager.writtenBytes() - bytes);
+    }
+
+    /**
+     * @param nanos          耗时
+     * @param allocatedBytes 当前线程分配的字节数
+     * @param files          写出的文件数
+     * @param bytes          写出的字节数
+     */
+    record Sample(long nanos, long allocatedBytes, long files, long bytes) {
+
+        Sample plus(Sample other) {
+            return new Sample(nanos + other.nanos, allocatedBytes + other.allocatedBytes,
+                files + other.files, bytes + other.bytes);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package cc.ddrpa.dorian.norbo.benchmark.apt;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+
+/**
+ * 生成指定数量的合成实体类源码
+ * <p>
+ * 每个实体类同时使用 {@code @MPMapper}、{@code @MPRepository}、{@code @JeecgBootController}，并包含一个以
+ * {@code @MPTypeHandler} 修饰的嵌套参数化类型属性；每 100 个实体类位于同一个包下，以便覆盖共享类的生成逻辑
+ * <p>
+ * JeecgBoot 没有发布到 Maven Central，语料中附带了生成的 Controller 引用到的 JeecgBoot 类的最小桩代码。缺少这些类时，
+ * javac 在解析生成类的 import 时会遍历所有模块查找，耗时远超注解处理本身
+ */
+public final class SyntheticCorpus {
+
+    private static final int ENTITIES_PER_PACKAGE = 100;
+
+    private SyntheticCorpus() {
+    }
+
+    public static List<JavaFileObject> generate(int entityCount) {
+        List<JavaFileObject> sources = new ArrayList<>(entityCount * 2 + 4);
+        sources.add(source("org.jeecg.common.api.vo", "Result", """
+            package org.jeecg.common.api.vo;
+
+            public class Result<T> {
+
+            }
+            """));
+        sources.add(source("org.jeecg.common.aspect.annotation", "AutoLog", """
+            package org.jeecg.common.aspect.annotation;
+
+            public @interface AutoLog {
+
+                String value() default "";
+            }
+            """));
+        sources.add(source("org.jeecg.common.system.base.controller", "JeecgController", """
+            package org.jeecg.common.system.base.controller;
+
+            public class JeecgController<T, S> {
+
+            }
+            """));
+        sources.add(source("org.jeecg.common.system.query", "QueryGenerator", """
+            package org.jeecg.common.system.query;
+
+            public class QueryGenerator {
+
+            }
+            """));
+        for (int i = 0; i < entityCount; i++) {
+            String packageName = "bench.corpus.p" + (i / ENTITIES_PER_PACKAGE);
+            sources.add(source(packageName, "Entity" + i, entity(packageName, i)));
+            sources.add(source(packageName, "Payload" + i, payload(packageName, i)));
+        }
+        return sources;
+    }
+
+    private static String entity(String packageName, int index) {
+        return """
+            package %1$s;
+
+            import cc.ddrpa.dorian.norbo.jeecgboot.annotation.JeecgBootController;
+            import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPMapper;
+            import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPRepository;
+            import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPTypeHandler;
+            import java.math.BigDecimal;
+            import java.time.LocalDateTime;
+            import java.util.List;
+            import java.util.Map;
+
+            @MPMapper
+            @MPRepository
+            @JeecgBootController("实体%2$d")
+            public class Entity%2$d {
+
+                private Long id;
+                private String name;
+                private Integer quantity;
+                private BigDecimal price;
+                private LocalDateTime createTime;
+                @MPTypeHandler
+                private Payload%2$d payload;
+                @MPTypeHandler
+                private Map<String, List<Payload%2$d>> payloads;
+            }
+            """.formatted(packageName, index);
+    }
+
+    private static String payload(String packageName, int index) {
+        return """
+            package %1$s;
+
+            import java.time.LocalDate;
+            import java.util.List;
+
+            public record Payload%2$d(String label, int weight, LocalDate date, List<String> tags) {
+
+            }
+            """.formatted(packageName, index);
+    }
+
+    private static JavaFileObject source(String packageName, String simpleName, String code) {
+        URI uri = URI.create("string:///" + packageName.replace('.', '/') + "/" + simpleName
+            + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package cc.ddrpa.dorian.norbo.benchmark.baseline;
+
+import cc.ddrpa.dorian.norbo.benchmark.entity.CodecEntity;
+import cc.ddrpa.dorian.norbo.benchmark.entity.FlatEntity;
+import cc.ddrpa.dorian.norbo.benchmark.entity.PointRecord;
+import cc.ddrpa.dorian.norbo.benchmark.entity.TimeEntity;
+import com.baomidou.mybatisplus.extension.handlers.AbstractJsonTypeHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 手写 TypeHandler 的常见写法：共享 ObjectMapper，每次调用时按 Class / TypeReference 查找序列化器
+ * <p>
+ * ObjectMapper 的配置与生成的 TypeHandlerObjectMapperHolder 保持一致，以便比较
+ */
+public final class HandWrittenTypeHandlers {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .registerModule(new Jdk8Module())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private HandWrittenTypeHandlers() {
+    }
+
+    public static class FlatEntityHandler extends AbstractJsonTypeHandler<FlatEntity> {
+
+        public FlatEntityHandler() {
+            super(FlatEntity.class);
+        }
+
+        @Override
+        public FlatEntity parse(String json) {
+            try {
+                return OBJECT_MAPPER.readValue(json, FlatEntity.class);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public String toJson(FlatEntity obj) {
+            try {
+                return OBJECT_MAPPER.writeValueAsString(obj);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public static class CodecEntityHandler extends AbstractJsonTypeHandler<CodecEntity> {
+
+        public CodecEntityHandler() {
+            super(CodecEntity.class);
+        }
+
+        @Override
+        public CodecEntity parse(String json) {
+            try {
+                return OBJECT_MAPPER.readValue(json, CodecEntity.class);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public String toJson(CodecEntity obj) {
+            try {
+                return OBJECT_MAPPER.writeValueAsString(obj);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public static class PointRecordHandler extends AbstractJsonTypeHandler<PointRecord> {
+
+        public PointRecordHandler() {
+            super(PointRecord.class);
+        }
+
+        @Override
+        public PointRecord parse(String json) {
+            try {
+                return OBJECT_MAPPER.readValue(json, PointRecord.class);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public String toJson(PointRecord obj) {
+            try {
+                return OBJECT_MAPPER.writeValueAsString(obj);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public static class TimeEntityHandler extends AbstractJsonTypeHandler<TimeEntity> {
+
+        public TimeEntityHandler() {
+            super(TimeEntity.class);
+        }
+
+        @Override
+        public TimeEntity parse(String json) {
+            try {
+                return OBJECT_MAPPER.readValue(json, TimeEntity.class);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public String toJson(TimeEntity obj) {
+            try {
+                return OBJECT_MAPPER.writeValueAsString(obj);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public static class SectionsHandler extends
+        AbstractJsonTypeHandler<Map<String, List<FlatEntity>>> {
+
+        public SectionsHandler() {
+            super(Map.class);
+        }
+
+        @Override
+        public Map<String, List<FlatEntity>> parse(String json) {
+            try {
+                return OBJECT_MAPPER.readValue(json, new TypeReference<>() {
+                });
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public String toJson(Map<String, List<FlatEntity>> obj) {
+            try {
+                return OBJECT_MAPPER.writeValueAsString(obj);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package cc.ddrpa.dorian.norbo.benchmark.entity;
+
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPTypeHandler;
+import java.math.BigDecimal;
+import lombok.Data;
+
+/**
+ * 与 {@link FlatEntity} 结构相同，但生成编译期编解码器
+ */
+@Data
+@MPTypeHandler(codec = true)
+public class CodecEntity {
+
+    private Long id;
+    private String name;
+    private String description;
+    private int quantity;
+    private boolean enabled;
+    private BigDecimal price;
+    private FlatEntity.Status status;
+}
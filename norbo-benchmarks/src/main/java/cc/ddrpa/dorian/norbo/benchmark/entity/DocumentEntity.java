@@ -0,0 +1,17 @@
+package cc.ddrpa.dorian.norbo.benchmark.entity;
+
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPTypeHandler;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * 属性为嵌套的参数化类型，生成 {@code MapOfStringAndListOfFlatEntityTypeHandler}
+ */
+@Data
+public class DocumentEntity {
+
+    private Long id;
+    @MPTypeHandler
+    private Map<String, List<FlatEntity>> sections;
+}
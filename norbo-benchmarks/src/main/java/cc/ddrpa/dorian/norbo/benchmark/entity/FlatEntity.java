@@ -0,0 +1,25 @@
+package cc.ddrpa.dorian.norbo.benchmark.entity;
+
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPTypeHandler;
+import java.math.BigDecimal;
+import lombok.Data;
+
+/**
+ * 只包含标量属性的普通 POJO
+ */
+@Data
+@MPTypeHandler
+public class FlatEntity {
+
+    private Long id;
+    private String name;
+    private String description;
+    private int quantity;
+    private boolean enabled;
+    private BigDecimal price;
+    private Status status;
+
+    public enum Status {
+        DRAFT, PUBLISHED, ARCHIVED
+    }
+}
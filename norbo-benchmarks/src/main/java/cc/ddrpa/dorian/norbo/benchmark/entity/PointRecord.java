@@ -0,0 +1,12 @@
+package cc.ddrpa.dorian.norbo.benchmark.entity;
+
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPTypeHandler;
+import java.util.List;
+
+/**
+ * record 类型
+ */
+@MPTypeHandler
+public record PointRecord(String label, double x, double y, double z, List<String> tags) {
+
+}
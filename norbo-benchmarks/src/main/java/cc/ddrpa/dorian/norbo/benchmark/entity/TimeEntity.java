@@ -0,0 +1,23 @@
+package cc.ddrpa.dorian.norbo.benchmark.entity;
+
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPTypeHandler;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import lombok.Data;
+
+/**
+ * 包含 java.time 属性的 POJO
+ */
+@Data
+@MPTypeHandler
+public class TimeEntity {
+
+    private LocalDate date;
+    private LocalDateTime createTime;
+    private OffsetDateTime updateTime;
+    private Instant expireAt;
+    private Duration timeout;
+}
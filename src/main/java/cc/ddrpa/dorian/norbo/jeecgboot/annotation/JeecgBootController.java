@@ -6,8 +6,138 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 @Target(ElementType.TYPE)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface JeecgBootController {
 
     String value() default "";
+
+    /**
+     * 是否生成基于键集（seek）分页的 {@code /listAfter} 接口
+     * <p>
+     * 以上一页最后一条记录的排序键作为游标查询下一页，不使用 OFFSET，也不执行 COUNT 查询
+     */
+    boolean keyset() default false;
+
+    /**
+     * 键集分页的排序属性，默认为主键
+     * <p>
+     * 指定非主键属性时以主键作为第二排序键，该属性对应的列不能为 null
+     */
+    String keysetProperty() default "";
+
+    /**
+     * 键集分页是否按降序排列
+     */
+    boolean keysetDescending() default false;
+
+    /**
+     * 不在 {@code /list}、{@code /listAfter} 中查询的属性，如大文本或 JSON 字段
+     * <p>
+     * 这些属性在列表中为 null，只在 {@code /queryById} 中加载，避免列表查询读取并反序列化大字段
+     */
+    String[] listExcludes() default {};
+
+    /**
+     * {@code /list} 计算总数的方式
+     * <p>
+     * 默认为 {@link ListCount#EXACT}，每次请求执行 COUNT 查询
+     */
+    ListCount listCount() default ListCount.EXACT;
+
+    /**
+     * {@link ListCount#CACHED} 时总数的有效期（秒），过期后在后台重新计算
+     */
+    long listCountTtl() default 60;
+
+    /**
+     * {@code /deleteBatch} 每条 DELETE 语句中的最大 id 数，所有语句在同一个事务中执行
+     */
+    int deleteBatchSize() default 1000;
+
+    /**
+     * {@code /queryByIds} 一次最多查询的 id 数，超出时返回错误
+     */
+    int queryByIdsMaxSize() default 1000;
+
+    /**
+     * 是否生成部分更新的 {@code PATCH /edit} 接口
+     * <p>
+     * 只更新请求体中出现的属性，不重写其余的列；实体有 {@code @Version} 属性时请求体必须包含版本号，
+     * 版本号不一致时更新失败
+     */
+    boolean patch() default false;
+
+    /**
+     * 是否以流式写出的方式实现 {@code /exportXls}
+     * <p>
+     * 按主键分批查询，使用 POI 的 SXSSF 逐行写出，内存中只保留固定数量的行；默认调用
+     * {@code JeecgController#exportXls}，在内存中构建整个工作簿
+     */
+    boolean streamingExport() default false;
+
+    /**
+     * 流式导出时每次查询的行数
+     */
+    int exportBatchSize() default 1000;
+
+    /**
+     * 是否以异步任务的方式实现 {@code /importExcel}
+     * <p>
+     * 上传的文件保存为临时文件后立即返回任务 id，后台逐行读取工作表，按 importBatchSize 分块并行转换，
+     * 以 JDBC 批量插入写入；通过 {@code /importExcel/progress} 查询进度。默认调用
+     * {@code JeecgController#importExcel}，在请求线程中解析整个文件并逐行保存
+     */
+    boolean asyncImport() default false;
+
+    /**
+     * 异步导入时每块的行数，也是每次 JDBC 批量插入的行数
+     */
+    int importBatchSize() default 1000;
+
+    /**
+     * 异步导入时每个任务同时处理的块数
+     */
+    int importParallelism() default 4;
+
+    /**
+     * 是否为 {@code /queryById}、{@code /list} 生成 ETag 与 {@code If-None-Match} 条件请求的处理
+     * <p>
+     * 条件请求先只查询主键与版本列，数据未变化时返回 304，不加载其余列，也不序列化返回值
+     */
+    boolean etag() default false;
+
+    /**
+     * 计算 ETag 的属性，每次更新时都必须改变
+     * <p>
+     * 默认使用 {@code @Version} 修饰的属性，没有时必须指定。指定更新时间等时间戳列时，数据库列需要有秒以下的精度
+     * （如 MySQL 的 {@code DATETIME(3)}），否则同一秒内的两次更新会得到相同的 ETag
+     */
+    String etagProperty() default "";
+
+    /**
+     * 是否为每个接口生成 Micrometer 埋点
+     * <p>
+     * 记录 {@code norbo.controller} 耗时，指标注册在 {@code Metrics.globalRegistry}
+     */
+    boolean instrument() default false;
+
+    enum ListCount {
+        /**
+         * 每次请求执行 COUNT 查询，可以通过 {@code searchCount=false} 跳过
+         */
+        EXACT,
+        /**
+         * 不执行 COUNT 查询，多查询一行判断是否存在下一页；返回的 total 为已知记录数的下界，
+         * 存在下一页时比已知记录数多 1
+         */
+        PROBE,
+        /**
+         * 在 PROBE 的基础上，按查询条件缓存 COUNT 的结果作为 total，缓存缺失或过期时在后台线程中重新计算
+         * <p>
+         * COUNT 在后台线程中执行，读取不到请求线程上的 ThreadLocal，多租户、数据权限等拦截器不会按当前请求生效；
+         * 缓存的键只包含 QueryWrapper 中的条件，不同租户的相同查询共享同一个总数。使用这类拦截器时请选择 PROBE，
+         * 编译时会给出警告
+         */
+        CACHED
+    }
 }
@@ -0,0 +1,530 @@
+package cc.ddrpa.dorian.norbo.jeecgboot.generator;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.lang.model.element.Modifier;
+
+/**
+ * 生成同一个包下的 Controller 共享的 Excel 异步导入工具类
+ * <p>
+ * 使用 POI 的 SAX 事件接口逐行读取工作表，按块交给线程池转换并写入，同一个任务同时处理的块数受信号量限制，
+ * 因此内存中最多保留 (parallelism + 1) 块数据
+ */
+class ExcelImportSupportGenerator {
+
+    private static final ClassName OPC_PACKAGE_CLASS_NAME = ClassName.get(
+        "org.apache.poi.openxml4j.opc", "OPCPackage");
+    private static final ClassName PACKAGE_ACCESS_CLASS_NAME = ClassName.get(
+        "org.apache.poi.openxml4j.opc", "PackageAccess");
+    private static final ClassName XSSF_READER_CLASS_NAME = ClassName.get(
+        "org.apache.poi.xssf.eventusermodel", "XSSFReader");
+    private static final ClassName SHARED_STRINGS_CLASS_NAME = ClassName.get(
+        "org.apache.poi.xssf.eventusermodel", "ReadOnlySharedStringsTable");
+    private static final ClassName SHEET_XML_HANDLER_CLASS_NAME = ClassName.get(
+        "org.apache.poi.xssf.eventusermodel", "XSSFSheetXMLHandler");
+    private static final ClassName SHEET_CONTENTS_HANDLER_CLASS_NAME =
+        SHEET_XML_HANDLER_CLASS_NAME.nestedClass("SheetContentsHandler");
+    private static final ClassName DATA_FORMATTER_CLASS_NAME = ClassName.get(
+        "org.apache.poi.ss.usermodel", "DataFormatter");
+    private static final ClassName DATE_UTIL_CLASS_NAME = ClassName.get(
+        "org.apache.poi.ss.usermodel", "DateUtil");
+    private static final ClassName CELL_REFERENCE_CLASS_NAME = ClassName.get(
+        "org.apache.poi.ss.util", "CellReference");
+    private static final ClassName XML_HELPER_CLASS_NAME = ClassName.get(
+        "org.apache.poi.util", "XMLHelper");
+    private static final ClassName XSSF_COMMENT_CLASS_NAME = ClassName.get(
+        "org.apache.poi.xssf.usermodel", "XSSFComment");
+    private static final ClassName XML_READER_CLASS_NAME = ClassName.get(
+        "org.xml.sax", "XMLReader");
+    private static final ClassName INPUT_SOURCE_CLASS_NAME = ClassName.get(
+        "org.xml.sax", "InputSource");
+    private static final ClassName TENANT_CONTEXT_CLASS_NAME = ClassName.get(
+        "org.jeecg.common.config", "TenantContext");
+    private static final TypeVariableName T = TypeVariableName.get("T");
+    private static final TypeName STRING_ARRAY = TypeName.get(String[].class);
+    private static final TypeName ROWS_TYPE = ParameterizedTypeName.get(
+        ClassName.get(List.class), STRING_ARRAY);
+    private static final TypeName ROW_NUMBERS_TYPE = ParameterizedTypeName.get(
+        ClassName.get(List.class), ClassName.get(Integer.class));
+    private static final TypeName CONVERTER_TYPE = ParameterizedTypeName.get(
+        ClassName.get(Function.class), STRING_ARRAY, T);
+    private static final TypeName WRITER_TYPE = ParameterizedTypeName.get(
+        ClassName.get(Consumer.class), ParameterizedTypeName.get(ClassName.get(List.class), T));
+
+    TypeSpec generate(ClassName className) {
+        ClassName jobClassName = className.nestedClass("Job");
+        ClassName statusClassName = className.nestedClass("Status");
+        ClassName rowReaderClassName = className.nestedClass("RowReader");
+        ClassName formatterClassName = className.nestedClass("PlainNumberFormatter");
+        return TypeSpec.classBuilder(className)
+            .addJavadoc("同一个包下生成的 Controller 共享的 Excel 异步导入工具\n"
+                + "<p>\n"
+                + "任务状态保存在内存中，结束 1 小时后清理；多实例部署时需要将查询进度的请求路由到提交任务的实例\n")
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addField(FieldSpec.builder(int.class, "MAX_ERRORS",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("100")
+                .build())
+            .addField(FieldSpec.builder(int.class, "MAX_HEADER_ROWS",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("在前几行中查找表头，表头之前可能有标题行\n")
+                .initializer("10")
+                .build())
+            .addField(FieldSpec.builder(Duration.class, "JOB_RETENTION",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.ofHours(1)", Duration.class)
+                .build())
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(Map.class),
+                        ClassName.get(String.class), jobClassName), "JOBS",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T<>()", ConcurrentHashMap.class)
+                .build())
+            .addField(FieldSpec.builder(ExecutorService.class, "EXECUTOR",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.newCachedThreadPool(runnable -> {\n$>"
+                        + "$T thread = new $T(runnable, $S);\n"
+                        + "thread.setDaemon(true);\n"
+                        + "return thread;\n"
+                        + "$<})",
+                    Executors.class, Thread.class, Thread.class, "excel-import")
+                .build())
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .build())
+            .addMethod(MethodSpec.methodBuilder("getJob")
+                .addJavadoc("查询导入任务，不存在或已被清理时返回 null\n\n"
+                    + "@param id\n"
+                    + "@return\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(String.class, "id")
+                .returns(jobClassName)
+                .addStatement("return JOBS.get(id)")
+                .build())
+            .addMethod(submitMethod(jobClassName))
+            .addMethod(runMethod(jobClassName, rowReaderClassName, formatterClassName))
+            .addMethod(dispatchMethod(jobClassName))
+            .addMethod(withContextMethod())
+            .addMethod(MethodSpec.methodBuilder("evictFinishedJobs")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addStatement("$T expiredBefore = $T.now().minus(JOB_RETENTION)", Instant.class,
+                    Instant.class)
+                .addStatement("JOBS.values().removeIf(job -> job.finishedAt != null "
+                    + "&& job.finishedAt.isBefore(expiredBefore))")
+                .build())
+            .addType(TypeSpec.enumBuilder(statusClassName)
+                .addModifiers(Modifier.PUBLIC)
+                .addEnumConstant("RUNNING")
+                .addEnumConstant("SUCCEEDED")
+                .addEnumConstant("FAILED")
+                .build())
+            .addType(jobType(jobClassName, statusClassName))
+            .addType(rowReaderType(rowReaderClassName))
+            .addType(plainNumberFormatterType(formatterClassName))
+            .build();
+    }
+
+    private MethodSpec submitMethod(ClassName jobClassName) {
+        return MethodSpec.methodBuilder("submit")
+            .addJavadoc("提交导入任务，任务结束后删除文件\n\n"
+                + "@param file        xlsx 文件\n"
+                + "@param headers     需要读取的列的表头，converter 收到的数组与其一一对应，缺失的列为 null\n"
+                + "@param converter   将一行转换为实体，抛出异常时记录错误并跳过该行\n"
+                + "@param writer      写入一块实体，抛出异常时该块中的行都记为失败\n"
+                + "@param batchSize   每块的行数\n"
+                + "@param parallelism 同时处理的块数\n"
+                + "@return\n")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addTypeVariable(T)
+            .addParameter(Path.class, "file")
+            .addParameter(ParameterizedTypeName.get(List.class, String.class), "headers")
+            .addParameter(CONVERTER_TYPE, "converter")
+            .addParameter(WRITER_TYPE, "writer")
+            .addParameter(int.class, "batchSize")
+            .addParameter(int.class, "parallelism")
+            .returns(jobClassName)
+            .addStatement("evictFinishedJobs()")
+            .addStatement("$T job = new $T($T.randomUUID().toString())", jobClassName,
+                jobClassName, UUID.class)
+            .addStatement("JOBS.put(job.id, job)")
+            .addCode("EXECUTOR.execute(withContext(() -> {\n$>")
+            .beginControlFlow("try")
+            .addStatement("run(job, file, headers, converter, writer, batchSize, parallelism)")
+            .addStatement("job.finish(null)")
+            .nextControlFlow("catch ($T e)", Exception.class)
+            .addStatement("job.finish(e.toString())")
+            .nextControlFlow("finally")
+            .beginControlFlow("try")
+            .addStatement("$T.deleteIfExists(file)", Files.class)
+            .nextControlFlow("catch ($T ignored)", IOException.class)
+            .addCode("// 临时文件由操作系统清理\n")
+            .endControlFlow()
+            .endControlFlow()
+            .addCode("$<}));\n")
+            .addStatement("return job")
+            .build();
+    }
+
+    private MethodSpec runMethod(ClassName jobClassName, ClassName rowReaderClassName,
+        ClassName formatterClassName) {
+        return MethodSpec.methodBuilder("run")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addTypeVariable(T)
+            .addParameter(jobClassName, "job")
+            .addParameter(Path.class, "file")
+            .addParameter(ParameterizedTypeName.get(List.class, String.class), "headers")
+            .addParameter(CONVERTER_TYPE, "converter")
+            .addParameter(WRITER_TYPE, "writer")
+            .addParameter(int.class, "batchSize")
+            .addParameter(int.class, "parallelism")
+            .addException(Exception.class)
+            .addStatement("$T permits = new $T(parallelism)", Semaphore.class, Semaphore.class)
+            .addStatement("$T reader = new $T(headers, batchSize, (rowNumbers, rows) -> "
+                    + "dispatch(job, permits, rowNumbers, rows, converter, writer))",
+                rowReaderClassName, rowReaderClassName)
+            .beginControlFlow("try ($T pkg = $T.open(file.toFile(), $T.READ))",
+                OPC_PACKAGE_CLASS_NAME, OPC_PACKAGE_CLASS_NAME, PACKAGE_ACCESS_CLASS_NAME)
+            .addStatement("$T xssfReader = new $T(pkg)", XSSF_READER_CLASS_NAME,
+                XSSF_READER_CLASS_NAME)
+            .addStatement("$T parser = $T.newXMLReader()", XML_READER_CLASS_NAME,
+                XML_HELPER_CLASS_NAME)
+            .addStatement("parser.setContentHandler(new $T(xssfReader.getStylesTable(), "
+                    + "new $T(pkg), reader, new $T(), false))",
+                SHEET_XML_HANDLER_CLASS_NAME, SHARED_STRINGS_CLASS_NAME, formatterClassName)
+            .addCode("// 只读取第一个工作表\n")
+            .beginControlFlow("try ($T sheet = xssfReader.getSheetsData().next())",
+                InputStream.class)
+            .addStatement("parser.parse(new $T(sheet))", INPUT_SOURCE_CLASS_NAME)
+            .endControlFlow()
+            .addStatement("reader.flush()")
+            .nextControlFlow("finally")
+            .addCode("// 等待已提交的块处理完成\n")
+            .addStatement("permits.acquireUninterruptibly(parallelism)")
+            .endControlFlow()
+            .build();
+    }
+
+    private MethodSpec dispatchMethod(ClassName jobClassName) {
+        return MethodSpec.methodBuilder("dispatch")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addTypeVariable(T)
+            .addParameter(jobClassName, "job")
+            .addParameter(Semaphore.class, "permits")
+            .addParameter(ROW_NUMBERS_TYPE, "rowNumbers")
+            .addParameter(ROWS_TYPE, "rows")
+            .addParameter(CONVERTER_TYPE, "converter")
+            .addParameter(WRITER_TYPE, "writer")
+            .addStatement("job.readRows.addAndGet(rows.size())")
+            .addCode("// 已有 parallelism 块在处理时阻塞读取，避免未处理的行堆积在内存中\n")
+            .addStatement("permits.acquireUninterruptibly()")
+            .beginControlFlow("try")
+            .addCode("EXECUTOR.execute(withContext(() -> {\n$>")
+            .beginControlFlow("try")
+            .addStatement("$T<$T> entities = new $T<>(rows.size())", List.class, T,
+                ArrayList.class)
+            .beginControlFlow("for (int i = 0; i < rows.size(); i++)")
+            .beginControlFlow("try")
+            .addStatement("entities.add(converter.apply(rows.get(i)))")
+            .nextControlFlow("catch ($T e)", RuntimeException.class)
+            .addStatement("job.fail(1, $S + rowNumbers.get(i) + $S + e.getMessage())", "第 ",
+                " 行: ")
+            .endControlFlow()
+            .endControlFlow()
+            .beginControlFlow("try")
+            .addStatement("writer.accept(entities)")
+            .addStatement("job.importedRows.addAndGet(entities.size())")
+            .nextControlFlow("catch ($T e)", RuntimeException.class)
+            .addStatement("job.fail(entities.size(), $S + rowNumbers.get(0) + $S "
+                    + "+ rowNumbers.get(rowNumbers.size() - 1) + $S + e.getMessage())",
+                "第 ", "-", " 行写入失败: ")
+            .endControlFlow()
+            .nextControlFlow("finally")
+            .addStatement("permits.release()")
+            .endControlFlow()
+            .addCode("$<}));\n")
+            .nextControlFlow("catch ($T e)", RuntimeException.class)
+            .addStatement("permits.release()")
+            .addStatement("throw e")
+            .endControlFlow()
+            .build();
+    }
+
+    /**
+     * 在线程池中执行时恢复提交任务的线程上的租户
+     *
+     * @return
+     */
+    private MethodSpec withContextMethod() {
+        return MethodSpec.methodBuilder("withContext")
+            .addJavadoc("在提交任务的线程上读取租户，执行时设置到线程池的线程上，使多租户拦截器按提交者的租户写入\n"
+                + "<p>\n"
+                + "线程池中的线程可能继承了创建它的请求的租户，因此总是覆盖\n\n"
+                + "@param task\n"
+                + "@return\n")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(Runnable.class, "task")
+            .returns(Runnable.class)
+            .addStatement("$T tenant = $T.getTenant()", String.class, TENANT_CONTEXT_CLASS_NAME)
+            .addCode("return () -> {\n$>")
+            .addStatement("$T.setTenant(tenant)", TENANT_CONTEXT_CLASS_NAME)
+            .beginControlFlow("try")
+            .addStatement("task.run()")
+            .nextControlFlow("finally")
+            .addStatement("$T.clear()", TENANT_CONTEXT_CLASS_NAME)
+            .endControlFlow()
+            .addCode("$<};\n")
+            .build();
+    }
+
+    private TypeSpec jobType(ClassName jobClassName, ClassName statusClassName) {
+        return TypeSpec.classBuilder(jobClassName)
+            .addJavadoc("导入任务的进度\n")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .addField(String.class, "id", Modifier.PRIVATE, Modifier.FINAL)
+            .addField(FieldSpec.builder(AtomicLong.class, "readRows",
+                    Modifier.PRIVATE, Modifier.FINAL)
+                .initializer("new $T()", AtomicLong.class)
+                .build())
+            .addField(FieldSpec.builder(AtomicLong.class, "importedRows",
+                    Modifier.PRIVATE, Modifier.FINAL)
+                .initializer("new $T()", AtomicLong.class)
+                .build())
+            .addField(FieldSpec.builder(AtomicLong.class, "failedRows",
+                    Modifier.PRIVATE, Modifier.FINAL)
+                .initializer("new $T()", AtomicLong.class)
+                .build())
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(List.class, String.class),
+                    "errors", Modifier.PRIVATE, Modifier.FINAL)
+                .initializer("$T.synchronizedList(new $T<>())", Collections.class,
+                    ArrayList.class)
+                .build())
+            .addField(FieldSpec.builder(statusClassName, "status", Modifier.PRIVATE,
+                    Modifier.VOLATILE)
+                .initializer("$T.RUNNING", statusClassName)
+                .build())
+            .addField(String.class, "message", Modifier.PRIVATE, Modifier.VOLATILE)
+            .addField(Instant.class, "finishedAt", Modifier.PRIVATE, Modifier.VOLATILE)
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(String.class, "id")
+                .addStatement("this.id = id")
+                .build())
+            .addMethod(MethodSpec.methodBuilder("fail")
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(int.class, "rows")
+                .addParameter(String.class, "error")
+                .addStatement("failedRows.addAndGet(rows)")
+                .beginControlFlow("synchronized (errors)")
+                .beginControlFlow("if (errors.size() < MAX_ERRORS)")
+                .addStatement("errors.add(error)")
+                .endControlFlow()
+                .endControlFlow()
+                .build())
+            .addMethod(MethodSpec.methodBuilder("finish")
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(String.class, "message")
+                .addStatement("this.message = message")
+                .addStatement("this.status = message == null ? $T.SUCCEEDED : $T.FAILED",
+                    statusClassName, statusClassName)
+                .addStatement("this.finishedAt = $T.now()", Instant.class)
+                .build())
+            .addMethod(getter("getId", ClassName.get(String.class), "return id"))
+            .addMethod(getter("getStatus", statusClassName, "return status"))
+            .addMethod(getter("getReadRows", TypeName.LONG, "return readRows.get()"))
+            .addMethod(getter("getImportedRows", TypeName.LONG, "return importedRows.get()"))
+            .addMethod(getter("getFailedRows", TypeName.LONG, "return failedRows.get()"))
+            .addMethod(MethodSpec.methodBuilder("getErrors")
+                .addJavadoc("最多保留前 $L 条错误\n\n@return\n", 100)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(List.class, String.class))
+                .beginControlFlow("synchronized (errors)")
+                .addStatement("return $T.copyOf(errors)", List.class)
+                .endControlFlow()
+                .build())
+            .addMethod(getter("getMessage", ClassName.get(String.class), "return message"))
+            .build();
+    }
+
+    private static MethodSpec getter(String name, TypeName type, String statement) {
+        return MethodSpec.methodBuilder(name)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(type)
+            .addStatement(statement)
+            .build();
+    }
+
+    /**
+     * 数值单元格使用原始值，不按单元格格式输出千分位、科学计数法或截断的小数；日期格式的单元格仍按格式输出
+     *
+     * @param formatterClassName
+     * @return
+     */
+    private TypeSpec plainNumberFormatterType(ClassName formatterClassName) {
+        return TypeSpec.classBuilder(formatterClassName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .superclass(DATA_FORMATTER_CLASS_NAME)
+            .addMethod(MethodSpec.methodBuilder("formatRawCellContents")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(double.class, "value")
+                .addParameter(int.class, "formatIndex")
+                .addParameter(String.class, "formatString")
+                .addParameter(boolean.class, "use1904Windowing")
+                .returns(String.class)
+                .beginControlFlow("if ($T.isADateFormat(formatIndex, formatString))",
+                    DATE_UTIL_CLASS_NAME)
+                .addStatement("return super.formatRawCellContents(value, formatIndex, "
+                    + "formatString, use1904Windowing)")
+                .endControlFlow()
+                .addCode("// 整数不带小数部分，以便按 Integer、Long 解析\n")
+                .addStatement("return $T.valueOf(value).stripTrailingZeros().toPlainString()",
+                    BigDecimal.class)
+                .build())
+            .build();
+    }
+
+    /**
+     * 将 SAX 事件还原为按表头排列的行，按块回调
+     *
+     * @param rowReaderClassName
+     * @return
+     */
+    private TypeSpec rowReaderType(ClassName rowReaderClassName) {
+        TypeName chunkConsumerType = ParameterizedTypeName.get(
+            ClassName.get(BiConsumer.class), ROW_NUMBERS_TYPE, ROWS_TYPE);
+        return TypeSpec.classBuilder(rowReaderClassName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .addSuperinterface(SHEET_CONTENTS_HANDLER_CLASS_NAME)
+            .addField(ParameterizedTypeName.get(List.class, String.class), "headers",
+                Modifier.PRIVATE, Modifier.FINAL)
+            .addField(int.class, "batchSize", Modifier.PRIVATE, Modifier.FINAL)
+            .addField(chunkConsumerType, "chunkConsumer", Modifier.PRIVATE, Modifier.FINAL)
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(Map.class, Integer.class,
+                    Integer.class), "headerColumns", Modifier.PRIVATE, Modifier.FINAL)
+                .addJavadoc("表头所在的列号到表头下标的映射\n")
+                .initializer("new $T<>()", HashMap.class)
+                .build())
+            .addField(FieldSpec.builder(int[].class, "columnIndexes", Modifier.PRIVATE)
+                .addJavadoc("工作表中的列号到表头下标的映射，读取表头行之前为 null\n")
+                .build())
+            .addField(STRING_ARRAY, "current", Modifier.PRIVATE)
+            .addField(int.class, "nextColumn", Modifier.PRIVATE)
+            .addField(boolean.class, "empty", Modifier.PRIVATE)
+            .addField(ROW_NUMBERS_TYPE, "rowNumbers", Modifier.PRIVATE)
+            .addField(ROWS_TYPE, "rows", Modifier.PRIVATE)
+            .addMethod(MethodSpec.constructorBuilder()
+                .addParameter(ParameterizedTypeName.get(List.class, String.class), "headers")
+                .addParameter(int.class, "batchSize")
+                .addParameter(chunkConsumerType, "chunkConsumer")
+                .addStatement("this.headers = headers")
+                .addStatement("this.batchSize = batchSize")
+                .addStatement("this.chunkConsumer = chunkConsumer")
+                .addStatement("this.rowNumbers = new $T<>(batchSize)", ArrayList.class)
+                .addStatement("this.rows = new $T<>(batchSize)", ArrayList.class)
+                .build())
+            .addMethod(MethodSpec.methodBuilder("startRow")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(int.class, "rowNum")
+                .addStatement("current = new $T[columnIndexes == null ? 0 : headers.size()]",
+                    String.class)
+                .addStatement("nextColumn = 0")
+                .addStatement("empty = true")
+                .build())
+            .addMethod(MethodSpec.methodBuilder("cell")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(String.class, "cellReference")
+                .addParameter(String.class, "formattedValue")
+                .addParameter(XSSF_COMMENT_CLASS_NAME, "comment")
+                .addStatement("int column = cellReference == null ? nextColumn "
+                    + ": new $T(cellReference).getCol()", CELL_REFERENCE_CLASS_NAME)
+                .addStatement("nextColumn = column + 1")
+                .beginControlFlow("if (formattedValue == null || formattedValue.isBlank())")
+                .addStatement("return")
+                .endControlFlow()
+                .beginControlFlow("if (columnIndexes == null)")
+                .addCode("// 表头行，记录每个表头所在的列\n")
+                .addStatement("int index = headers.indexOf(formattedValue.trim())")
+                .beginControlFlow("if (index >= 0)")
+                .addStatement("headerColumns.put(column, index)")
+                .endControlFlow()
+                .addStatement("return")
+                .endControlFlow()
+                .beginControlFlow("if (column < columnIndexes.length && columnIndexes[column] >= 0)")
+                .addStatement("current[columnIndexes[column]] = formattedValue")
+                .addStatement("empty = false")
+                .endControlFlow()
+                .build())
+            .addMethod(MethodSpec.methodBuilder("endRow")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(int.class, "rowNum")
+                .beginControlFlow("if (columnIndexes == null)")
+                .beginControlFlow("if (headerColumns.isEmpty())")
+                .addCode("// 没有匹配任何表头的行视为标题行，如 JeecgBoot 模板中的 titleRows\n")
+                .beginControlFlow("if (rowNum + 1 >= MAX_HEADER_ROWS)")
+                .addStatement("throw new $T($S + MAX_HEADER_ROWS + $S + headers)",
+                    IllegalStateException.class, "前 ", " 行中没有找到表头: ")
+                .endControlFlow()
+                .addStatement("return")
+                .endControlFlow()
+                .addStatement("int width = headerColumns.keySet().stream()"
+                    + ".mapToInt(Integer::intValue).max().orElse(-1) + 1")
+                .addStatement("columnIndexes = new int[width]")
+                .addStatement("$T.fill(columnIndexes, -1)", Arrays.class)
+                .addStatement("headerColumns.forEach((column, index) -> "
+                    + "columnIndexes[column] = index)")
+                .addStatement("return")
+                .endControlFlow()
+                .beginControlFlow("if (empty)")
+                .addStatement("return")
+                .endControlFlow()
+                .addCode("// Excel 中的行号从 1 开始\n")
+                .addStatement("rowNumbers.add(rowNum + 1)")
+                .addStatement("rows.add(current)")
+                .beginControlFlow("if (rows.size() >= batchSize)")
+                .addStatement("flush()")
+                .endControlFlow()
+                .build())
+            .addMethod(MethodSpec.methodBuilder("flush")
+                .addJavadoc("将未满一块的剩余行交给 chunkConsumer\n")
+                .beginControlFlow("if (columnIndexes == null)")
+                .addStatement("throw new $T($S + headers)", IllegalStateException.class,
+                    "没有找到表头: ")
+                .endControlFlow()
+                .beginControlFlow("if (!rows.isEmpty())")
+                .addStatement("chunkConsumer.accept(rowNumbers, rows)")
+                .addStatement("rowNumbers = new $T<>(batchSize)", ArrayList.class)
+                .addStatement("rows = new $T<>(batchSize)", ArrayList.class)
+                .endControlFlow()
+                .build())
+            .build();
+    }
+}
@@ -0,0 +1,2298 @@
+package cc.ddrpa.dorian.norbo.jeecgboot.generator;
+
+import cc.ddrpa.dorian.norbo.jeecgboot.annotation.JeecgBootController;
+import cc.ddrpa.dorian.norbo.jeecgboot.annotation.JeecgBootController.ListCount;
+import cc.ddrpa.dorian.norbo.model.ColumnModel;
+import cc.ddrpa.dorian.norbo.model.EntityModel;
+import cc.ddrpa.dorian.norbo.processor.Generator;
+import cc.ddrpa.dorian.norbo.processor.GeneratorContext;
+import cc.ddrpa.dorian.norbo.util.AnnotationIndex;
+import cc.ddrpa.dorian.norbo.util.AnnotationIndex.IndexedAnnotation;
+import cc.ddrpa.dorian.norbo.util.MeterUtils;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+
+/**
+ * 为 {@code @JeecgBootController} 修饰的实体类生成 Controller
+ */
+public class JeecgBootControllerGenerator implements Generator {
+
+    private static final ClassName JEECG_RESULT_CLASS_NAME = ClassName.get(
+        "org.jeecg.common.api.vo", "Result");
+    private static final ClassName JEECG_AUTOLOG_CLASS_NAME = ClassName.get(
+        "org.jeecg.common.aspect.annotation", "AutoLog");
+    private static final ClassName SWAGGER_TAG_CLASS_NAME = ClassName.get(
+        "io.swagger.v3.oas.annotations.tags", "Tag");
+    private static final ClassName SXSSF_WORKBOOK_CLASS_NAME = ClassName.get(
+        "org.apache.poi.xssf.streaming", "SXSSFWorkbook");
+    private static final ClassName SHEET_CLASS_NAME = ClassName.get(
+        "org.apache.poi.ss.usermodel", "Sheet");
+    private static final ClassName ROW_CLASS_NAME = ClassName.get(
+        "org.apache.poi.ss.usermodel", "Row");
+    private static final ClassName DATE_CLASS_NAME = ClassName.get(Date.class);
+    private static final ClassName TRANSACTIONAL_CLASS_NAME = ClassName.get(
+        "org.springframework.transaction.annotation", "Transactional");
+    private static final ClassName WEB_REQUEST_CLASS_NAME = ClassName.get(
+        "org.springframework.web.context.request", "WebRequest");
+    private static final ClassName OBJECT_MAPPER_CLASS_NAME = ClassName.get(
+        "com.fasterxml.jackson.databind", "ObjectMapper");
+    private static final ClassName HTTP_HEADERS_CLASS_NAME = ClassName.get(
+        "org.springframework.http", "HttpHeaders");
+    private static final ClassName WORKBOOK_UTIL_CLASS_NAME = ClassName.get(
+        "org.apache.poi.ss.util", "WorkbookUtil");
+    private static final String EXCEL = "org.jeecgframework.poi.excel.annotation.Excel";
+    private static final String DICT = "org.jeecg.common.aspect.annotation.Dict";
+    /**
+     * 与 SXSSFWorkbook.DEFAULT_WINDOW_SIZE 一致
+     */
+    private static final int SXSSF_WINDOW_SIZE = 100;
+    private static final Map<TypeName, String> DEFAULT_DATE_FORMATS = Map.of(
+        ClassName.get(LocalDate.class), "yyyy-MM-dd",
+        ClassName.get(LocalTime.class), "HH:mm:ss",
+        ClassName.get(LocalDateTime.class), "yyyy-MM-dd HH:mm:ss",
+        ClassName.get(OffsetDateTime.class), "yyyy-MM-dd HH:mm:ss",
+        ClassName.get(ZonedDateTime.class), "yyyy-MM-dd HH:mm:ss",
+        DATE_CLASS_NAME, "yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 已生成的 ExcelImportSupport，每个包只生成一次
+     */
+    private final Set<String> generatedImportSupports = new HashSet<>();
+    /**
+     * 已生成的 ListTotalCache，每个包只生成一次
+     */
+    private final Set<String> generatedTotalCaches = new HashSet<>();
+
+    /**
+     * 同一个包下的 Controller 共享的 ListTotalCache 与 ExcelImportSupport
+     * <p>
+     * 只按注解的属性判断是否需要，因字典等原因回退到默认实现的 Controller 不会使用生成的类
+     *
+     * @param context
+     */
+    @Override
+    public void generateShared(GeneratorContext context) {
+        // 不构建实体模型，避免解析列时的诊断信息重复输出
+        for (Element element : context.getRoundEnv()
+            .getElementsAnnotatedWith(JeecgBootController.class)) {
+            if (!element.getKind().isClass()) {
+                continue;
+            }
+            JeecgBootController controller = element.getAnnotation(JeecgBootController.class);
+            // Controller 与实体类位于同一个包下
+            String packageName = context.getElementUtils().getPackageOf(element)
+                .getQualifiedName().toString();
+            if (controller.listCount() == ListCount.CACHED) {
+                writeListTotalCacheIfAbsent(context,
+                    ClassName.get(packageName, "ListTotalCache"), element);
+            }
+            if (controller.asyncImport()) {
+                writeExcelImportSupportIfAbsent(context,
+                    ClassName.get(packageName, "ExcelImportSupport"), element);
+            }
+        }
+    }
+
+    @Override
+    public void generate(GeneratorContext context) {
+        for (EntityModel entity : context.entities()) {
+            if (Objects.isNull(entity.controller())) {
+                continue;
+            }
+            // 获取注解中的属性
+            String moduleDescription = entity.controller().value();
+
+            ClassName controllerClassName = entity.controllerClassName();
+            ClassName entityClassName = entity.entityClassName();
+            ClassName repositoryClassName = entity.repositoryClassName();
+            String repositoryBeanName = entity.repositoryBeanName();
+
+            Optional<CodeBlock> listColumns = listColumns(context, entity);
+            Optional<ColumnModel> etagColumn = entity.controller().etag()
+                ? etagColumn(context, entity) : Optional.empty();
+
+            // 创建类声明
+            TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(controllerClassName)
+                .addOriginatingElement(entity.element())
+                .addAnnotation(AnnotationSpec.builder(SWAGGER_TAG_CLASS_NAME)
+                    .addMember("name", "$S", moduleDescription)
+                    .build())
+                .addAnnotation(
+                    ClassName.get("org.springframework.web.bind.annotation", "RestController"))
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestMapping"))
+                    .addMember("value", "$S", "")
+                    .build())
+                .addAnnotation(ClassName.get("lombok", "RequiredArgsConstructor"))
+                .addModifiers(Modifier.PUBLIC)
+                .superclass(ParameterizedTypeName.get(
+                    ClassName.get("org.jeecg.common.system.base.controller", "JeecgController"),
+                    entityClassName,
+                    repositoryClassName))
+                .addField(FieldSpec.builder(ClassName.get("org.slf4j", "Logger"),
+                        "logger",
+                        Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$T.getLogger($T.class)",
+                        ClassName.get("org.slf4j", "LoggerFactory"),
+                        controllerClassName)
+                    .build())
+                .addField(FieldSpec.builder(repositoryClassName, repositoryBeanName,
+                        Modifier.PRIVATE, Modifier.FINAL)
+                    .build())
+                .addMethod(queryPageListMethod(entity, listColumns.isPresent(), etagColumn))
+                .addMethod(add(entityClassName, repositoryBeanName, moduleDescription))
+                .addMethod(edit(entityClassName, repositoryBeanName, moduleDescription))
+                .addMethod(delete(repositoryBeanName, moduleDescription))
+                .addMethod(deleteBatch(context, entity))
+                .addMethod(queryById(entity, etagColumn));
+            // 没有主键时无法按请求的顺序返回
+            if (entity.idColumn().isPresent()) {
+                typeBuilder.addMethod(queryByIds(context, entity, entity.idColumn().get()));
+            }
+            if (entity.controller().patch()) {
+                addPatch(context, entity, typeBuilder);
+            }
+            listColumns.ifPresent(columns -> typeBuilder.addField(
+                FieldSpec.builder(String[].class, "LIST_COLUMNS",
+                        Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer(columns)
+                    .build()));
+            if (entity.controller().listCount() != ListCount.EXACT) {
+                addProbePage(context, entity, typeBuilder);
+            }
+            etagColumn.ifPresent(column -> typeBuilder
+                .addMethod(etagVersionMethod(entityClassName, column))
+                .addMethod(etagMethod(entityClassName))
+                .addMethod(pageEtagMethod(entity)));
+            List<ExcelColumn> excelColumns = List.of();
+            Map<String, String> formatterNames = Map.of();
+            boolean streamingExport = entity.controller().streamingExport();
+            boolean asyncImport = entity.controller().asyncImport();
+            if (streamingExport || asyncImport) {
+                excelColumns = excelColumns(context, entity);
+                streamingExport &= translatable(context, excelColumns, "exportConvert",
+                    "Streaming export");
+                asyncImport &= translatable(context, excelColumns, "importConvert",
+                    "Async import");
+            }
+            if (streamingExport || asyncImport) {
+                formatterNames = addDateFormatters(typeBuilder, excelColumns);
+            }
+            if (streamingExport) {
+                addStreamingExport(context, entity, typeBuilder, excelColumns, formatterNames);
+            } else {
+                typeBuilder.addMethod(exportExcel(entityClassName));
+            }
+            if (asyncImport) {
+                addAsyncImport(context, entity, typeBuilder, excelColumns, formatterNames);
+            } else {
+                typeBuilder.addMethod(importExcel(entityClassName));
+            }
+            if (entity.controller().keyset()) {
+                keysetColumns(context, entity).ifPresent(keys -> typeBuilder
+                    .addField(FieldSpec.builder(ClassName.get(Base64.Encoder.class),
+                            "CURSOR_ENCODER", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$T.getUrlEncoder().withoutPadding()", Base64.class)
+                        .build())
+                    .addType(keysetPageType(entityClassName))
+                    .addMethod(queryListAfterMethod(entity, keys, moduleDescription,
+                        listColumns.isPresent()))
+                    .addMethod(encodeCursorMethod())
+                    .addMethod(decodeCursorMethod()));
+            }
+            if (entity.controller().instrument()) {
+                instrumentEndpoints(controllerClassName, typeBuilder);
+            }
+            context.write(controllerClassName, typeBuilder.build(), entity.element());
+        }
+    }
+
+    /**
+     * 为每个接口记录耗时，同名接口共享一个 Timer
+     *
+     * @param controllerClassName
+     * @param typeBuilder
+     */
+    protected void instrumentEndpoints(ClassName controllerClassName,
+        TypeSpec.Builder typeBuilder) {
+        Set<String> timerFields = new HashSet<>();
+        typeBuilder.methodSpecs.replaceAll(method -> {
+            boolean endpoint = method.annotations.stream()
+                .map(annotation -> annotation.type)
+                .anyMatch(type -> type instanceof ClassName className
+                    && className.packageName().equals("org.springframework.web.bind.annotation")
+                    && className.simpleName().endsWith("Mapping"));
+            if (!endpoint) {
+                return method;
+            }
+            String timerField = MeterUtils.fieldName(method.name, "TIMER");
+            if (timerFields.add(timerField)) {
+                typeBuilder.addField(MeterUtils.timerField(timerField, "norbo.controller",
+                    "controller", controllerClassName.simpleName(), "method", method.name));
+            }
+            return MeterUtils.timed(method, timerField);
+        });
+    }
+
+    /**
+     * 分页列表查询
+     *
+     * @param entity
+     * @param projection 是否只查询 LIST_COLUMNS 中的列
+     * @param etagColumn 计算 ETag 的列，不处理条件请求时为 empty
+     * @return
+     */
+    protected MethodSpec queryPageListMethod(EntityModel entity, boolean projection,
+        Optional<ColumnModel> etagColumn) {
+        ClassName entityClassName = entity.entityClassName();
+        String repositoryBeanName = entity.repositoryBeanName();
+        String moduleDescription = entity.controller().value();
+        ClassName queryWrapperClassName = ClassName.get(
+            "com.baomidou.mybatisplus.core.conditions.query", "QueryWrapper");
+        ClassName queryGeneratorClassName = ClassName.get("org.jeecg.common.system.query",
+            "QueryGenerator");
+        ClassName pageClassName = ClassName.get(
+            "com.baomidou.mybatisplus.extension.plugins.pagination", "Page");
+        ClassName iPageClassName = ClassName.get("com.baomidou.mybatisplus.core.metadata",
+            "IPage");
+        ListCount listCount = entity.controller().listCount();
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("queryPageList")
+            .addJavadoc("分页列表查询\n\n" +
+                "@param entity\n" +
+                "@param pageNo\n" +
+                "@param pageSize\n" +
+                (listCount == ListCount.EXACT ? "@param searchCount 是否查询总数\n" : "") +
+                "@param request\n" +
+                (etagColumn.isPresent() ? "@param webRequest\n" : "") +
+                "@return\n")
+            .addAnnotation(AnnotationSpec.builder(JEECG_AUTOLOG_CLASS_NAME)
+                .addMember("value", "$S", String.format("%s-分页列表查询", moduleDescription))
+                .build())
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("io.swagger.v3.oas.annotations", "Operation"))
+                .addMember("summary", "$S", String.format("%s-分页列表查询", moduleDescription))
+                .build())
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "GetMapping"))
+                .addMember("value", "$S", "/list")
+                .build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(JEECG_RESULT_CLASS_NAME,
+                ParameterizedTypeName.get(iPageClassName, entityClassName)))
+            .addParameter(entityClassName, "entity")
+            .addParameter(ParameterSpec.builder(ClassName.get("java.lang", "Integer"),
+                    "pageNo")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestParam"))
+                    .addMember("name", "$S", "pageNo")
+                    .addMember("defaultValue", "$S", "1")
+                    .build())
+                .build())
+            .addParameter(ParameterSpec.builder(ClassName.get("java.lang", "Integer"),
+                    "pageSize")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestParam"))
+                    .addMember("name", "$S", "pageSize")
+                    .addMember("defaultValue", "$S", "10")
+                    .build())
+                .build());
+        if (listCount == ListCount.EXACT) {
+            methodBuilder.addParameter(ParameterSpec.builder(ClassName.get("java.lang", "Boolean"),
+                    "searchCount")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestParam"))
+                    .addMember("name", "$S", "searchCount")
+                    .addMember("defaultValue", "$S", "true")
+                    .build())
+                .build());
+        }
+        methodBuilder.addParameter(ClassName.get("jakarta.servlet.http", "HttpServletRequest"),
+            "request");
+        etagColumn.ifPresent(column -> methodBuilder.addParameter(WEB_REQUEST_CLASS_NAME,
+            "webRequest"));
+        if (listCount != ListCount.EXACT) {
+            return methodBuilder
+                .addCode(probeListCode(entity, projection, etagColumn))
+                .build();
+        }
+        CodeBlock.Builder code = CodeBlock.builder()
+            .addStatement(
+                "$T<$T> queryWrapper = $T.initQueryWrapper(entity, request.getParameterMap())",
+                queryWrapperClassName, entityClassName, queryGeneratorClassName)
+            .add(projection ? CodeBlock.of("queryWrapper.select(LIST_COLUMNS);\n")
+                : CodeBlock.of(""))
+            // searchCount 为 false 时不执行 COUNT 查询，返回的 total 为 0
+            .addStatement("$T<$T> page = new $T<>(pageNo, pageSize, searchCount)",
+                pageClassName, entityClassName, pageClassName);
+        if (etagColumn.isPresent()) {
+            code.addStatement("boolean conditional = webRequest.getHeader($T.IF_NONE_MATCH) != null",
+                    HTTP_HEADERS_CLASS_NAME)
+                .beginControlFlow("if (conditional)")
+                .add("// 先只查询主键与版本列，结果未变化时不加载整页数据\n")
+                .addStatement(
+                    "$T<$T> etagWrapper = $T.initQueryWrapper(entity, request.getParameterMap())",
+                    queryWrapperClassName, entityClassName, queryGeneratorClassName)
+                .addStatement("etagWrapper.select($L, $L)",
+                    selectColumn(entity, entity.idColumn().orElseThrow()),
+                    selectColumn(entity, etagColumn.get()))
+                .addStatement(
+                    "$T<$T> versions = $L.page(new $T<>(pageNo, pageSize, searchCount), etagWrapper)",
+                    iPageClassName, entityClassName, repositoryBeanName, pageClassName)
+                .beginControlFlow("if (webRequest.checkNotModified(pageEtag(versions)))")
+                .addStatement("return null")
+                .endControlFlow()
+                .add("// 已经查询过总数\n")
+                .addStatement("page.setSearchCount(false)")
+                .addStatement("page.setTotal(versions.getTotal())")
+                .endControlFlow();
+        }
+        code.addStatement("$T<$T> pageList = $L.page(page, queryWrapper)",
+            iPageClassName, entityClassName, repositoryBeanName);
+        if (etagColumn.isPresent()) {
+            code.beginControlFlow("if (!conditional)")
+                .add("// 写出 ETag 响应头\n")
+                .addStatement("webRequest.checkNotModified(pageEtag(pageList))")
+                .endControlFlow();
+        }
+        return methodBuilder
+            .addCode(code.addStatement("return $T.OK(pageList)", JEECG_RESULT_CLASS_NAME).build())
+            .build();
+    }
+
+    /**
+     * 不执行 COUNT 查询的分页列表查询，{@link ListCount#CACHED} 时使用缓存的总数
+     *
+     * @param entity
+     * @param projection 是否只查询 LIST_COLUMNS 中的列
+     * @param etagColumn 计算 ETag 的列，不处理条件请求时为 empty
+     * @return
+     */
+    protected CodeBlock probeListCode(EntityModel entity, boolean projection,
+        Optional<ColumnModel> etagColumn) {
+        ClassName entityClassName = entity.entityClassName();
+        String repositoryBeanName = entity.repositoryBeanName();
+        ClassName queryWrapperClassName = ClassName.get(
+            "com.baomidou.mybatisplus.core.conditions.query", "QueryWrapper");
+        ClassName queryGeneratorClassName = ClassName.get("org.jeecg.common.system.query",
+            "QueryGenerator");
+        ClassName iPageClassName = ClassName.get("com.baomidou.mybatisplus.core.metadata",
+            "IPage");
+        CodeBlock.Builder code = CodeBlock.builder()
+            .beginControlFlow("if (pageSize < 1)")
+            .addStatement("return $T.error($S)", JEECG_RESULT_CLASS_NAME, "pageSize 必须大于 0")
+            .endControlFlow()
+            .addStatement(
+                "$T<$T> queryWrapper = $T.initQueryWrapper(entity, request.getParameterMap())",
+                queryWrapperClassName, entityClassName, queryGeneratorClassName)
+            .add(projection ? CodeBlock.of("queryWrapper.select(LIST_COLUMNS);\n")
+                : CodeBlock.of(""));
+        if (entity.controller().listCount() == ListCount.CACHED) {
+            code.add("// 总数在后台线程中计算，请求线程只读取上一次的结果\n")
+                .addStatement(
+                    "$T<$T> countWrapper = $T.initQueryWrapper(entity, request.getParameterMap())",
+                    queryWrapperClassName, entityClassName, queryGeneratorClassName)
+                .addStatement("countWrapper.getExpression().getOrderBy().clear()")
+                .addStatement(
+                    "$T knownTotal = LIST_TOTALS.get(listTotalKey(countWrapper), () -> $L.count(countWrapper))",
+                    Long.class, repositoryBeanName);
+        } else {
+            code.addStatement("$T knownTotal = null", Long.class);
+        }
+        if (etagColumn.isPresent()) {
+            code.addStatement("boolean conditional = webRequest.getHeader($T.IF_NONE_MATCH) != null",
+                    HTTP_HEADERS_CLASS_NAME)
+                .beginControlFlow("if (conditional)")
+                .add("// 先只查询主键与版本列，结果未变化时不加载整页数据\n")
+                .addStatement(
+                    "$T<$T> etagWrapper = $T.initQueryWrapper(entity, request.getParameterMap())",
+                    queryWrapperClassName, entityClassName, queryGeneratorClassName)
+                .addStatement("etagWrapper.select($L, $L)",
+                    selectColumn(entity, entity.idColumn().orElseThrow()),
+                    selectColumn(entity, etagColumn.get()))
+                .beginControlFlow(
+                    "if (webRequest.checkNotModified(pageEtag(probePage(etagWrapper, pageNo, pageSize, knownTotal))))")
+                .addStatement("return null")
+                .endControlFlow()
+                .endControlFlow();
+        }
+        code.addStatement("$T<$T> pageList = probePage(queryWrapper, pageNo, pageSize, knownTotal)",
+            iPageClassName, entityClassName);
+        if (etagColumn.isPresent()) {
+            code.beginControlFlow("if (!conditional)")
+                .add("// 写出 ETag 响应头\n")
+                .addStatement("webRequest.checkNotModified(pageEtag(pageList))")
+                .endControlFlow();
+        }
+        return code.addStatement("return $T.OK(pageList)", JEECG_RESULT_CLASS_NAME).build();
+    }
+
+    /**
+     * 不执行 COUNT 查询所需的类型与方法，{@link ListCount#CACHED} 时使用 generateShared 生成的
+     * ListTotalCache
+     *
+     * @param context
+     * @param entity
+     * @param typeBuilder
+     */
+    protected void addProbePage(GeneratorContext context, EntityModel entity,
+        TypeSpec.Builder typeBuilder) {
+        ClassName entityClassName = entity.entityClassName();
+        ClassName queryWrapperClassName = ClassName.get(
+            "com.baomidou.mybatisplus.core.conditions.query", "QueryWrapper");
+        typeBuilder.addType(probePageType())
+            .addMethod(probePageMethod(entity));
+        if (entity.controller().listCount() != ListCount.CACHED) {
+            return;
+        }
+        if (entity.controller().listCountTtl() < 0) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "listCountTtl must not be negative", entity.element());
+        }
+        // 后台线程取不到请求线程上的租户等上下文，缓存的键也只包含查询条件
+        context.getMessager().printMessage(Diagnostic.Kind.WARNING,
+            "ListCount.CACHED counts on a background thread without the request's ThreadLocal "
+                + "context and shares totals across tenants; use PROBE with tenant or data scope "
+                + "interceptors", entity.element());
+        ClassName cacheClassName = ClassName.get(entity.controllerClassName().packageName(),
+            "ListTotalCache");
+        typeBuilder.addField(FieldSpec.builder(cacheClassName, "LIST_TOTALS",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T($LL)", cacheClassName, entity.controller().listCountTtl())
+                .build())
+            .addMethod(MethodSpec.methodBuilder("listTotalKey")
+                .addJavadoc("缓存总数使用的查询条件，包含 SQL 片段与参数值\n")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(String.class)
+                .addParameter(ParameterizedTypeName.get(queryWrapperClassName, entityClassName),
+                    "queryWrapper")
+                .addStatement(
+                    "return queryWrapper.getSqlSegment() + queryWrapper.getParamNameValuePairs()\n"
+                        + "$>$>+ $T.toString(queryWrapper.getEntity(), \"\")$<$<",
+                    Objects.class)
+                .build());
+    }
+
+    /**
+     * 按偏移量分页的 Page，页大小比前端请求的多一行
+     *
+     * @return
+     */
+    protected TypeSpec probePageType() {
+        ClassName pageClassName = ClassName.get(
+            "com.baomidou.mybatisplus.extension.plugins.pagination", "Page");
+        TypeVariableName t = TypeVariableName.get("T");
+        return TypeSpec.classBuilder("ProbePage")
+            .addJavadoc("按偏移量而不是页码分页，用于多查询一行判断是否存在下一页\n")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addTypeVariable(t)
+            .superclass(ParameterizedTypeName.get(pageClassName, t))
+            .addField(FieldSpec.builder(long.class, "serialVersionUID",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("1L")
+                .build())
+            .addField(long.class, "offset", Modifier.PRIVATE, Modifier.FINAL)
+            .addMethod(MethodSpec.constructorBuilder()
+                .addParameter(long.class, "offset")
+                .addParameter(long.class, "size")
+                .addStatement("super(1, size, false)")
+                .addStatement("this.offset = offset")
+                .build())
+            .addMethod(MethodSpec.methodBuilder("offset")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(long.class)
+                .addStatement("return offset")
+                .build())
+            .build();
+    }
+
+    /**
+     * 多查询一行判断是否存在下一页
+     *
+     * @param entity
+     * @return
+     */
+    protected MethodSpec probePageMethod(EntityModel entity) {
+        ClassName entityClassName = entity.entityClassName();
+        ClassName pageClassName = ClassName.get(
+            "com.baomidou.mybatisplus.extension.plugins.pagination", "Page");
+        ClassName probePageClassName = entity.controllerClassName().nestedClass("ProbePage");
+        return MethodSpec.methodBuilder("probePage")
+            .addJavadoc("不执行 COUNT 查询的分页，多查询一行判断是否存在下一页\n"
+                + "<p>\n"
+                + "total 为已知记录数，存在下一页时再加 1；knownTotal 与当前页不矛盾时使用 knownTotal\n\n"
+                + "@param queryWrapper\n"
+                + "@param pageNo\n"
+                + "@param pageSize\n"
+                + "@param knownTotal   缓存的总数，没有时为 null\n"
+                + "@return\n")
+            .addModifiers(Modifier.PRIVATE)
+            .returns(ParameterizedTypeName.get(pageClassName, entityClassName))
+            .addParameter(ParameterizedTypeName.get(ClassName.get(
+                    "com.baomidou.mybatisplus.core.conditions.query", "QueryWrapper"),
+                entityClassName), "queryWrapper")
+            .addParameter(int.class, "pageNo")
+            .addParameter(int.class, "pageSize")
+            .addParameter(Long.class, "knownTotal")
+            .addStatement("long offset = ($T.max(pageNo, 1) - 1L) * pageSize", Math.class)
+            .addStatement("$T<$T> records = $L.page(new $T<>(offset, pageSize + 1L), queryWrapper)"
+                    + ".getRecords()", List.class, entityClassName, entity.repositoryBeanName(),
+                probePageClassName)
+            .addStatement("boolean hasNext = records.size() > pageSize")
+            .beginControlFlow("if (hasNext)")
+            .addStatement("records = new $T<>(records.subList(0, pageSize))", ArrayList.class)
+            .endControlFlow()
+            .addStatement("long total = offset + records.size() + (hasNext ? 1 : 0)")
+            .beginControlFlow("if (knownTotal != null)")
+            .addCode("// 不存在下一页且当前页不为空时 total 是准确的，不使用可能已经过期的 knownTotal\n")
+            .beginControlFlow("if (hasNext)")
+            .addStatement("total = $T.max(total, knownTotal)", Math.class)
+            .nextControlFlow("else if (records.isEmpty())")
+            .addStatement("total = $T.min(total, knownTotal)", Math.class)
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("$T<$T> page = new $T<>(pageNo, pageSize, total, false)",
+                pageClassName, entityClassName, pageClassName)
+            .addStatement("page.setRecords(records)")
+            .addStatement("return page")
+            .build();
+    }
+
+    /**
+     * 列表接口查询的列，即 {@code select = false} 与 listExcludes 以外的列；未指定 listExcludes 时返回空
+     * <p>
+     * 未使用 autoResultMap 时，与 MyBatis-Plus 一致，为列名与属性名不同的列添加别名
+     *
+     * @param context
+     * @param entity
+     * @return LIST_COLUMNS 的初始值
+     */
+    protected Optional<CodeBlock> listColumns(GeneratorContext context, EntityModel entity) {
+        String[] listExcludes = entity.controller().listExcludes();
+        if (listExcludes.length == 0) {
+            return Optional.empty();
+        }
+        Set<String> excluded = Set.of(listExcludes);
+        for (String property : excluded) {
+            if (entity.columns().stream().noneMatch(c -> c.propertyName().equals(property))) {
+                context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unknown listExcludes property: " + property, entity.element());
+            }
+        }
+        CodeBlock columns = entity.columns().stream()
+            .filter(ColumnModel::select)
+            .filter(column -> !excluded.contains(column.propertyName()))
+            .map(column -> selectColumn(entity, column))
+            .collect(CodeBlock.joining(",\n"));
+        return Optional.of(CodeBlock.of("{\n$>$>$L$<$<}", columns));
+    }
+
+    /**
+     * 列名，有 Mapper 时引用其中的列名常量
+     *
+     * @param entity
+     * @param column
+     * @return
+     */
+    protected CodeBlock columnName(EntityModel entity, ColumnModel column) {
+        return Objects.nonNull(entity.mapper())
+            ? CodeBlock.of("$T.$L", entity.mapperClassName(), column.constantName())
+            : CodeBlock.of("$S", column.columnName());
+    }
+
+    /**
+     * 传给 {@code QueryWrapper#select} 的列；未使用 autoResultMap 时，与 MyBatis-Plus 一致，为列名与属性名不同的列添加别名
+     *
+     * @param entity
+     * @param column
+     * @return
+     */
+    protected CodeBlock selectColumn(EntityModel entity, ColumnModel column) {
+        CodeBlock columnName = columnName(entity, column);
+        return entity.autoResultMap() || column.columnName().equals(column.propertyName())
+            ? columnName
+            : CodeBlock.of("$L + $S", columnName, " AS " + column.propertyName());
+    }
+
+    /**
+     * 计算 ETag 的列：etagProperty 指定的属性，默认为 {@code @Version} 修饰的属性；配置有误时报告错误并返回 empty
+     * <p>
+     * 不会隐式使用 update_time 列：DATETIME 等列的精度通常为秒，同一秒内的两次更新会得到相同的 ETag，
+     * 需要由使用者确认列的精度后通过 etagProperty 指定
+     *
+     * @param context
+     * @param entity
+     * @return
+     */
+    protected Optional<ColumnModel> etagColumn(GeneratorContext context, EntityModel entity) {
+        if (entity.idColumn().isEmpty()) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "ETag requires a primary key, annotate it with @TableId", entity.element());
+            return Optional.empty();
+        }
+        String etagProperty = entity.controller().etagProperty();
+        Optional<ColumnModel> column;
+        if (etagProperty.isBlank()) {
+            column = entity.columns().stream()
+                .filter(ColumnModel::version)
+                .findFirst();
+            if (column.isEmpty()) {
+                context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "ETag requires a @Version property, or specify etagProperty "
+                        + "(a timestamp column needs sub-second precision)",
+                    entity.element());
+                return Optional.empty();
+            }
+        } else {
+            column = entity.columns().stream()
+                .filter(c -> c.propertyName().equals(etagProperty))
+                .findFirst();
+            if (column.isEmpty()) {
+                context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unknown etagProperty: " + etagProperty, entity.element());
+                return Optional.empty();
+            }
+        }
+        // 未带条件的请求由返回的记录计算 ETag，列表中必须包含该列
+        if (!column.get().select()
+            || List.of(entity.controller().listExcludes()).contains(column.get().propertyName())) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "ETag property must be selected in the list: " + column.get().propertyName(),
+                entity.element());
+            return Optional.empty();
+        }
+        return column;
+    }
+
+    /**
+     * 记录的版本值，Date 使用毫秒数以保留秒以下的精度
+     *
+     * @param entityClassName
+     * @param etagColumn
+     * @return
+     */
+    protected MethodSpec etagVersionMethod(ClassName entityClassName, ColumnModel etagColumn) {
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("etagVersion")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(String.class)
+            .addParameter(entityClassName, "entity");
+        if (DATE_CLASS_NAME.equals(etagColumn.type())) {
+            return methodBuilder
+                .addStatement("$T version = entity.$L()", Date.class, etagColumn.getterName())
+                .addStatement("return version == null ? null : $T.valueOf(version.getTime())",
+                    String.class)
+                .build();
+        }
+        return methodBuilder
+            .addStatement("return $T.toString(entity.$L(), null)", Objects.class,
+                etagColumn.getterName())
+            .build();
+    }
+
+    /**
+     * 单条记录的弱 ETag，返回值包含时间戳等与数据无关的字段，因此不使用强 ETag
+     *
+     * @param entityClassName
+     * @return
+     */
+    protected MethodSpec etagMethod(ClassName entityClassName) {
+        return MethodSpec.methodBuilder("etag")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(String.class)
+            .addParameter(entityClassName, "entity")
+            .addStatement("$T version = etagVersion(entity)", String.class)
+            .addStatement("return version == null ? null : \"W/\\\"\" + version + \"\\\"\"")
+            .build();
+    }
+
+    /**
+     * 一页记录的弱 ETag，由总数与每条记录的主键、版本值计算
+     *
+     * @param entity
+     * @return
+     */
+    protected MethodSpec pageEtagMethod(EntityModel entity) {
+        ClassName entityClassName = entity.entityClassName();
+        return MethodSpec.methodBuilder("pageEtag")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(String.class)
+            .addParameter(ParameterizedTypeName.get(
+                ClassName.get("com.baomidou.mybatisplus.core.metadata", "IPage"),
+                entityClassName), "page")
+            .addStatement("$T builder = new $T().append(page.getTotal())", StringBuilder.class,
+                StringBuilder.class)
+            .beginControlFlow("for ($T record : page.getRecords())", entityClassName)
+            .addStatement("builder.append(';').append(record.$L()).append(':').append(etagVersion(record))",
+                entity.idColumn().orElseThrow().getterName())
+            .endControlFlow()
+            .addStatement("return \"W/\\\"\" + $T.md5DigestAsHex(builder.toString().getBytes($T.UTF_8)) + \"\\\"\"",
+                ClassName.get("org.springframework.util", "DigestUtils"), StandardCharsets.class)
+            .build();
+    }
+
+    /**
+     * 键集分页的排序列，排序属性在前、主键在后；配置有误时报告错误并返回 empty
+     *
+     * @param context
+     * @param entity
+     * @return
+     */
+    protected Optional<List<ColumnModel>> keysetColumns(GeneratorContext context,
+        EntityModel entity) {
+        Optional<ColumnModel> idColumn = entity.idColumn();
+        if (idColumn.isEmpty()) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Keyset pagination requires a primary key, annotate it with @TableId",
+                entity.element());
+            return Optional.empty();
+        }
+        String keysetProperty = entity.controller().keysetProperty();
+        List<ColumnModel> keys = new ArrayList<>(2);
+        if (!keysetProperty.isBlank()
+            && !keysetProperty.equals(idColumn.get().propertyName())) {
+            Optional<ColumnModel> sortColumn = entity.columns().stream()
+                .filter(column -> column.propertyName().equals(keysetProperty))
+                .findFirst();
+            if (sortColumn.isEmpty()) {
+                context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unknown keysetProperty: " + keysetProperty, entity.element());
+                return Optional.empty();
+            }
+            keys.add(sortColumn.get());
+        }
+        keys.add(idColumn.get());
+        List<String> listExcludes = List.of(entity.controller().listExcludes());
+        for (ColumnModel key : keys) {
+            if (listExcludes.contains(key.propertyName())) {
+                context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Keyset property can not be excluded from the list: " + key.propertyName(),
+                    entity.element());
+                return Optional.empty();
+            }
+            if (StringConversions.parse(key.type(), CodeBlock.of("")).isEmpty()) {
+                context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unsupported keyset property type: " + key.type(), key.field());
+                return Optional.empty();
+            }
+        }
+        return Optional.of(keys);
+    }
+
+    /**
+     * 键集分页的返回值
+     *
+     * @param entityClassName
+     * @return
+     */
+    protected TypeSpec keysetPageType(ClassName entityClassName) {
+        return TypeSpec.classBuilder("KeysetPage")
+            .addJavadoc("键集分页结果\n")
+            .addAnnotation(ClassName.get("lombok", "Getter"))
+            .addAnnotation(ClassName.get("lombok", "RequiredArgsConstructor"))
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class),
+                    entityClassName), "records", Modifier.PRIVATE, Modifier.FINAL)
+                .addJavadoc("当前页的记录\n")
+                .build())
+            .addField(FieldSpec.builder(String.class, "nextCursor",
+                    Modifier.PRIVATE, Modifier.FINAL)
+                .addJavadoc("查询下一页使用的游标，没有下一页时为 null\n")
+                .build())
+            .build();
+    }
+
+    /**
+     * 键集分页列表查询
+     *
+     * @param entity
+     * @param keys
+     * @param moduleDescription
+     * @param projection        是否只查询 LIST_COLUMNS 中的列
+     * @return
+     */
+    protected MethodSpec queryListAfterMethod(EntityModel entity, List<ColumnModel> keys,
+        String moduleDescription, boolean projection) {
+        ClassName entityClassName = entity.entityClassName();
+        boolean descending = entity.controller().keysetDescending();
+        String compare = descending ? "lt" : "gt";
+        ClassName keysetPageClassName = entity.controllerClassName().nestedClass("KeysetPage");
+
+        CodeBlock.Builder code = CodeBlock.builder()
+            .beginControlFlow("if (pageSize < 1)")
+            .addStatement("return $T.error($S)", JEECG_RESULT_CLASS_NAME, "pageSize 必须大于 0")
+            .endControlFlow()
+            .add("// 排序由游标决定，忽略前端传入的排序参数\n")
+            .addStatement("$T<$T, $T[]> parameterMap = new $T<>(request.getParameterMap())",
+                Map.class, String.class, String.class, HashMap.class)
+            .addStatement("parameterMap.remove($S)", "column")
+            .addStatement("parameterMap.remove($S)", "order")
+            .addStatement(
+                "$T<$T> queryWrapper = $T.initQueryWrapper(entity, parameterMap)",
+                ClassName.get("com.baomidou.mybatisplus.core.conditions.query", "QueryWrapper"),
+                entityClassName,
+                ClassName.get("org.jeecg.common.system.query", "QueryGenerator"))
+            .add(projection ? CodeBlock.of("queryWrapper.select(LIST_COLUMNS);\n")
+                : CodeBlock.of(""))
+            .beginControlFlow("if (cursor != null && !cursor.isEmpty())");
+        for (ColumnModel key : keys) {
+            code.addStatement("$T $L", key.type().box(), lastValueName(key));
+        }
+        code.beginControlFlow("try")
+            .addStatement("$T[] parts = decodeCursor(cursor, $L)", String.class, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            ColumnModel key = keys.get(i);
+            code.addStatement("$L = $L", lastValueName(key), StringConversions.parse(key.type(),
+                CodeBlock.of("parts[$L]", i)).orElseThrow());
+        }
+        code.nextControlFlow("catch ($T e)", RuntimeException.class)
+            .addStatement("return $T.error($S)", JEECG_RESULT_CLASS_NAME, "无效的游标")
+            .endControlFlow();
+        ColumnModel idColumn = keys.get(keys.size() - 1);
+        if (keys.size() == 1) {
+            code.addStatement("queryWrapper.$L($S, $L)", compare, idColumn.columnName(),
+                lastValueName(idColumn));
+        } else {
+            ColumnModel sortColumn = keys.get(0);
+            code.addStatement("queryWrapper.and(w -> w.$L($S, $L)\n"
+                    + ".or(o -> o.eq($S, $L).$L($S, $L)))",
+                compare, sortColumn.columnName(), lastValueName(sortColumn),
+                sortColumn.columnName(), lastValueName(sortColumn),
+                compare, idColumn.columnName(), lastValueName(idColumn));
+        }
+        code.endControlFlow();
+        for (ColumnModel key : keys) {
+            code.addStatement("queryWrapper.$L($S)", descending ? "orderByDesc" : "orderByAsc",
+                key.columnName());
+        }
+        code.add("// 多查询一条记录判断是否存在下一页，从第一页开始查询不会产生 OFFSET\n")
+            .addStatement("$T<$T> records = $L.page(new $T<>(1, pageSize + 1, false), "
+                    + "queryWrapper).getRecords()",
+                List.class, entityClassName, entity.repositoryBeanName(),
+                ClassName.get("com.baomidou.mybatisplus.extension.plugins.pagination", "Page"))
+            .addStatement("$T nextCursor = null", String.class)
+            .beginControlFlow("if (records.size() > pageSize)")
+            .addStatement("records = records.subList(0, pageSize)")
+            .addStatement("$T last = records.get(pageSize - 1)", entityClassName)
+            .addStatement("nextCursor = encodeCursor($L)", keys.stream()
+                .map(key -> StringConversions.format(key.type(),
+                    CodeBlock.of("last.$L()", key.getterName())))
+                .collect(CodeBlock.joining(", ")))
+            .endControlFlow()
+            .addStatement("return $T.OK(new $T(records, nextCursor))", JEECG_RESULT_CLASS_NAME,
+                keysetPageClassName);
+
+        return MethodSpec.methodBuilder("queryListAfter")
+            .addJavadoc("键集分页列表查询\n"
+                + "<p>\n"
+                + "按 " + keys.stream().map(ColumnModel::columnName)
+                .collect(Collectors.joining(", "))
+                + (descending ? " 降序" : " 升序") + "排列，不执行 COUNT 查询\n\n"
+                + "@param entity\n"
+                + "@param cursor   上一页返回的 nextCursor，查询第一页时为空\n"
+                + "@param pageSize\n"
+                + "@param request\n"
+                + "@return\n")
+            .addAnnotation(AnnotationSpec.builder(JEECG_AUTOLOG_CLASS_NAME)
+                .addMember("value", "$S", String.format("%s-键集分页列表查询", moduleDescription))
+                .build())
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("io.swagger.v3.oas.annotations", "Operation"))
+                .addMember("summary", "$S", String.format("%s-键集分页列表查询", moduleDescription))
+                .build())
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "GetMapping"))
+                .addMember("value", "$S", "/listAfter")
+                .build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(JEECG_RESULT_CLASS_NAME, keysetPageClassName))
+            .addParameter(entityClassName, "entity")
+            .addParameter(ParameterSpec.builder(ClassName.get("java.lang", "String"), "cursor")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestParam"))
+                    .addMember("name", "$S", "cursor")
+                    .addMember("required", "$L", "false")
+                    .build())
+                .build())
+            .addParameter(ParameterSpec.builder(ClassName.get("java.lang", "Integer"),
+                    "pageSize")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestParam"))
+                    .addMember("name", "$S", "pageSize")
+                    .addMember("defaultValue", "$S", "10")
+                    .build())
+                .build())
+            .addParameter(ClassName.get("jakarta.servlet.http", "HttpServletRequest"),
+                "request")
+            .addCode(code.build())
+            .build();
+    }
+
+    /**
+     * 将排序键逐个以 URL 安全的 Base64 编码后用 . 连接，作为不透明的游标
+     *
+     * @return
+     */
+    protected MethodSpec encodeCursorMethod() {
+        return MethodSpec.methodBuilder("encodeCursor")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(String[].class, "keys")
+            .varargs()
+            .returns(String.class)
+            .addStatement("$T joiner = new $T($S)", StringJoiner.class, StringJoiner.class, ".")
+            .beginControlFlow("for ($T key : keys)", String.class)
+            .addStatement("joiner.add(CURSOR_ENCODER.encodeToString(key.getBytes($T.UTF_8)))",
+                StandardCharsets.class)
+            .endControlFlow()
+            .addStatement("return joiner.toString()")
+            .build();
+    }
+
+    /**
+     * 还原 {@link #encodeCursorMethod()} 编码的排序键，格式错误时抛出 IllegalArgumentException
+     *
+     * @return
+     */
+    protected MethodSpec decodeCursorMethod() {
+        return MethodSpec.methodBuilder("decodeCursor")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(String.class, "cursor")
+            .addParameter(int.class, "length")
+            .returns(String[].class)
+            .addStatement("$T[] keys = cursor.split($S, -1)", String.class, "\\.")
+            .beginControlFlow("if (keys.length != length)")
+            .addStatement("throw new $T($S + cursor)", IllegalArgumentException.class,
+                "Invalid cursor: ")
+            .endControlFlow()
+            .beginControlFlow("for (int i = 0; i < keys.length; i++)")
+            .addStatement("keys[i] = new $T($T.getUrlDecoder().decode(keys[i]), $T.UTF_8)",
+                String.class, Base64.class, StandardCharsets.class)
+            .endControlFlow()
+            .addStatement("return keys")
+            .build();
+    }
+
+    private static String lastValueName(ColumnModel column) {
+        return "last" + Character.toUpperCase(column.propertyName().charAt(0))
+            + column.propertyName().substring(1);
+    }
+
+    /**
+     * 添加
+     *
+     * @param entityClassName
+     * @param repositoryBeanName
+     * @param moduleDescription
+     * @return
+     */
+    protected MethodSpec add(ClassName entityClassName, String repositoryBeanName,
+        String moduleDescription) {
+        return MethodSpec.methodBuilder("add")
+            .addJavadoc("添加\n\n" +
+                "@param entity\n" +
+                "@return\n")
+            .addAnnotation(AnnotationSpec.builder(JEECG_AUTOLOG_CLASS_NAME)
+                .addMember("value", "$S", String.format("%s-添加", moduleDescription)).build())
+            .addAnnotation(
+                AnnotationSpec.builder(ClassName.get("io.swagger.v3.oas.annotations", "Operation"))
+                    .addMember("summary", "$S", String.format("%s-添加", moduleDescription))
+                    .build())
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "PostMapping"))
+                .addMember("value", "$S", "/add").build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(
+                JEECG_RESULT_CLASS_NAME, ClassName.get("java.lang", "String")))
+            .addParameter(ParameterSpec.builder(entityClassName, "entity")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestBody"))
+                    .build())
+                .build())
+            .addStatement("$L.save(entity)", repositoryBeanName)
+            .addStatement("return $T.OK($S)", JEECG_RESULT_CLASS_NAME, "添加成功！")
+            .build();
+    }
+
+    /**
+     * 编辑
+     *
+     * @param entityClassName
+     * @param repositoryBeanName
+     * @param moduleDescription
+     * @return
+     */
+    protected MethodSpec edit(ClassName entityClassName, String repositoryBeanName,
+        String moduleDescription) {
+        return MethodSpec.methodBuilder("edit")
+            .addJavadoc("编辑\n\n" +
+                "@param entity\n" +
+                "@return\n")
+            .addAnnotation(AnnotationSpec.builder(JEECG_AUTOLOG_CLASS_NAME)
+                .addMember("value", "$S", String.format("%s-编辑", moduleDescription)).build())
+            .addAnnotation(
+                AnnotationSpec.builder(ClassName.get("io.swagger.v3.oas.annotations", "Operation"))
+                    .addMember("summary", "$S", String.format("%s-编辑", moduleDescription))
+                    .build())
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "PostMapping"))
+                .addMember("value", "$S", "/edit").build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(
+                JEECG_RESULT_CLASS_NAME, ClassName.get("java.lang", "String")))
+            .addParameter(ParameterSpec.builder(entityClassName, "entity")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestBody"))
+                    .build())
+                .build())
+            .addStatement("$L.updateById(entity)", repositoryBeanName)
+            .addStatement("return $T.OK($S)", JEECG_RESULT_CLASS_NAME, "编辑成功!")
+            .build();
+    }
+
+    /**
+     * 部分更新接口与反序列化请求体所需的 ObjectMapper；需要实体有主键
+     *
+     * @param context
+     * @param entity
+     * @param typeBuilder
+     */
+    protected void addPatch(GeneratorContext context, EntityModel entity,
+        TypeSpec.Builder typeBuilder) {
+        Optional<ColumnModel> idColumn = entity.idColumn();
+        if (idColumn.isEmpty()) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "patch requires a primary key, annotate it with @TableId", entity.element());
+            return;
+        }
+        Optional<ColumnModel> versionColumn = entity.columns().stream()
+            .filter(ColumnModel::version)
+            .findFirst();
+        Optional<CodeBlock> nextVersion = versionColumn.flatMap(this::nextVersion);
+        if (versionColumn.isPresent() && nextVersion.isEmpty()) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "patch supports @Version of type Integer, Long, Date, Timestamp or LocalDateTime",
+                versionColumn.get().field());
+            return;
+        }
+        typeBuilder.addField(FieldSpec.builder(OBJECT_MAPPER_CLASS_NAME, "objectMapper",
+                Modifier.PRIVATE, Modifier.FINAL)
+            .build());
+        typeBuilder.addMethod(patch(entity, idColumn.get(), versionColumn, nextVersion))
+            .addMethod(presentPropertiesMethod(entity.entityClassName()));
+    }
+
+    /**
+     * 请求体中出现的属性，按 ObjectMapper 的配置（{@code @JsonProperty}、命名策略等）将 JSON 字段名对应到 Java 属性名
+     *
+     * @param entityClassName
+     * @return
+     */
+    protected MethodSpec presentPropertiesMethod(ClassName entityClassName) {
+        ClassName beanDescriptionClassName = ClassName.get("com.fasterxml.jackson.databind",
+            "BeanDescription");
+        ClassName beanPropertyDefinitionClassName = ClassName.get(
+            "com.fasterxml.jackson.databind.introspect", "BeanPropertyDefinition");
+        return MethodSpec.methodBuilder("presentProperties")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(ClassName.get("com.fasterxml.jackson.databind", "JsonNode"), "body")
+            .returns(ParameterizedTypeName.get(Set.class, String.class))
+            .addStatement("$T description = objectMapper.getDeserializationConfig()\n"
+                    + ".introspect(objectMapper.constructType($T.class))",
+                beanDescriptionClassName, entityClassName)
+            .addStatement("$T<$T> properties = new $T<>()", Set.class, String.class,
+                HashSet.class)
+            .beginControlFlow("for ($T property : description.findProperties())",
+                beanPropertyDefinitionClassName)
+            .beginControlFlow("if (body.has(property.getName()))")
+            .addStatement("properties.add(property.getInternalName())")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("return properties")
+            .build();
+    }
+
+    /**
+     * 乐观锁版本号的下一个值，与 MyBatis-Plus 的 OptimisticLockerInnerInterceptor 一致；不支持的类型返回 empty
+     *
+     * @param versionColumn
+     * @return
+     */
+    protected Optional<CodeBlock> nextVersion(ColumnModel versionColumn) {
+        String current = "entity." + versionColumn.getterName() + "()";
+        return switch (versionColumn.type().toString()) {
+            case "java.lang.Integer", "java.lang.Long" -> Optional.of(CodeBlock.of("$L + 1", current));
+            case "java.util.Date" -> Optional.of(CodeBlock.of("new $T()", Date.class));
+            case "java.sql.Timestamp" -> Optional.of(CodeBlock.of("new $T($T.currentTimeMillis())",
+                ClassName.get("java.sql", "Timestamp"), System.class));
+            case "java.time.LocalDateTime" -> Optional.of(CodeBlock.of("$T.now()",
+                LocalDateTime.class));
+            default -> Optional.empty();
+        };
+    }
+
+    /**
+     * 部分更新
+     *
+     * @param entity
+     * @param idColumn
+     * @param versionColumn {@code @Version} 修饰的列，没有时为 empty
+     * @param nextVersion   版本号的下一个值
+     * @return
+     */
+    protected MethodSpec patch(EntityModel entity, ColumnModel idColumn,
+        Optional<ColumnModel> versionColumn, Optional<CodeBlock> nextVersion) {
+        String moduleDescription = entity.controller().value();
+        ClassName entityClassName = entity.entityClassName();
+        ClassName updateWrapperClassName = ClassName.get(
+            "com.baomidou.mybatisplus.core.conditions.update", "UpdateWrapper");
+        CodeBlock.Builder code = CodeBlock.builder()
+            .addStatement("$T entity = objectMapper.treeToValue(body, $T.class)",
+                entityClassName, entityClassName)
+            .beginControlFlow("if (entity.$L() == null)", idColumn.getterName())
+            .addStatement("return $T.error($S)", JEECG_RESULT_CLASS_NAME, "缺少主键")
+            .endControlFlow()
+            .addStatement("$T<$T> updateWrapper = new $T<$T>().eq($L, entity.$L())",
+                updateWrapperClassName, entityClassName, updateWrapperClassName, entityClassName,
+                columnName(entity, idColumn), idColumn.getterName());
+        if (versionColumn.isPresent()) {
+            code.beginControlFlow("if (entity.$L() == null)", versionColumn.get().getterName())
+                .addStatement("return $T.error($S)", JEECG_RESULT_CLASS_NAME, "缺少版本号")
+                .endControlFlow();
+        }
+        code.add("// 只更新请求体中出现的属性，值为 null 时将该列置空\n")
+            .addStatement("$T<$T> present = presentProperties(body)", Set.class, String.class);
+        List<ColumnModel> columns = entity.columns().stream()
+            .filter(column -> !column.id() && !column.version() && !column.logicDelete())
+            .toList();
+        for (ColumnModel column : columns) {
+            code.addStatement(setColumn(entity, column,
+                CodeBlock.of("present.contains($S)", column.propertyName()), "entity"));
+        }
+        code.beginControlFlow("if (updateWrapper.getSqlSet() == null)")
+            .addStatement("return $T.error($S)", JEECG_RESULT_CLASS_NAME, "没有需要更新的属性")
+            .endControlFlow();
+        List<ColumnModel> updateFillColumns = columns.stream()
+            .filter(column -> "UPDATE".equals(column.fill())
+                || "INSERT_UPDATE".equals(column.fill()))
+            .toList();
+        if (!updateFillColumns.isEmpty()) {
+            ClassName tableInfoClassName = ClassName.get(
+                "com.baomidou.mybatisplus.core.metadata", "TableInfo");
+            code.add("// 请求体中没有的更新填充列，由 MetaObjectHandler 计算后写入\n")
+                .addStatement("$T tableInfo = $T.getTableInfo($T.class)", tableInfoClassName,
+                    ClassName.get("com.baomidou.mybatisplus.core.metadata", "TableInfoHelper"),
+                    entityClassName)
+                .addStatement("$T<$T> metaObjectHandler = $T.getMetaObjectHandler("
+                        + "tableInfo.getConfiguration())", Optional.class,
+                    ClassName.get("com.baomidou.mybatisplus.core.handlers", "MetaObjectHandler"),
+                    ClassName.get("com.baomidou.mybatisplus.core.toolkit", "GlobalConfigUtils"))
+                .beginControlFlow("if (metaObjectHandler.isPresent() "
+                    + "&& metaObjectHandler.get().openUpdateFill())")
+                .addStatement("$T filled = new $T()", entityClassName, entityClassName)
+                .addStatement("metaObjectHandler.get().updateFill("
+                    + "tableInfo.getConfiguration().newMetaObject(filled))");
+            for (ColumnModel column : updateFillColumns) {
+                code.addStatement(setColumn(entity, column,
+                    CodeBlock.of("!present.contains($S) && filled.$L() != null",
+                        column.propertyName(), column.getterName()), "filled"));
+            }
+            code.endControlFlow();
+        }
+        versionColumn.ifPresent(column -> code
+            .addStatement("updateWrapper.eq($L, entity.$L()).set($L, $L)",
+                columnName(entity, column), column.getterName(), columnName(entity, column),
+                nextVersion.orElseThrow()));
+        code.add("// 不传入实体：实体中基本类型与有初始值的属性不为 null，会被写入 SET 子句\n")
+            .beginControlFlow("if (!$L.update(null, updateWrapper))",
+                entity.repositoryBeanName())
+            .addStatement("return $T.error($S)", JEECG_RESULT_CLASS_NAME,
+                versionColumn.isPresent() ? "数据已被修改或不存在，请刷新后重试" : "未找到对应数据")
+            .endControlFlow()
+            .addStatement("return $T.OK($S)", JEECG_RESULT_CLASS_NAME, "编辑成功!");
+        return MethodSpec.methodBuilder("patch")
+            .addJavadoc("部分更新，只更新请求体中出现的属性\n\n" +
+                "@param body\n" +
+                "@return\n" +
+                "@throws JsonProcessingException\n")
+            .addAnnotation(AnnotationSpec.builder(JEECG_AUTOLOG_CLASS_NAME)
+                .addMember("value", "$S", String.format("%s-部分更新", moduleDescription)).build())
+            .addAnnotation(
+                AnnotationSpec.builder(ClassName.get("io.swagger.v3.oas.annotations", "Operation"))
+                    .addMember("summary", "$S", String.format("%s-部分更新", moduleDescription))
+                    .build())
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "PatchMapping"))
+                .addMember("value", "$S", "/edit").build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(
+                JEECG_RESULT_CLASS_NAME, ClassName.get("java.lang", "String")))
+            .addParameter(ParameterSpec.builder(ClassName.get("com.fasterxml.jackson.databind",
+                    "JsonNode"), "body")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestBody"))
+                    .build())
+                .build())
+            .addException(ClassName.get("com.fasterxml.jackson.core", "JsonProcessingException"))
+            .addCode(code.build())
+            .build();
+    }
+
+    /**
+     * {@code updateWrapper.set(condition, column, source.getX()[, mapping])}
+     *
+     * @param entity
+     * @param column
+     * @param condition
+     * @param source
+     * @return
+     */
+    private CodeBlock setColumn(EntityModel entity, ColumnModel column, CodeBlock condition,
+        String source) {
+        String mapping = column.parameterMapping();
+        return mapping == null
+            ? CodeBlock.of("updateWrapper.set($L, $L, $L.$L())", condition,
+                columnName(entity, column), source, column.getterName())
+            : CodeBlock.of("updateWrapper.set($L, $L, $L.$L(), $S)", condition,
+                columnName(entity, column), source, column.getterName(), mapping);
+    }
+
+    /**
+     * 通过id删除
+     *
+     * @param repositoryBeanName
+     * @param moduleDescription
+     * @return
+     */
+    protected MethodSpec delete(String repositoryBeanName, String moduleDescription) {
+        return MethodSpec.methodBuilder("delete")
+            .addJavadoc("通过id删除\n\n" +
+                "@param id\n" +
+                "@return\n")
+            .addAnnotation(AnnotationSpec.builder(JEECG_AUTOLOG_CLASS_NAME)
+                .addMember("value", "$S", String.format("%s-通过id删除", moduleDescription))
+                .build())
+            .addAnnotation(
+                AnnotationSpec.builder(ClassName.get("io.swagger.v3.oas.annotations", "Operation"))
+                    .addMember("summary", "$S", String.format("%s-通过id删除", moduleDescription))
+                    .build())
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "DeleteMapping"))
+                .addMember("value", "$S", "/delete").build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(
+                JEECG_RESULT_CLASS_NAME, ClassName.get("java.lang", "String")))
+            .addParameter(ParameterSpec.builder(ClassName.get("java.lang", "String"), "id")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestParam"))
+                    .addMember("name", "$S", "id")
+                    .addMember("required", "$L", "true")
+                    .build())
+                .build())
+            .addStatement("$L.removeById(id)", repositoryBeanName)
+            .addStatement("return $T.OK($S)", JEECG_RESULT_CLASS_NAME, "删除成功!")
+            .build();
+    }
+
+    /**
+     * 批量删除
+     * <p>
+     * 逐个解析逗号分隔的 id 并转换为主键类型，每 deleteBatchSize 个 id 执行一次
+     * {@code removeByIds}，所有分块在同一个事务中执行
+     *
+     * @param context
+     * @param entity
+     * @return
+     */
+    protected MethodSpec deleteBatch(GeneratorContext context, EntityModel entity) {
+        String moduleDescription = entity.controller().value();
+        int batchSize = entity.controller().deleteBatchSize();
+        if (batchSize < 1) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "deleteBatchSize must be positive", entity.element());
+        }
+        // 无法确定主键类型时按字符串传递，由 MyBatis 转换
+        TypeName idType = ClassName.get(String.class);
+        CodeBlock parsedId = CodeBlock.of("id");
+        Optional<ColumnModel> idColumn = entity.idColumn();
+        if (idColumn.isPresent()) {
+            Optional<CodeBlock> parsed = StringConversions.parse(idColumn.get().type(),
+                CodeBlock.of("id"));
+            if (parsed.isPresent()) {
+                idType = idColumn.get().type().box();
+                parsedId = parsed.get();
+            }
+        }
+        return MethodSpec.methodBuilder("deleteBatch")
+            .addJavadoc("批量删除\n\n" +
+                "@param ids\n" +
+                "@return\n")
+            .addAnnotation(AnnotationSpec.builder(JEECG_AUTOLOG_CLASS_NAME)
+                .addMember("value", "$S", String.format("%s-批量删除", moduleDescription)).build())
+            .addAnnotation(
+                AnnotationSpec.builder(ClassName.get("io.swagger.v3.oas.annotations", "Operation"))
+                    .addMember("summary", "$S", String.format("%s-批量删除", moduleDescription))
+                    .build())
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "DeleteMapping"))
+                .addMember("value", "$S", "/deleteBatch").build())
+            .addAnnotation(AnnotationSpec.builder(TRANSACTIONAL_CLASS_NAME)
+                .addMember("rollbackFor", "$T.class", Exception.class)
+                .build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(
+                JEECG_RESULT_CLASS_NAME, ClassName.get("java.lang", "String")))
+            .addParameter(ParameterSpec.builder(ClassName.get("java.lang", "String"), "ids")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestParam"))
+                    .addMember("name", "$S", "ids")
+                    .addMember("required", "$L", "true")
+                    .build())
+                .build())
+            .addStatement("$T<$T> chunk = new $T<>($T.min($L, ids.length() / 2 + 1))",
+                List.class, idType, ArrayList.class, Math.class, batchSize)
+            .addStatement("int start = 0")
+            .beginControlFlow("while (start <= ids.length())")
+            .addStatement("int end = ids.indexOf(',', start)")
+            .beginControlFlow("if (end < 0)")
+            .addStatement("end = ids.length()")
+            .endControlFlow()
+            .addStatement("$T id = ids.substring(start, end).strip()", String.class)
+            .beginControlFlow("if (!id.isEmpty())")
+            .addStatement("chunk.add($L)", parsedId)
+            .beginControlFlow("if (chunk.size() >= $L)", batchSize)
+            .addStatement("$L.removeByIds(chunk)", entity.repositoryBeanName())
+            .addStatement("chunk.clear()")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("start = end + 1")
+            .endControlFlow()
+            .beginControlFlow("if (!chunk.isEmpty())")
+            .addStatement("$L.removeByIds(chunk)", entity.repositoryBeanName())
+            .endControlFlow()
+            .addStatement("return $T.OK($S)", JEECG_RESULT_CLASS_NAME, "批量删除成功!")
+            .build();
+    }
+
+    /**
+     * 通过id查询
+     *
+     * @param entity
+     * @param etagColumn 计算 ETag 的列，不处理条件请求时为 empty
+     * @return
+     */
+    protected MethodSpec queryById(EntityModel entity, Optional<ColumnModel> etagColumn) {
+        ClassName entityClassName = entity.entityClassName();
+        String repositoryBeanName = entity.repositoryBeanName();
+        String moduleDescription = entity.controller().value();
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("queryById")
+            .addJavadoc("通过id查询\n\n" +
+                "@param id\n" +
+                (etagColumn.isPresent() ? "@param webRequest\n" : "") +
+                "@return\n")
+            .addAnnotation(AnnotationSpec.builder(JEECG_AUTOLOG_CLASS_NAME)
+                .addMember("value", "$S", String.format("%s-通过id查询", moduleDescription))
+                .build())
+            .addAnnotation(
+                AnnotationSpec.builder(ClassName.get("io.swagger.v3.oas.annotations", "Operation"))
+                    .addMember("summary", "$S", String.format("%s-通过id查询", moduleDescription))
+                    .build())
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "GetMapping"))
+                .addMember("value", "$S", "/queryById").build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(JEECG_RESULT_CLASS_NAME, entityClassName))
+            .addParameter(ParameterSpec.builder(ClassName.get("java.lang", "String"), "id")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestParam"))
+                    .addMember("name", "$S", "id")
+                    .addMember("required", "$L", "true")
+                    .build())
+                .build());
+        if (etagColumn.isEmpty()) {
+            return methodBuilder
+                .addStatement("$T entity = $L.getById(id)", entityClassName, repositoryBeanName)
+                .addStatement("return $T.OK(entity)", JEECG_RESULT_CLASS_NAME)
+                .build();
+        }
+        return methodBuilder
+            .addParameter(WEB_REQUEST_CLASS_NAME, "webRequest")
+            .addStatement("$T entity", entityClassName)
+            .beginControlFlow("if (webRequest.getHeader($T.IF_NONE_MATCH) != null)",
+                HTTP_HEADERS_CLASS_NAME)
+            .addCode("// 先只查询版本列，未变化时不加载实体\n")
+            .addStatement("$T current = $L.getOne($T.<$T>query().select($L).eq($L, id), false)",
+                entityClassName, repositoryBeanName,
+                ClassName.get("com.baomidou.mybatisplus.core.toolkit", "Wrappers"),
+                entityClassName, selectColumn(entity, etagColumn.get()),
+                columnName(entity, entity.idColumn().orElseThrow()))
+            .beginControlFlow("if (current != null && webRequest.checkNotModified(etag(current)))")
+            .addStatement("return null")
+            .endControlFlow()
+            .addStatement("entity = current == null ? null : $L.getById(id)", repositoryBeanName)
+            .nextControlFlow("else")
+            .addStatement("entity = $L.getById(id)", repositoryBeanName)
+            .beginControlFlow("if (entity != null)")
+            .addCode("// 写出 ETag 响应头\n")
+            .addStatement("webRequest.checkNotModified(etag(entity))")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("return $T.OK(entity)", JEECG_RESULT_CLASS_NAME)
+            .build();
+    }
+
+    /**
+     * 通过id批量查询，按请求中 id 的顺序返回，不存在的 id 被忽略
+     *
+     * @param context
+     * @param entity
+     * @param idColumn
+     * @return
+     */
+    protected MethodSpec queryByIds(GeneratorContext context, EntityModel entity,
+        ColumnModel idColumn) {
+        String moduleDescription = entity.controller().value();
+        ClassName entityClassName = entity.entityClassName();
+        int maxSize = entity.controller().queryByIdsMaxSize();
+        if (maxSize < 1) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "queryByIdsMaxSize must be positive", entity.element());
+        }
+        // 无法转换为主键类型时按字符串传递与比较
+        TypeName idType = ClassName.get(String.class);
+        CodeBlock parsedId = CodeBlock.of("id");
+        CodeBlock recordId = CodeBlock.of("$T.valueOf(record.$L())", String.class,
+            idColumn.getterName());
+        Optional<CodeBlock> parsed = StringConversions.parse(idColumn.type(), CodeBlock.of("id"));
+        if (parsed.isPresent()) {
+            idType = idColumn.type().box();
+            parsedId = parsed.get();
+            recordId = CodeBlock.of("record.$L()", idColumn.getterName());
+        }
+        return MethodSpec.methodBuilder("queryByIds")
+            .addJavadoc("通过id批量查询\n\n" +
+                "@param ids\n" +
+                "@return 按 ids 的顺序排列，不存在的记录被忽略\n")
+            .addAnnotation(AnnotationSpec.builder(JEECG_AUTOLOG_CLASS_NAME)
+                .addMember("value", "$S", String.format("%s-通过id批量查询", moduleDescription))
+                .build())
+            .addAnnotation(
+                AnnotationSpec.builder(ClassName.get("io.swagger.v3.oas.annotations", "Operation"))
+                    .addMember("summary", "$S",
+                        String.format("%s-通过id批量查询", moduleDescription))
+                    .build())
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "GetMapping"))
+                .addMember("value", "$S", "/queryByIds").build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(JEECG_RESULT_CLASS_NAME,
+                ParameterizedTypeName.get(ClassName.get(List.class), entityClassName)))
+            .addParameter(ParameterSpec.builder(ClassName.get("java.lang", "String"), "ids")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestParam"))
+                    .addMember("name", "$S", "ids")
+                    .addMember("required", "$L", "true")
+                    .build())
+                .build())
+            .addCode("// 去除重复的 id，保留首次出现的顺序\n")
+            .addStatement("$T<$T> idSet = new $T<>()", Set.class, idType, LinkedHashSet.class)
+            .addStatement("int start = 0")
+            .beginControlFlow("while (start <= ids.length())")
+            .addStatement("int end = ids.indexOf(',', start)")
+            .beginControlFlow("if (end < 0)")
+            .addStatement("end = ids.length()")
+            .endControlFlow()
+            .addStatement("$T id = ids.substring(start, end).strip()", String.class)
+            .beginControlFlow("if (!id.isEmpty() && idSet.add($L) && idSet.size() > $L)",
+                parsedId, maxSize)
+            .addStatement("return $T.error($S)", JEECG_RESULT_CLASS_NAME,
+                String.format("一次最多查询 %d 条记录", maxSize))
+            .endControlFlow()
+            .addStatement("start = end + 1")
+            .endControlFlow()
+            .beginControlFlow("if (idSet.isEmpty())")
+            .addStatement("return $T.OK(new $T<$T>())", JEECG_RESULT_CLASS_NAME, ArrayList.class,
+                entityClassName)
+            .endControlFlow()
+            .addStatement("$T<$T, $T> recordMap = new $T<>(idSet.size() * 4 / 3 + 1)", Map.class,
+                idType, entityClassName, HashMap.class)
+            .beginControlFlow("for ($T record : $L.listByIds(idSet))", entityClassName,
+                entity.repositoryBeanName())
+            .addStatement("recordMap.put($L, record)", recordId)
+            .endControlFlow()
+            .addStatement("$T<$T> records = new $T<>(recordMap.size())", List.class,
+                entityClassName, ArrayList.class)
+            .beginControlFlow("for ($T id : idSet)", idType)
+            .addStatement("$T record = recordMap.get(id)", entityClassName)
+            .beginControlFlow("if (record != null)")
+            .addStatement("records.add(record)")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("return $T.OK(records)", JEECG_RESULT_CLASS_NAME)
+            .build();
+    }
+
+    /**
+     * 导出excel
+     *
+     * @param entityClassName
+     * @return
+     */
+    protected MethodSpec exportExcel(ClassName entityClassName) {
+        return MethodSpec.methodBuilder("exportExcel")
+            .addJavadoc("导出excel\n\n" +
+                "@param request\n" +
+                "@param plan\n")
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "RequestMapping"))
+                .addMember("value", "$S", "/exportXls")
+                .build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ClassName.get("org.springframework.web.servlet", "ModelAndView"))
+            .addParameter(ClassName.get("jakarta.servlet.http", "HttpServletRequest"), "request")
+            .addParameter(entityClassName, "entity")
+            .addStatement("return super.exportXls(request, entity, $T.class, $S)",
+                entityClassName, "ok")
+            .build();
+    }
+
+    /**
+     * 为导入导出使用的每种日期格式创建一个 DateTimeFormatter 字段
+     *
+     * @param typeBuilder
+     * @param excelColumns
+     * @return 日期格式到字段名的映射
+     */
+    protected Map<String, String> addDateFormatters(TypeSpec.Builder typeBuilder,
+        List<ExcelColumn> excelColumns) {
+        Map<String, String> formatterNames = new LinkedHashMap<>();
+        for (ExcelColumn excelColumn : excelColumns) {
+            if (Objects.nonNull(excelColumn.format())) {
+                formatterNames.computeIfAbsent(excelColumn.format(),
+                    format -> "DATE_FORMATTER_" + formatterNames.size());
+            }
+        }
+        formatterNames.forEach((format, name) -> typeBuilder.addField(FieldSpec.builder(
+                DateTimeFormatter.class, name, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("$T.ofPattern($S)", DateTimeFormatter.class, format)
+            .build()));
+        return formatterNames;
+    }
+
+    /**
+     * 生成的导入导出代码能否处理所有列
+     * <p>
+     * 数据字典（{@code @Excel} 的 dicCode、dictTable 以及 {@code @Dict}）与实体类中的自定义转换方法需要
+     * autopoi 在运行时处理，存在时报告警告，由调用方回退到 JeecgController 的实现
+     *
+     * @param context
+     * @param excelColumns
+     * @param convertProperty {@code exportConvert} 或 {@code importConvert}
+     * @param feature         警告中的功能名称
+     * @return
+     */
+    protected boolean translatable(GeneratorContext context, List<ExcelColumn> excelColumns,
+        String convertProperty, String feature) {
+        AnnotationIndex annotations = context.annotations();
+        for (ExcelColumn excelColumn : excelColumns) {
+            VariableElement field = excelColumn.column().field();
+            Optional<IndexedAnnotation> excel = annotations.get(field, EXCEL);
+            boolean dictionary = annotations.has(field, DICT)
+                || excel.flatMap(a -> a.getString("dicCode")).isPresent()
+                || excel.flatMap(a -> a.getString("dictTable")).isPresent();
+            if (dictionary || excel.map(a -> a.getBoolean(convertProperty, false)).orElse(false)) {
+                context.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    feature + " does not support " + (dictionary ? "dictionary" : convertProperty)
+                        + ", fall back to JeecgController", field);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 流式导出 excel 所需的字段与方法，缺少主键时报告错误
+     *
+     * @param context
+     * @param entity
+     * @param typeBuilder
+     * @param excelColumns
+     * @param formatterNames
+     */
+    protected void addStreamingExport(GeneratorContext context, EntityModel entity,
+        TypeSpec.Builder typeBuilder, List<ExcelColumn> excelColumns,
+        Map<String, String> formatterNames) {
+        Optional<ColumnModel> idColumn = entity.idColumn();
+        if (idColumn.isEmpty()) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Streaming export requires a primary key, annotate it with @TableId",
+                entity.element());
+            return;
+        }
+        if (StringConversions.parse(idColumn.get().type(), CodeBlock.of("")).isEmpty()) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Unsupported primary key type: " + idColumn.get().type(), idColumn.get().field());
+            return;
+        }
+        if (entity.controller().exportBatchSize() < 1) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "exportBatchSize must be positive", entity.element());
+        }
+        typeBuilder.addField(FieldSpec.builder(int.class, "EXPORT_BATCH_SIZE",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$L", entity.controller().exportBatchSize())
+                .build())
+            .addMethod(streamingExportExcel(entity, idColumn.get(), excelColumns, formatterNames))
+            .addMethod(setCellValueMethod());
+        for (ExcelColumn excelColumn : excelColumns) {
+            if (!excelColumn.replace().isEmpty()) {
+                typeBuilder.addField(replaceField(exportReplaceName(excelColumn.column()),
+                    excelColumn.replace()));
+            }
+        }
+        if (excelColumns.stream().anyMatch(c -> !c.replace().isEmpty())) {
+            typeBuilder.addMethod(replaceValueMethod());
+        }
+        if (excelColumns.stream().anyMatch(c -> Objects.nonNull(c.suffix()))) {
+            typeBuilder.addMethod(appendSuffixMethod());
+        }
+        if (!formatterNames.isEmpty()) {
+            typeBuilder.addMethod(formatTemporalMethod());
+            if (excelColumns.stream().anyMatch(c -> DATE_CLASS_NAME.equals(c.column().type()))) {
+                typeBuilder.addMethod(formatDateMethod());
+            }
+        }
+    }
+
+    /**
+     * 异步导入 excel 所需的字段与方法，共享的 ExcelImportSupport 由 generateShared 生成
+     *
+     * @param context
+     * @param entity
+     * @param typeBuilder
+     * @param excelColumns
+     * @param formatterNames
+     */
+    protected void addAsyncImport(GeneratorContext context, EntityModel entity,
+        TypeSpec.Builder typeBuilder, List<ExcelColumn> excelColumns,
+        Map<String, String> formatterNames) {
+        if (entity.controller().importBatchSize() < 1
+            || entity.controller().importParallelism() < 1) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "importBatchSize and importParallelism must be positive", entity.element());
+        }
+        // 后台线程上只恢复 TenantContext 中的租户，其余请求上下文取不到
+        context.getMessager().printMessage(Diagnostic.Kind.WARNING,
+            "asyncImport saves rows on background threads: only the tenant in TenantContext is "
+                + "propagated, other request-bound ThreadLocal context (login user for createBy, "
+                + "data scope) is not available to interceptors and MetaObjectHandler",
+            entity.element());
+        ClassName supportClassName = ClassName.get(entity.controllerClassName().packageName(),
+            "ExcelImportSupport");
+        // 由数据库生成的主键不导入；无法从字符串转换的属性不导入
+        List<ExcelColumn> importColumns = excelColumns.stream()
+            .filter(excelColumn -> !excelColumn.column().autoIncrement())
+            .filter(excelColumn -> Objects.nonNull(excelColumn.format())
+                || StringConversions.parse(excelColumn.column().type(), CodeBlock.of(""))
+                .isPresent())
+            .toList();
+        typeBuilder.addField(FieldSpec.builder(ParameterizedTypeName.get(List.class,
+                        String.class), "IMPORT_HEADERS",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.of($L)", List.class, importColumns.stream()
+                    .map(excelColumn -> CodeBlock.of("$S", excelColumn.header()))
+                    .collect(CodeBlock.joining(", ")))
+                .build())
+            .addField(FieldSpec.builder(int.class, "IMPORT_BATCH_SIZE",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$L", entity.controller().importBatchSize())
+                .build())
+            .addField(FieldSpec.builder(int.class, "IMPORT_PARALLELISM",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$L", entity.controller().importParallelism())
+                .build())
+            .addMethod(asyncImportExcel(entity, supportClassName))
+            .addMethod(importProgress(supportClassName))
+            .addMethod(toImportEntityMethod(entity, importColumns, formatterNames));
+        for (ExcelColumn excelColumn : importColumns) {
+            if (!excelColumn.replace().isEmpty()) {
+                // 显示值到属性值的映射，同一个显示值以第一项为准
+                Map<String, String> labels = new LinkedHashMap<>();
+                excelColumn.replace().forEach((value, label) -> labels.putIfAbsent(label, value));
+                typeBuilder.addField(replaceField(importReplaceName(excelColumn.column()),
+                    labels));
+            }
+        }
+        if (importColumns.stream().anyMatch(c -> !c.replace().isEmpty())) {
+            typeBuilder.addMethod(replaceLabelMethod());
+        }
+        if (importColumns.stream().anyMatch(c -> Objects.nonNull(c.suffix()))) {
+            typeBuilder.addMethod(removeSuffixMethod());
+        }
+    }
+
+    /**
+     * 生成 Controller 所在包共享的 ListTotalCache，已存在时跳过
+     *
+     * @param context
+     * @param cacheClassName
+     * @param annotatedElement
+     */
+    protected void writeListTotalCacheIfAbsent(GeneratorContext context,
+        ClassName cacheClassName, Element annotatedElement) {
+        if (!generatedTotalCaches.add(cacheClassName.canonicalName())
+            || Objects.nonNull(context.getElementUtils()
+            .getTypeElement(cacheClassName.canonicalName()))) {
+            return;
+        }
+        context.write(cacheClassName, new ListTotalCacheGenerator().generate(cacheClassName)
+            .toBuilder()
+            .addOriginatingElement(annotatedElement)
+            .build(), annotatedElement);
+    }
+
+    /**
+     * 生成 Controller 所在包共享的 ExcelImportSupport，已存在时跳过
+     *
+     * @param context
+     * @param supportClassName
+     * @param annotatedElement
+     */
+    protected void writeExcelImportSupportIfAbsent(GeneratorContext context,
+        ClassName supportClassName, Element annotatedElement) {
+        if (!generatedImportSupports.add(supportClassName.canonicalName())
+            || Objects.nonNull(context.getElementUtils()
+            .getTypeElement(supportClassName.canonicalName()))) {
+            return;
+        }
+        TypeSpec supportSpec = new ExcelImportSupportGenerator().generate(supportClassName)
+            .toBuilder()
+            .addOriginatingElement(annotatedElement)
+            .build();
+        context.write(supportClassName, supportSpec, annotatedElement);
+    }
+
+    /**
+     * 异步导入excel
+     *
+     * @param entity
+     * @param supportClassName
+     * @return
+     */
+    protected MethodSpec asyncImportExcel(EntityModel entity, ClassName supportClassName) {
+        ClassName pathClassName = ClassName.get("java.nio.file", "Path");
+        return MethodSpec.methodBuilder("importExcel")
+            .addJavadoc("通过excel导入数据\n"
+                + "<p>\n"
+                + "上传的文件保存后立即返回任务 id，在后台分块导入，通过 /importExcel/progress 查询进度\n\n"
+                + "@param request\n"
+                + "@param response\n"
+                + "@return 任务 id\n")
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "PostMapping"))
+                .addMember("value", "$S", "/importExcel")
+                .build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(
+                ParameterizedTypeName.get(JEECG_RESULT_CLASS_NAME,
+                    WildcardTypeName.subtypeOf(Object.class)))
+            .addParameter(ClassName.get("jakarta.servlet.http", "HttpServletRequest"), "request")
+            .addParameter(ClassName.get("jakarta.servlet.http", "HttpServletResponse"), "response")
+            .addException(IOException.class)
+            .addStatement("$T multipartRequest = ($T) request",
+                ClassName.get("org.springframework.web.multipart", "MultipartHttpServletRequest"),
+                ClassName.get("org.springframework.web.multipart", "MultipartHttpServletRequest"))
+            .addStatement("$T<$T> jobIds = new $T<>()", List.class, String.class, ArrayList.class)
+            .beginControlFlow("for ($T file : multipartRequest.getFileMap().values())",
+                ClassName.get("org.springframework.web.multipart", "MultipartFile"))
+            .addStatement("$T path = $T.createTempFile($S, $S)", pathClassName,
+                ClassName.get("java.nio.file", "Files"), "excel-import-", ".xlsx")
+            .beginControlFlow("try")
+            .addStatement("file.transferTo(path)")
+            .nextControlFlow("catch ($T e)", IOException.class)
+            .addStatement("$T.deleteIfExists(path)", ClassName.get("java.nio.file", "Files"))
+            .addStatement("throw e")
+            .endControlFlow()
+            .addStatement("jobIds.add($T.submit(path, IMPORT_HEADERS, this::toImportEntity,\n"
+                    + "entities -> $L.saveBatch(entities, IMPORT_BATCH_SIZE), "
+                    + "IMPORT_BATCH_SIZE, IMPORT_PARALLELISM).getId())",
+                supportClassName, entity.repositoryBeanName())
+            .endControlFlow()
+            .addStatement("return $T.OK($S, jobIds)", JEECG_RESULT_CLASS_NAME, "文件已提交导入")
+            .build();
+    }
+
+    /**
+     * 查询导入进度
+     *
+     * @param supportClassName
+     * @return
+     */
+    protected MethodSpec importProgress(ClassName supportClassName) {
+        ClassName jobClassName = supportClassName.nestedClass("Job");
+        return MethodSpec.methodBuilder("importProgress")
+            .addJavadoc("查询导入进度\n\n"
+                + "@param jobId\n"
+                + "@return\n")
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "GetMapping"))
+                .addMember("value", "$S", "/importExcel/progress")
+                .build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(JEECG_RESULT_CLASS_NAME, jobClassName))
+            .addParameter(ParameterSpec.builder(ClassName.get("java.lang", "String"), "jobId")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.springframework.web.bind.annotation", "RequestParam"))
+                    .addMember("name", "$S", "jobId")
+                    .addMember("required", "$L", "true")
+                    .build())
+                .build())
+            .addStatement("$T job = $T.getJob(jobId)", jobClassName, supportClassName)
+            .beginControlFlow("if (job == null)")
+            .addStatement("return $T.error($S)", JEECG_RESULT_CLASS_NAME, "导入任务不存在")
+            .endControlFlow()
+            .addStatement("return $T.OK(job)", JEECG_RESULT_CLASS_NAME)
+            .build();
+    }
+
+    /**
+     * 将一行中按 IMPORT_HEADERS 排列的单元格转换为实体，日期使用与导出相同的格式，replace 与 suffix 按导出的逆过程还原
+     *
+     * @param entity
+     * @param importColumns
+     * @param formatterNames
+     * @return
+     */
+    protected MethodSpec toImportEntityMethod(EntityModel entity, List<ExcelColumn> importColumns,
+        Map<String, String> formatterNames) {
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("toImportEntity")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(String[].class, "values")
+            .returns(entity.entityClassName())
+            .addStatement("$T entity = new $T()", entity.entityClassName(),
+                entity.entityClassName());
+        for (int i = 0; i < importColumns.size(); i++) {
+            ExcelColumn excelColumn = importColumns.get(i);
+            ColumnModel column = excelColumn.column();
+            CodeBlock value = CodeBlock.of("values[$L]", i);
+            if (Objects.nonNull(excelColumn.suffix())) {
+                value = CodeBlock.of("removeSuffix($L, $S)", value, excelColumn.suffix());
+            }
+            if (!excelColumn.replace().isEmpty()) {
+                value = CodeBlock.of("replaceLabel($L, $L)", importReplaceName(column), value);
+            }
+            CodeBlock parsed = Objects.nonNull(excelColumn.format())
+                ? parseTemporal(column.type(), value, formatterNames.get(excelColumn.format()))
+                : StringConversions.parse(column.type(), value).orElseThrow();
+            methodBuilder.beginControlFlow("if (values[$L] != null)", i)
+                .addStatement("entity.$L($L)", column.setterName(), parsed)
+                .endControlFlow();
+        }
+        return methodBuilder.addStatement("return entity").build();
+    }
+
+    private static CodeBlock parseTemporal(TypeName type, CodeBlock value, String formatterName) {
+        if (DATE_CLASS_NAME.equals(type)) {
+            return CodeBlock.of("$T.from($T.parse($L, $L).atZone($T.systemDefault()).toInstant())",
+                Date.class, LocalDateTime.class, value, formatterName, ZoneId.class);
+        }
+        if (ClassName.get(OffsetDateTime.class).equals(type)
+            || ClassName.get(ZonedDateTime.class).equals(type)) {
+            // 导出时不包含时区，按系统时区解析
+            return CodeBlock.of("$T.parse($L, $L).atZone($T.systemDefault())$L",
+                LocalDateTime.class, value, formatterName, ZoneId.class,
+                ClassName.get(OffsetDateTime.class).equals(type) ? ".toOffsetDateTime()" : "");
+        }
+        return CodeBlock.of("$T.parse($L, $L)", type, value, formatterName);
+    }
+
+    /**
+     * 导出的列：实体类中存在 {@code @Excel} 时只导出被修饰的属性，按 orderNum 排序；否则导出所有查询列
+     *
+     * @param entity
+     * @return
+     */
+    protected List<ExcelColumn> excelColumns(GeneratorContext context, EntityModel entity) {
+        AnnotationIndex annotations = context.annotations();
+        boolean annotated = entity.columns().stream()
+            .anyMatch(column -> annotations.has(column.field(), EXCEL));
+        List<ExcelColumn> excelColumns = new ArrayList<>();
+        for (ColumnModel column : entity.columns()) {
+            Optional<IndexedAnnotation> excel = annotations.get(column.field(), EXCEL);
+            if (annotated ? excel.isEmpty() : !column.select()) {
+                continue;
+            }
+            String header = excel.flatMap(a -> a.getString("name"))
+                .orElse(column.propertyName());
+            // 未指定宽度时保持 POI 的默认列宽
+            Double width = excel.flatMap(a -> a.explicitValue("width"))
+                .map(v -> ((Number) v.getValue()).doubleValue())
+                .orElse(null);
+            String format = excel.flatMap(a -> a.getString("format"))
+                .orElse(DEFAULT_DATE_FORMATS.get(column.type()));
+            int order = excel.flatMap(a -> a.getString("orderNum"))
+                .map(String::trim)
+                .filter(o -> o.matches("-?\\d+"))
+                .map(Integer::parseInt)
+                .orElse(0);
+            // 与 autopoi 一致，replace 的每一项为 "显示值_属性值"，同一个属性值以第一项为准
+            Map<String, String> replace = new LinkedHashMap<>();
+            excel.map(a -> a.getStringArray("replace")).orElse(List.of()).stream()
+                .map(item -> item.split("_"))
+                .filter(pair -> pair.length >= 2)
+                .forEach(pair -> replace.putIfAbsent(pair[1], pair[0]));
+            String suffix = excel.flatMap(a -> a.getString("suffix")).orElse(null);
+            excelColumns.add(new ExcelColumn(column, header, width,
+                DEFAULT_DATE_FORMATS.containsKey(column.type()) ? format : null, order,
+                replace, suffix));
+        }
+        excelColumns.sort(Comparator.comparingInt(ExcelColumn::order));
+        return excelColumns;
+    }
+
+    /**
+     * 流式导出 excel
+     *
+     * @param entity
+     * @param idColumn
+     * @param excelColumns
+     * @param formatterNames
+     * @return
+     */
+    protected MethodSpec streamingExportExcel(EntityModel entity, ColumnModel idColumn,
+        List<ExcelColumn> excelColumns, Map<String, String> formatterNames) {
+        ClassName entityClassName = entity.entityClassName();
+        String title = entity.controller().value().isBlank()
+            ? entityClassName.simpleName() : entity.controller().value();
+        CodeBlock.Builder code = CodeBlock.builder()
+            .addStatement("$T<$T, $T[]> parameterMap = new $T<>(request.getParameterMap())",
+                Map.class, String.class, String.class, HashMap.class)
+            .addStatement("parameterMap.remove($S)", "column")
+            .addStatement("parameterMap.remove($S)", "order")
+            .add("// 与 JeecgController#exportXls 一致，selections 为选中记录的主键，field 为导出的属性\n")
+            .addStatement("$T selections = request.getParameter($S)", String.class, "selections")
+            .addStatement("$T<$T> selectionIds = selections == null || selections.isBlank() "
+                    + "? null : $T.stream(selections.split($S)).map(id -> $L).toList()",
+                List.class, idColumn.type().box(), Arrays.class, ",",
+                StringConversions.parse(idColumn.type(), CodeBlock.of("id")).orElseThrow())
+            .addStatement("$T field = request.getParameter($S)", String.class, "field")
+            .addStatement("$T<$T> fields = field == null || field.isBlank() ? null "
+                    + ": $T.copyOf($T.asList(field.split($S)))",
+                Set.class, String.class, Set.class, Arrays.class, ",");
+        for (ExcelColumn excelColumn : excelColumns) {
+            code.addStatement("boolean $L = fields == null || fields.contains($S)",
+                exportFlagName(excelColumn.column()), excelColumn.column().propertyName());
+        }
+        code.addStatement("response.setContentType($S)",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+            .addStatement("response.setHeader($S, $S + $T.encode($S, $T.UTF_8).replace($S, $S))",
+                "Content-Disposition", "attachment; filename*=UTF-8''", URLEncoder.class,
+                title + ".xlsx", StandardCharsets.class, "+", "%20")
+            .add("// 超出窗口的行写入压缩的临时文件，内存中最多保留 $L 行\n", SXSSF_WINDOW_SIZE)
+            .addStatement("$T workbook = new $T($L)", SXSSF_WORKBOOK_CLASS_NAME,
+                SXSSF_WORKBOOK_CLASS_NAME, SXSSF_WINDOW_SIZE)
+            .beginControlFlow("try")
+            .addStatement("workbook.setCompressTempFiles(true)")
+            .addStatement("$T sheet = workbook.createSheet($T.createSafeSheetName($S))",
+                SHEET_CLASS_NAME, WORKBOOK_UTIL_CLASS_NAME, title)
+            .addStatement("$T header = sheet.createRow(0)", ROW_CLASS_NAME)
+            .addStatement("int column = 0");
+        for (ExcelColumn excelColumn : excelColumns) {
+            code.beginControlFlow("if ($L)", exportFlagName(excelColumn.column()));
+            if (Objects.nonNull(excelColumn.width())) {
+                code.addStatement("sheet.setColumnWidth(column, $L)",
+                    (int) (excelColumn.width() * 256));
+            }
+            code.addStatement("header.createCell(column++).setCellValue($S)", excelColumn.header())
+                .endControlFlow();
+        }
+        code.addStatement("int rowIndex = 1")
+            .addStatement("$T lastId = null", idColumn.type().box())
+            .beginControlFlow("while (true)")
+            .addStatement(
+                "$T<$T> queryWrapper = $T.initQueryWrapper(entity, parameterMap)",
+                ClassName.get("com.baomidou.mybatisplus.core.conditions.query", "QueryWrapper"),
+                entityClassName,
+                ClassName.get("org.jeecg.common.system.query", "QueryGenerator"))
+            .beginControlFlow("if (selectionIds != null)")
+            .addStatement("queryWrapper.in($S, selectionIds)", idColumn.columnName())
+            .endControlFlow()
+            .beginControlFlow("if (lastId != null)")
+            .addStatement("queryWrapper.gt($S, lastId)", idColumn.columnName())
+            .endControlFlow()
+            .addStatement("queryWrapper.orderByAsc($S)", idColumn.columnName())
+            .add("// 按主键分批查询，每批都从第一页开始，不会产生 OFFSET 与 COUNT\n")
+            .addStatement("$T<$T> records = $L.page(new $T<>(1, EXPORT_BATCH_SIZE, false), "
+                    + "queryWrapper).getRecords()",
+                List.class, entityClassName, entity.repositoryBeanName(),
+                ClassName.get("com.baomidou.mybatisplus.extension.plugins.pagination", "Page"))
+            .beginControlFlow("for ($T record : records)", entityClassName)
+            .addStatement("$T row = sheet.createRow(rowIndex++)", ROW_CLASS_NAME)
+            .addStatement("column = 0");
+        for (ExcelColumn excelColumn : excelColumns) {
+            ColumnModel column = excelColumn.column();
+            CodeBlock value = CodeBlock.of("record.$L()", column.getterName());
+            if (Objects.nonNull(excelColumn.format())) {
+                value = CodeBlock.of("$L($L, $L)",
+                    DATE_CLASS_NAME.equals(column.type()) ? "formatDate" : "formatTemporal",
+                    formatterNames.get(excelColumn.format()), value);
+            }
+            if (!excelColumn.replace().isEmpty()) {
+                value = CodeBlock.of("replaceValue($L, $L)", exportReplaceName(column), value);
+            }
+            if (Objects.nonNull(excelColumn.suffix())) {
+                value = CodeBlock.of("appendSuffix($L, $S)", value, excelColumn.suffix());
+            }
+            code.beginControlFlow("if ($L)", exportFlagName(column))
+                .addStatement("setCellValue(row, column++, $L)", value)
+                .endControlFlow();
+        }
+        code.endControlFlow()
+            .beginControlFlow("if (records.size() < EXPORT_BATCH_SIZE)")
+            .addStatement("break")
+            .endControlFlow()
+            .addStatement("lastId = records.get(records.size() - 1).$L()",
+                idColumn.getterName())
+            .endControlFlow()
+            .addStatement("workbook.write(response.getOutputStream())")
+            .nextControlFlow("finally")
+            .addStatement("workbook.dispose()")
+            .addStatement("workbook.close()")
+            .endControlFlow();
+
+        return MethodSpec.methodBuilder("exportExcel")
+            .addJavadoc("流式导出excel\n"
+                + "<p>\n"
+                + "按主键分批查询并逐行写出，内存占用与导出的行数无关\n\n"
+                + "@param request\n"
+                + "@param response\n"
+                + "@param entity\n")
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "RequestMapping"))
+                .addMember("value", "$S", "/exportXls")
+                .build())
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(ClassName.get("jakarta.servlet.http", "HttpServletRequest"), "request")
+            .addParameter(ClassName.get("jakarta.servlet.http", "HttpServletResponse"), "response")
+            .addParameter(entityClassName, "entity")
+            .addException(IOException.class)
+            .addCode(code.build())
+            .build();
+    }
+
+    /**
+     * 按值的类型写入单元格，null 不创建单元格
+     * <p>
+     * Long、BigDecimal 等可能超出 double 精度的数值以字符串写入
+     *
+     * @return
+     */
+    protected MethodSpec setCellValueMethod() {
+        return MethodSpec.methodBuilder("setCellValue")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(ROW_CLASS_NAME, "row")
+            .addParameter(int.class, "column")
+            .addParameter(Object.class, "value")
+            .beginControlFlow("if (value == null)")
+            .addStatement("return")
+            .endControlFlow()
+            .beginControlFlow("if (value instanceof $T || value instanceof $T "
+                    + "|| value instanceof $T || value instanceof $T || value instanceof $T)",
+                Integer.class, Short.class, Byte.class, Double.class, Float.class)
+            .addStatement("row.createCell(column).setCellValue((($T) value).doubleValue())",
+                Number.class)
+            .nextControlFlow("else if (value instanceof $T b)", Boolean.class)
+            .addStatement("row.createCell(column).setCellValue(b)")
+            .nextControlFlow("else")
+            .addStatement("row.createCell(column).setCellValue(value.toString())")
+            .endControlFlow()
+            .build();
+    }
+
+    protected MethodSpec formatTemporalMethod() {
+        return MethodSpec.methodBuilder("formatTemporal")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(DateTimeFormatter.class, "formatter")
+            .addParameter(TemporalAccessor.class, "value")
+            .returns(String.class)
+            .addStatement("return value == null ? null : formatter.format(value)")
+            .build();
+    }
+
+    protected MethodSpec formatDateMethod() {
+        return MethodSpec.methodBuilder("formatDate")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(DateTimeFormatter.class, "formatter")
+            .addParameter(DATE_CLASS_NAME, "value")
+            .returns(String.class)
+            .addStatement("return value == null ? null : formatter.format("
+                + "value.toInstant().atZone($T.systemDefault()))", ZoneId.class)
+            .build();
+    }
+
+    /**
+     * replace 的映射表，保持 {@code @Excel} 中声明的顺序
+     *
+     * @param name
+     * @param replace
+     * @return
+     */
+    protected FieldSpec replaceField(String name, Map<String, String> replace) {
+        return FieldSpec.builder(ParameterizedTypeName.get(Map.class, String.class, String.class),
+                name, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("$T.ofEntries(\n$>$>$L$<$<)", Map.class, replace.entrySet().stream()
+                .map(e -> CodeBlock.of("$T.entry($S, $S)", Map.class, e.getKey(), e.getValue()))
+                .collect(CodeBlock.joining(",\n")))
+            .build();
+    }
+
+    /**
+     * 按 replace 转换导出的值，未匹配时保持原值
+     *
+     * @return
+     */
+    protected MethodSpec replaceValueMethod() {
+        return MethodSpec.methodBuilder("replaceValue")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(ParameterizedTypeName.get(Map.class, String.class, String.class),
+                "replace")
+            .addParameter(Object.class, "value")
+            .returns(Object.class)
+            .beginControlFlow("if (value == null)")
+            .addStatement("return null")
+            .endControlFlow()
+            .addStatement("$T replaced = replace.get(value.toString())", String.class)
+            .addStatement("return replaced == null ? value : replaced")
+            .build();
+    }
+
+    protected MethodSpec appendSuffixMethod() {
+        return MethodSpec.methodBuilder("appendSuffix")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(Object.class, "value")
+            .addParameter(String.class, "suffix")
+            .returns(Object.class)
+            .addStatement("return value == null ? null : value + suffix")
+            .build();
+    }
+
+    /**
+     * 按 replace 将导入的显示值还原为属性值，未匹配时保持原值
+     *
+     * @return
+     */
+    protected MethodSpec replaceLabelMethod() {
+        return MethodSpec.methodBuilder("replaceLabel")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(ParameterizedTypeName.get(Map.class, String.class, String.class),
+                "replace")
+            .addParameter(String.class, "value")
+            .returns(String.class)
+            .addStatement("return replace.getOrDefault(value, value)")
+            .build();
+    }
+
+    protected MethodSpec removeSuffixMethod() {
+        return MethodSpec.methodBuilder("removeSuffix")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(String.class, "value")
+            .addParameter(String.class, "suffix")
+            .returns(String.class)
+            .addStatement("return value.endsWith(suffix) "
+                + "? value.substring(0, value.length() - suffix.length()) : value")
+            .build();
+    }
+
+    private static String importReplaceName(ColumnModel column) {
+        return "IMPORT_" + column.constantName().replaceFirst("^COLUMN", "REPLACE");
+    }
+
+    private static String exportReplaceName(ColumnModel column) {
+        return "EXPORT_" + column.constantName().replaceFirst("^COLUMN", "REPLACE");
+    }
+
+    private static String exportFlagName(ColumnModel column) {
+        return "export" + Character.toUpperCase(column.propertyName().charAt(0))
+            + column.propertyName().substring(1);
+    }
+
+    /**
+     * 导出的列
+     *
+     * @param column  对应的属性
+     * @param header  表头，来自 {@code @Excel} 的 name，未指定时为属性名
+     * @param width   列宽（字符数），未指定时为 null
+     * @param format  日期格式，非日期类型为 null
+     * @param order   排序，来自 {@code @Excel} 的 orderNum
+     * @param replace 属性值到显示值的映射，来自 {@code @Excel} 的 replace
+     * @param suffix  显示值的后缀，来自 {@code @Excel} 的 suffix，未指定时为 null
+     */
+    protected record ExcelColumn(ColumnModel column, String header, Double width, String format,
+                                 int order, Map<String, String> replace, String suffix) {
+
+    }
+
+    /**
+     * 通过excel导入数据
+     *
+     * @param entityClassName
+     * @return
+     */
+    protected MethodSpec importExcel(ClassName entityClassName) {
+        return MethodSpec.methodBuilder("importExcel")
+            .addJavadoc("通过excel导入数据\n\n" +
+                "@param request\n" +
+                "@param plan\n")
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.springframework.web.bind.annotation", "PostMapping"))
+                .addMember("value", "$S", "/importExcel")
+                .build())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(
+                ParameterizedTypeName.get(JEECG_RESULT_CLASS_NAME,
+                    WildcardTypeName.subtypeOf(Object.class)))
+            .addParameter(ClassName.get("jakarta.servlet.http", "HttpServletRequest"), "request")
+            .addParameter(ClassName.get("jakarta.servlet.http", "HttpServletResponse"), "response")
+            .addStatement("return super.importExcel(request, response, $T.class)",
+                entityClassName)
+            .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package cc.ddrpa.dorian.norbo.jeecgboot.generator;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import javax.lang.model.element.Modifier;
+
+/**
+ * 生成同一个包下的 Controller 共享的列表总数缓存
+ * <p>
+ * 按查询条件缓存 COUNT 的结果，请求线程只读取缓存，缺失或过期时交给后台线程重新计算
+ */
+class ListTotalCacheGenerator {
+
+    private static final ClassName LOGGER_CLASS_NAME = ClassName.get("org.slf4j", "Logger");
+    private static final ClassName LOGGER_FACTORY_CLASS_NAME = ClassName.get("org.slf4j",
+        "LoggerFactory");
+    /**
+     * 每个 Controller 缓存的查询条件数
+     */
+    private static final int MAX_ENTRIES = 1000;
+    /**
+     * 等待执行的 COUNT 查询数，超出时放弃本次刷新，由之后的请求重试
+     */
+    private static final int MAX_PENDING = 100;
+
+    TypeSpec generate(ClassName className) {
+        ClassName entryClassName = className.nestedClass("Entry");
+        return TypeSpec.classBuilder(className)
+            .addJavadoc("同一个包下生成的 Controller 共享的列表总数缓存\n"
+                + "<p>\n"
+                + "按查询条件缓存 COUNT 的结果；缺失或过期时返回旧值，并在后台线程中重新计算，"
+                + "请求线程不会等待 COUNT 查询\n")
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addField(FieldSpec.builder(LOGGER_CLASS_NAME, "logger",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.getLogger($T.class)", LOGGER_FACTORY_CLASS_NAME, className)
+                .build())
+            .addField(FieldSpec.builder(int.class, "MAX_ENTRIES",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$L", MAX_ENTRIES)
+                .build())
+            .addField(FieldSpec.builder(ExecutorService.class, "EXECUTOR",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T(1, 2, 60, $T.SECONDS,\n$>$>"
+                        + "new $T<>($L), runnable -> {\n$>"
+                        + "$T thread = new $T(runnable, $S);\n"
+                        + "thread.setDaemon(true);\n"
+                        + "return thread;\n"
+                        + "$<})$<$<",
+                    ThreadPoolExecutor.class, TimeUnit.class, ArrayBlockingQueue.class,
+                    MAX_PENDING, Thread.class, Thread.class, "list-total")
+                .build())
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(Map.class),
+                        ClassName.get(String.class), entryClassName), "entries",
+                    Modifier.PRIVATE, Modifier.FINAL)
+                .initializer("new $T<>()", ConcurrentHashMap.class)
+                .build())
+            .addField(FieldSpec.builder(long.class, "ttlNanos",
+                    Modifier.PRIVATE, Modifier.FINAL)
+                .build())
+            .addMethod(MethodSpec.constructorBuilder()
+                .addJavadoc("@param ttlSeconds 总数的有效期，过期后在下一次请求时重新计算\n")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(long.class, "ttlSeconds")
+                .addStatement("this.ttlNanos = $T.SECONDS.toNanos(ttlSeconds)", TimeUnit.class)
+                .build())
+            .addMethod(getMethod(entryClassName))
+            .addType(TypeSpec.classBuilder(entryClassName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addField(Long.class, "total", Modifier.VOLATILE)
+                .addField(long.class, "refreshedAt", Modifier.VOLATILE)
+                .addField(FieldSpec.builder(AtomicBoolean.class, "refreshing", Modifier.FINAL)
+                    .initializer("new $T()", AtomicBoolean.class)
+                    .build())
+                .build())
+            .build();
+    }
+
+    private MethodSpec getMethod(ClassName entryClassName) {
+        return MethodSpec.methodBuilder("get")
+            .addJavadoc("查询条件对应的总数，尚未计算完成时返回 null\n"
+                + "<p>\n"
+                + "缺失或过期时提交后台任务重新计算，同一个查询条件同时只有一个任务\n\n"
+                + "@param signature 查询条件\n"
+                + "@param counter   执行 COUNT 查询\n"
+                + "@return\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(Long.class)
+            .addParameter(String.class, "signature")
+            .addParameter(LongSupplier.class, "counter")
+            .addStatement("$T entry = entries.get(signature)", entryClassName)
+            .beginControlFlow("if (entry == null)")
+            .beginControlFlow("if (entries.size() >= MAX_ENTRIES)")
+            .addCode("// 超出上限时淘汰任意一个条目\n")
+            .addStatement("$T<String> iterator = entries.keySet().iterator()", Iterator.class)
+            .beginControlFlow("if (iterator.hasNext())")
+            .addStatement("iterator.next()")
+            .addStatement("iterator.remove()")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("entry = entries.computeIfAbsent(signature, key -> new $T())",
+                entryClassName)
+            .endControlFlow()
+            .addStatement("$T total = entry.total", Long.class)
+            .beginControlFlow(
+                "if ((total == null || System.nanoTime() - entry.refreshedAt > ttlNanos)\n"
+                    + "$>$>&& entry.refreshing.compareAndSet(false, true)$<$<)")
+            .addStatement("$T target = entry", entryClassName)
+            .beginControlFlow("try")
+            .addCode("EXECUTOR.execute(() -> {\n$>")
+            .beginControlFlow("try")
+            .addStatement("target.total = counter.getAsLong()")
+            .addStatement("target.refreshedAt = System.nanoTime()")
+            .nextControlFlow("catch ($T e)", RuntimeException.class)
+            .addCode("// 由之后的请求重试\n")
+            .addStatement("logger.warn($S, e)", "Failed to count list total")
+            .nextControlFlow("finally")
+            .addStatement("target.refreshing.set(false)")
+            .endControlFlow()
+            .addCode("$<});\n")
+            .nextControlFlow("catch ($T e)", RejectedExecutionException.class)
+            .addStatement("target.refreshing.set(false)")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("return total")
+            .build();
+    }
+}
@@ -0,0 +1,82 @@
+package cc.ddrpa.dorian.norbo.jeecgboot.generator;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.TypeName;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 生成属性值与字符串之间相互转换的代码，用于请求参数中的主键、分页游标等
+ */
+final class StringConversions {
+
+    private static final ClassName DATE_CLASS_NAME = ClassName.get(Date.class);
+    private static final Set<TypeName> VALUE_OF_TYPES = Set.of(
+        ClassName.get(Long.class), ClassName.get(Integer.class), ClassName.get(Short.class),
+        ClassName.get(Byte.class), ClassName.get(Double.class), ClassName.get(Float.class),
+        ClassName.get(Boolean.class));
+    private static final Set<TypeName> PARSE_METHOD_TYPES = Set.of(
+        ClassName.get(LocalDate.class), ClassName.get(LocalDateTime.class),
+        ClassName.get(LocalTime.class), ClassName.get(OffsetDateTime.class),
+        ClassName.get(Instant.class));
+
+    private StringConversions() {
+    }
+
+    /**
+     * 将字符串转换为指定类型的表达式，不支持的类型返回 empty
+     * <p>
+     * 格式错误时生成的代码抛出 {@link RuntimeException}
+     *
+     * @param type
+     * @param text 字符串表达式
+     * @return
+     */
+    static Optional<CodeBlock> parse(TypeName type, CodeBlock text) {
+        TypeName boxed = type.box();
+        if (boxed.equals(ClassName.get(String.class))) {
+            return Optional.of(text);
+        }
+        if (VALUE_OF_TYPES.contains(boxed)) {
+            return Optional.of(CodeBlock.of("$T.valueOf($L)", boxed, text));
+        }
+        if (boxed.equals(ClassName.get(BigInteger.class))
+            || boxed.equals(ClassName.get(BigDecimal.class))) {
+            return Optional.of(CodeBlock.of("new $T($L)", boxed, text));
+        }
+        if (boxed.equals(ClassName.get(UUID.class))) {
+            return Optional.of(CodeBlock.of("$T.fromString($L)", boxed, text));
+        }
+        if (PARSE_METHOD_TYPES.contains(boxed)) {
+            return Optional.of(CodeBlock.of("$T.parse($L)", boxed, text));
+        }
+        if (boxed.equals(DATE_CLASS_NAME)) {
+            return Optional.of(CodeBlock.of("new $T($T.parseLong($L))", boxed, Long.class, text));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 将指定类型的值转换为字符串的表达式，结果可以由 {@link #parse(TypeName, CodeBlock)} 还原
+     *
+     * @param type
+     * @param value 值表达式
+     * @return
+     */
+    static CodeBlock format(TypeName type, CodeBlock value) {
+        if (type.box().equals(DATE_CLASS_NAME)) {
+            return CodeBlock.of("$T.toString($L.getTime())", Long.class, value);
+        }
+        return CodeBlock.of("$T.valueOf($L)", String.class, value);
+    }
+}
@@ -6,7 +6,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 @Target(ElementType.TYPE)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface MPMapper {
 
     String value() default "";
@@ -17,4 +17,19 @@ public @interface MPMapper {
      * 默认与被修饰类位于同一个包下
      */
     String packageName() default "";
+
+    /**
+     * 是否生成基于游标的流式查询方法 {@code streamBy} 与 {@code forEach}
+     * <p>
+     * 同时使用 {@code @MPRepository} 时，Repository 中会生成对应的 {@code forEach} 方法
+     */
+    boolean stream() default false;
+
+    /**
+     * 流式查询时传给 JDBC 驱动的 fetchSize
+     * <p>
+     * MySQL 驱动需要设置为 {@link Integer#MIN_VALUE}，或在连接参数中开启 {@code useCursorFetch=true}，
+     * 否则仍会一次读取全部结果
+     */
+    int fetchSize() default 1000;
 }
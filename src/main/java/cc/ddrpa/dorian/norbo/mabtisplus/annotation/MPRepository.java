@@ -6,7 +6,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 @Target(ElementType.TYPE)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface MPRepository {
 
     String value() default "";
@@ -17,4 +17,74 @@ public @interface MPRepository {
      * 默认与被修饰类位于同一个包下
      */
     String packageName() default "";
+
+    /**
+     * 是否生成多行 {@code INSERT ... VALUES (...), (...)} 形式的批量插入方法 {@code insertBatch}
+     * <p>
+     * 需要同时使用 {@code @MPMapper}，SQL 语句生成在 Mapper 中
+     */
+    boolean batchInsert() default false;
+
+    /**
+     * 生成批量 upsert 方法 {@code upsertBatch} 所使用的数据库方言
+     * <p>
+     * 默认为 {@link Dialect#NONE}，不生成；需要同时使用 {@code @MPMapper}
+     */
+    Dialect upsert() default Dialect.NONE;
+
+    /**
+     * 批量写入时每条 SQL 语句包含的行数
+     */
+    int batchSize() default 1000;
+
+    /**
+     * 是否为按主键的读取生成进程内缓存
+     * <p>
+     * 使用 Caffeine，覆盖 {@code getById}、{@code listByIds}，并在按主键或条件写入后失效对应的缓存项；
+     * 需要实体有主键
+     */
+    boolean cache() default false;
+
+    /**
+     * 缓存的最大条目数，超出后按 W-TinyLFU 策略淘汰
+     */
+    long cacheMaximumSize() default 10000;
+
+    /**
+     * 缓存项写入后的存活时间，单位为秒，为 0 时不过期
+     */
+    long cacheExpireAfterWrite() default 300;
+
+    /**
+     * 是否生成返回 {@code CompletableFuture} 的 {@code getByIdAsync}、{@code listByIdsAsync} 与
+     * {@code saveBatchAsync}
+     */
+    boolean async() default false;
+
+    /**
+     * 执行异步方法的 {@code Executor} 的 bean name
+     * <p>
+     * 默认使用每个 Repository 独立的执行器：源代码版本为 21 及以上时使用虚拟线程，否则使用可缓存的线程池
+     */
+    String asyncExecutor() default "";
+
+    /**
+     * 是否为生成的方法与常用的读写方法生成 Micrometer 埋点
+     * <p>
+     * 记录 {@code norbo.repository} 耗时与批量写入的 {@code norbo.repository.rows} 行数，指标注册在
+     * {@code Metrics.globalRegistry}
+     */
+    boolean instrument() default false;
+
+    enum Dialect {
+        NONE,
+        /**
+         * {@code INSERT ... ON DUPLICATE KEY UPDATE}
+         */
+        MYSQL,
+        /**
+         * {@code INSERT ... ON CONFLICT (主键) DO UPDATE}
+         */
+        POSTGRESQL
+    }
 }
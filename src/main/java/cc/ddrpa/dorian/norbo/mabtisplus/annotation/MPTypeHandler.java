@@ -6,7 +6,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 @Target({ElementType.FIELD, ElementType.TYPE})
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface MPTypeHandler {
 
     String value() default "";
@@ -17,4 +17,74 @@ public @interface MPTypeHandler {
      * 默认与被修饰类位于同一个包下
      */
     String packageName() default "";
+
+    /**
+     * 生成类读写数据库的方式
+     * <p>
+     * 默认为 {@link Mode#STRING}
+     */
+    Mode mode() default Mode.STRING;
+
+    /**
+     * 生成类 {@code @MappedJdbcTypes} 中的 JdbcType 名称，如 {@code "VARCHAR"}
+     * <p>
+     * 默认 {@link Mode#STRING} 模式为 VARCHAR、LONGVARCHAR，{@link Mode#BYTES} 模式为 BLOB、LONGVARBINARY、VARBINARY
+     */
+    String[] jdbcTypes() default {};
+
+    /**
+     * 序列化格式
+     * <p>
+     * 默认为 {@link Format#JSON}，其他格式需要引入对应的 Jackson dataformat 依赖，并总是按字节读写
+     */
+    Format format() default Format.JSON;
+
+    /**
+     * 是否在编译期生成基于 JsonParser / JsonGenerator 的编解码器，替代 Jackson 运行时的反射
+     * <p>
+     * 仅适用于非参数化的类或 record，类需要无参构造函数以及 getter / setter
+     */
+    boolean codec() default false;
+
+    /**
+     * 是否额外生成延迟解码的包装类 {@code Lazy{ClassName}} 及其 TypeHandler
+     * <p>
+     * 实体类属性声明为包装类后，查询时只保存数据库中的原始内容，首次访问时才解码；未访问过的值原样写回
+     */
+    boolean lazy() default false;
+
+    /**
+     * 是否为解析与序列化生成 Micrometer 埋点
+     * <p>
+     * 记录 {@code norbo.type_handler} 耗时与 {@code norbo.type_handler.payload} 内容大小，指标注册在
+     * {@code Metrics.globalRegistry}；不包括延迟解码的包装类
+     */
+    boolean instrument() default false;
+
+    enum Mode {
+        /**
+         * 继承 AbstractJsonTypeHandler，通过 String 读写 JSON
+         */
+        STRING,
+        /**
+         * 继承 BaseTypeHandler，通过 getBinaryStream / setBytes 直接读写 JSON 字节，跳过中间的 String
+         */
+        BYTES
+    }
+
+    enum Format {
+        JSON,
+        /**
+         * 需要 com.fasterxml.jackson.dataformat:jackson-dataformat-cbor
+         */
+        CBOR,
+        /**
+         * 需要 com.fasterxml.jackson.dataformat:jackson-dataformat-smile
+         */
+        SMILE,
+        /**
+         * 需要 org.msgpack:jackson-dataformat-msgpack
+         */
+        MESSAGE_PACK
+    }
 }
\ No newline at end of file
@@ -0,0 +1,678 @@
+package cc.ddrpa.dorian.norbo.mabtisplus.generator;
+
+import static javax.lang.model.element.Modifier.PUBLIC;
+
+import cc.ddrpa.dorian.norbo.util.AnnotationIndex;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * 在编译期遍历被修饰类型的属性，生成基于 JsonParser / JsonGenerator 的流式编解码器
+ * <p>
+ * 基本类型、包装类型、String、BigDecimal、BigInteger 和未使用 Jackson 注解的枚举直接读写；java.time 等其余类型交给
+ * parser / generator 所属的 ObjectCodec 处理，与 ObjectMapper 中的日期格式等配置保持一致
+ */
+class JsonCodecGenerator {
+
+    private static final ClassName JSON_PARSER_CLASS_NAME = ClassName.get(
+        "com.fasterxml.jackson.core", "JsonParser");
+    private static final ClassName JSON_GENERATOR_CLASS_NAME = ClassName.get(
+        "com.fasterxml.jackson.core", "JsonGenerator");
+    private static final ClassName JSON_TOKEN_CLASS_NAME = ClassName.get(
+        "com.fasterxml.jackson.core", "JsonToken");
+    private static final ClassName SERIALIZED_STRING_CLASS_NAME = ClassName.get(
+        "com.fasterxml.jackson.core.io", "SerializedString");
+    private static final ClassName TYPE_REFERENCE_CLASS_NAME = ClassName.get(
+        "com.fasterxml.jackson.core.type", "TypeReference");
+    private static final String JACKSON_ANNOTATION_PACKAGE = "com.fasterxml.jackson.annotation.";
+    private static final String JACKSON_DATABIND_ANNOTATION_PACKAGE =
+        "com.fasterxml.jackson.databind.annotation.";
+    private static final String LOMBOK_PACKAGE = "lombok.";
+
+    private final AnnotationIndex annotations;
+
+    JsonCodecGenerator(AnnotationIndex annotations) {
+        this.annotations = annotations;
+    }
+
+    /**
+     * 判断类型是否可以生成编解码器：非参数化的类或 record
+     *
+     * @param typeMirror
+     * @return
+     */
+    static boolean isSupported(TypeMirror typeMirror) {
+        return typeMirror instanceof DeclaredType d
+            && d.getTypeArguments().isEmpty()
+            && (d.asElement().getKind() == ElementKind.CLASS
+            || d.asElement().getKind() == ElementKind.RECORD);
+    }
+
+    /**
+     * 编解码器无法还原的 Jackson 注解，如 {@code @JsonFormat}、{@code @JsonNaming}、{@code @JsonInclude}；
+     * 存在时整个类型交给 ObjectMapper 处理，避免与已有数据的格式不一致
+     * <p>
+     * 只支持属性上的 {@code @JsonIgnore} 与只指定 value 的 {@code @JsonProperty}，以及类上只指定 ignoreUnknown 的
+     * {@code @JsonIgnoreProperties}
+     *
+     * @param typeElement
+     * @return 第一个不支持的注解及其位置，全部支持时为 empty
+     */
+    Optional<String> unsupportedAnnotation(TypeElement typeElement) {
+        for (TypeElement type : hierarchy(typeElement)) {
+            Optional<String> unsupported = unsupportedAnnotation(type, true);
+            if (unsupported.isPresent()) {
+                return unsupported;
+            }
+            for (Element enclosed : type.getEnclosedElements()) {
+                unsupported = unsupportedAnnotation(enclosed, false);
+                if (unsupported.isEmpty() && enclosed instanceof ExecutableElement executable) {
+                    // @JsonCreator 构造函数的参数
+                    unsupported = executable.getParameters().stream()
+                        .map(parameter -> unsupportedAnnotation(parameter, false))
+                        .flatMap(Optional::stream)
+                        .findFirst();
+                }
+                if (unsupported.isPresent()) {
+                    return unsupported;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 编解码器通过无参构造函数与 setter 创建对象、通过 getter 读取属性，缺少其中之一时返回说明，由 ObjectMapper 处理；
+     * 源码中未出现的成员以 Lombok 注解推断，如 {@code @Data}、{@code @Value}、{@code @NoArgsConstructor}
+     *
+     * @param typeElement  非参数化的类或 record
+     * @param codecPackage 编解码器所在的包，用于判断包级私有成员是否可以访问
+     * @return 第一个缺少的成员，全部满足时为 empty
+     */
+    Optional<String> missingMember(TypeElement typeElement, String codecPackage) {
+        if (typeElement.getKind() == ElementKind.RECORD) {
+            return Optional.empty();
+        }
+        if (typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+            return Optional.of("abstract class " + typeElement.getSimpleName());
+        }
+        if (typeElement.getEnclosingElement() instanceof TypeElement
+            && !typeElement.getModifiers().contains(Modifier.STATIC)) {
+            return Optional.of("inner class " + typeElement.getSimpleName());
+        }
+        if (!hasNoArgsConstructor(typeElement, codecPackage)) {
+            return Optional.of("no accessible no-args constructor in "
+                + typeElement.getSimpleName());
+        }
+        for (TypeElement type : hierarchy(typeElement)) {
+            for (Element enclosed : type.getEnclosedElements()) {
+                if (enclosed.getKind() != ElementKind.FIELD
+                    || enclosed.getModifiers().contains(Modifier.STATIC)
+                    || enclosed.getModifiers().contains(Modifier.TRANSIENT)
+                    || annotations.has(enclosed, JACKSON_ANNOTATION_PACKAGE + "JsonIgnore")) {
+                    continue;
+                }
+                boolean isFinal = enclosed.getModifiers().contains(Modifier.FINAL)
+                    || annotations.has(type, LOMBOK_PACKAGE + "Value");
+                if (enclosed.getModifiers().contains(PUBLIC) && !isFinal) {
+                    continue;
+                }
+                String name = enclosed.getSimpleName().toString();
+                String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+                String getter = (enclosed.asType().getKind() == TypeKind.BOOLEAN ? "is" : "get")
+                    + capitalized;
+                if (!hasMethod(typeElement, getter, 0, codecPackage)
+                    && !lombokAccessor(type, enclosed, "Getter", codecPackage)) {
+                    return Optional.of("no accessible " + getter + "() for " + name);
+                }
+                // Lombok 不会为 final 字段生成 setter
+                if (isFinal || !hasMethod(typeElement, "set" + capitalized, 1, codecPackage)
+                    && !lombokAccessor(type, enclosed, "Setter", codecPackage)) {
+                    return Optional.of("no accessible set" + capitalized + "() for " + name);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean hasNoArgsConstructor(TypeElement typeElement, String codecPackage) {
+        Optional<AnnotationIndex.IndexedAnnotation> noArgsConstructor = annotations.get(
+            typeElement, LOMBOK_PACKAGE + "NoArgsConstructor");
+        if (noArgsConstructor.isPresent()) {
+            return accessible(noArgsConstructor.get().getEnum("access").orElse("PUBLIC"),
+                typeElement, codecPackage);
+        }
+        // 这些注解生成的构造函数会取代默认构造函数
+        if (Stream.of("Value", "AllArgsConstructor", "RequiredArgsConstructor", "Builder",
+                "experimental.SuperBuilder")
+            .anyMatch(name -> annotations.has(typeElement, LOMBOK_PACKAGE + name))) {
+            return false;
+        }
+        // 未声明构造函数时，默认构造函数同样会出现在元素中
+        return typeElement.getEnclosedElements().stream()
+            .filter(e -> e.getKind() == ElementKind.CONSTRUCTOR)
+            .map(ExecutableElement.class::cast)
+            .anyMatch(c -> c.getParameters().isEmpty() && accessible(c, codecPackage));
+    }
+
+    private boolean hasMethod(TypeElement typeElement, String name, int parameterCount,
+        String codecPackage) {
+        return hierarchy(typeElement).stream()
+            .flatMap(type -> type.getEnclosedElements().stream())
+            .filter(e -> e.getKind() == ElementKind.METHOD
+                && e.getSimpleName().contentEquals(name)
+                && !e.getModifiers().contains(Modifier.STATIC))
+            .map(ExecutableElement.class::cast)
+            .anyMatch(m -> m.getParameters().size() == parameterCount
+                && accessible(m, codecPackage));
+    }
+
+    /**
+     * 字段或其所在的类上的 Lombok 注解是否会生成可以访问的 getter / setter，字段上的注解优先
+     *
+     * @param type
+     * @param field
+     * @param kind         Getter 或 Setter
+     * @param codecPackage
+     * @return
+     */
+    private boolean lombokAccessor(TypeElement type, Element field, String kind,
+        String codecPackage) {
+        // fluent 或 prefix 改变了方法名
+        boolean renamed = Stream.of(field, type)
+            .map(e -> annotations.get(e, LOMBOK_PACKAGE + "experimental.Accessors"))
+            .flatMap(Optional::stream)
+            .anyMatch(a -> a.getBoolean("fluent", false)
+                || !a.getStringArray("prefix").isEmpty());
+        if (renamed) {
+            return false;
+        }
+        Optional<AnnotationIndex.IndexedAnnotation> accessor = annotations.get(field,
+                LOMBOK_PACKAGE + kind)
+            .or(() -> annotations.get(type, LOMBOK_PACKAGE + kind));
+        if (accessor.isPresent()) {
+            return accessible(accessor.get().getEnum("value").orElse("PUBLIC"), type,
+                codecPackage);
+        }
+        return annotations.has(type, LOMBOK_PACKAGE + "Data")
+            || kind.equals("Getter") && annotations.has(type, LOMBOK_PACKAGE + "Value");
+    }
+
+    private static boolean accessible(Element member, String codecPackage) {
+        Set<Modifier> modifiers = member.getModifiers();
+        return modifiers.contains(PUBLIC)
+            || !modifiers.contains(Modifier.PRIVATE)
+            && packageOf(member).equals(codecPackage);
+    }
+
+    /**
+     * @param accessLevel  Lombok AccessLevel 的常量名
+     * @param type
+     * @param codecPackage
+     * @return
+     */
+    private static boolean accessible(String accessLevel, TypeElement type, String codecPackage) {
+        return switch (accessLevel) {
+            case "PUBLIC" -> true;
+            case "PACKAGE", "PROTECTED" -> packageOf(type).equals(codecPackage);
+            default -> false;
+        };
+    }
+
+    private static String packageOf(Element element) {
+        Element current = element;
+        while (!(current instanceof PackageElement)) {
+            current = current.getEnclosingElement();
+        }
+        return ((PackageElement) current).getQualifiedName().toString();
+    }
+
+    private Optional<String> unsupportedAnnotation(Element element, boolean typeLevel) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            String annotationName = ((TypeElement) mirror.getAnnotationType().asElement())
+                .getQualifiedName().toString();
+            if (!isJacksonAnnotation(annotationName)) {
+                continue;
+            }
+            Set<String> explicit = mirror.getElementValues().keySet().stream()
+                .map(e -> e.getSimpleName().toString())
+                .collect(Collectors.toSet());
+            boolean supported = typeLevel
+                ? annotationName.equals(JACKSON_ANNOTATION_PACKAGE + "JsonIgnoreProperties")
+                && Set.of("ignoreUnknown").containsAll(explicit)
+                : annotationName.equals(JACKSON_ANNOTATION_PACKAGE + "JsonIgnore")
+                    || annotationName.equals(JACKSON_ANNOTATION_PACKAGE + "JsonProperty")
+                    && Set.of("value").containsAll(explicit);
+            if (!supported) {
+                return Optional.of("@" + mirror.getAnnotationType().asElement().getSimpleName()
+                    + " on " + element.getSimpleName());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isJacksonAnnotation(String annotationName) {
+        return annotationName.startsWith(JACKSON_ANNOTATION_PACKAGE)
+            || annotationName.startsWith(JACKSON_DATABIND_ANNOTATION_PACKAGE);
+    }
+
+    /**
+     * 枚举或其常量、方法上是否有 Jackson 注解，如 {@code @JsonValue}、{@code @JsonProperty}、{@code @JsonCreator}
+     *
+     * @param enumElement
+     * @return
+     */
+    private static boolean isJacksonAnnotated(TypeElement enumElement) {
+        return Stream.concat(Stream.of(enumElement), enumElement.getEnclosedElements().stream())
+            .flatMap(e -> e.getAnnotationMirrors().stream())
+            .map(mirror -> ((TypeElement) mirror.getAnnotationType().asElement())
+                .getQualifiedName().toString())
+            .anyMatch(JsonCodecGenerator::isJacksonAnnotation);
+    }
+
+    /**
+     * 类型及其父类，父类在前
+     *
+     * @param typeElement
+     * @return
+     */
+    private static List<TypeElement> hierarchy(TypeElement typeElement) {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        TypeElement current = typeElement;
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            hierarchy.add(0, current);
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED
+                ? (TypeElement) ((DeclaredType) superclass).asElement()
+                : null;
+        }
+        return hierarchy;
+    }
+
+    /**
+     * 生成编解码器
+     *
+     * @param codecClassName
+     * @param typeElement
+     * @param nestedCodecResolver 为属性类型查找已生成的编解码器
+     * @return
+     */
+    TypeSpec generate(ClassName codecClassName, TypeElement typeElement,
+        Function<TypeMirror, Optional<ClassName>> nestedCodecResolver) {
+        boolean isRecord = typeElement.getKind() == ElementKind.RECORD;
+        List<Property> properties = collectProperties(typeElement, isRecord, nestedCodecResolver);
+
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(codecClassName)
+            .addJavadoc("$T 的流式编解码器，由属性定义在编译期生成，不依赖反射\n",
+                ClassName.get(typeElement))
+            .addModifiers(PUBLIC, Modifier.FINAL)
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .build());
+        // 预先编码属性名
+        for (Property property : properties) {
+            if (property.kind() == Kind.IGNORED) {
+                continue;
+            }
+            typeBuilder.addField(FieldSpec.builder(SERIALIZED_STRING_CLASS_NAME,
+                    property.constantName(), Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T($S)", SERIALIZED_STRING_CLASS_NAME, property.jsonName())
+                .build());
+            if (property.kind() == Kind.GENERIC_FALLBACK) {
+                TypeName propertyType = TypeName.get(property.type());
+                typeBuilder.addField(FieldSpec.builder(
+                        ParameterizedTypeName.get(TYPE_REFERENCE_CLASS_NAME, propertyType),
+                        property.constantName() + "_TYPE",
+                        Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("new $T<$T>() {}", TYPE_REFERENCE_CLASS_NAME, propertyType)
+                    .build());
+            }
+        }
+        return typeBuilder
+            .addMethod(writeMethod(typeElement, properties))
+            .addMethod(readMethod(typeElement, properties, isRecord))
+            .build();
+    }
+
+    private List<Property> collectProperties(TypeElement typeElement, boolean isRecord,
+        Function<TypeMirror, Optional<ClassName>> nestedCodecResolver) {
+        List<Property> properties = new ArrayList<>();
+        if (isRecord) {
+            for (RecordComponentElement component : typeElement.getRecordComponents()) {
+                String name = component.getSimpleName().toString();
+                // 组件上的 Jackson 注解会传播到同名的字段上
+                Element annotated = typeElement.getEnclosedElements().stream()
+                    .filter(e -> e.getKind() == ElementKind.FIELD
+                        && e.getSimpleName().contentEquals(name))
+                    .<Element>map(e -> e)
+                    .findFirst()
+                    .orElse(component);
+                Property property = property(annotated, name, component.asType(),
+                    name + "()", null, nestedCodecResolver);
+                // 忽略的属性仍需以默认值传入构造函数
+                properties.add(Objects.nonNull(property) ? property
+                    : new Property(name, name, null, component.asType(), Kind.IGNORED,
+                        null, null, null));
+            }
+            return properties;
+        }
+        // 父类属性在前
+        for (TypeElement type : hierarchy(typeElement)) {
+            for (Element enclosed : type.getEnclosedElements()) {
+                if (enclosed.getKind() != ElementKind.FIELD
+                    || enclosed.getModifiers().contains(Modifier.STATIC)
+                    || enclosed.getModifiers().contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                VariableElement field = (VariableElement) enclosed;
+                String name = field.getSimpleName().toString();
+                String accessor;
+                String mutator;
+                if (field.getModifiers().contains(PUBLIC)) {
+                    accessor = name;
+                    mutator = name;
+                } else {
+                    // getter / setter 已由 missingMember 检查，通常由 Lombok 生成
+                    String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+                    accessor = (field.asType().getKind() == TypeKind.BOOLEAN ? "is" : "get")
+                        + capitalized + "()";
+                    mutator = "set" + capitalized;
+                }
+                if (field.getModifiers().contains(Modifier.FINAL)) {
+                    mutator = null;
+                }
+                Property property = property(field, name, field.asType(), accessor, mutator,
+                    nestedCodecResolver);
+                if (Objects.nonNull(property)) {
+                    properties.add(property);
+                }
+            }
+        }
+        return properties;
+    }
+
+    private Property property(Element element, String name, TypeMirror type, String accessor,
+        String mutator, Function<TypeMirror, Optional<ClassName>> nestedCodecResolver) {
+        if (annotations.has(element, "com.fasterxml.jackson.annotation.JsonIgnore")) {
+            return null;
+        }
+        String jsonName = annotations.get(element, "com.fasterxml.jackson.annotation.JsonProperty")
+            .flatMap(a -> a.getString("value"))
+            .orElse(name);
+        Optional<ClassName> nestedCodec = nestedCodecResolver.apply(type);
+        Kind kind = nestedCodec.isPresent() ? Kind.NESTED_CODEC : kindOf(type);
+        return new Property(name, jsonName,
+            "NAME_" + name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(),
+            type, kind, accessor, mutator, nestedCodec.orElse(null));
+    }
+
+    private Kind kindOf(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.getKind() == TypeKind.CHAR ? Kind.FALLBACK : Kind.PRIMITIVE;
+        }
+        if (!(type instanceof DeclaredType declaredType)) {
+            return Kind.FALLBACK;
+        }
+        if (!declaredType.getTypeArguments().isEmpty()) {
+            return Kind.GENERIC_FALLBACK;
+        }
+        TypeElement element = (TypeElement) declaredType.asElement();
+        if (element.getKind() == ElementKind.ENUM) {
+            // 使用 Jackson 注解的枚举交给 ObjectMapper，与 name() / valueOf 的结果不同
+            return isJacksonAnnotated(element) ? Kind.FALLBACK : Kind.ENUM;
+        }
+        String qualifiedName = element.getQualifiedName().toString();
+        return switch (qualifiedName) {
+            case "java.lang.String" -> Kind.STRING;
+            case "java.lang.Boolean", "java.lang.Byte", "java.lang.Short", "java.lang.Integer",
+                 "java.lang.Long", "java.lang.Float", "java.lang.Double" -> Kind.BOXED;
+            case "java.math.BigDecimal", "java.math.BigInteger" -> Kind.BIG_NUMBER;
+            // java.time 等类型的格式取决于 ObjectMapper 的配置
+            default -> Kind.FALLBACK;
+        };
+    }
+
+    private MethodSpec writeMethod(TypeElement typeElement, List<Property> properties) {
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("write")
+            .addModifiers(PUBLIC, Modifier.STATIC)
+            .addParameter(JSON_GENERATOR_CLASS_NAME, "generator")
+            .addParameter(TypeName.get(typeElement.asType()), "value")
+            .addException(IOException.class)
+            .beginControlFlow("if (value == null)")
+            .addStatement("generator.writeNull()")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("generator.writeStartObject()");
+        for (Property property : properties) {
+            if (property.kind() == Kind.IGNORED) {
+                continue;
+            }
+            String getter = "value." + property.accessor();
+            methodBuilder.addStatement("generator.writeFieldName($L)", property.constantName());
+            methodBuilder.addCode(writeValue(property, getter));
+        }
+        return methodBuilder
+            .addStatement("generator.writeEndObject()")
+            .build();
+    }
+
+    private CodeBlock writeValue(Property property, String getter) {
+        CodeBlock.Builder code = CodeBlock.builder();
+        switch (property.kind()) {
+            case PRIMITIVE -> {
+                if (property.type().getKind() == TypeKind.BOOLEAN) {
+                    code.addStatement("generator.writeBoolean($L)", getter);
+                } else {
+                    code.addStatement("generator.writeNumber($L)", getter);
+                }
+                return code.build();
+            }
+            case NESTED_CODEC -> {
+                return code.addStatement("$T.write(generator, $L)", property.nestedCodec(), getter)
+                    .build();
+            }
+            case FALLBACK, GENERIC_FALLBACK -> {
+                return code.addStatement("generator.writeObject($L)", getter).build();
+            }
+            default -> {
+                // 其余类型先判空
+            }
+        }
+        String local = property.name() + "Value";
+        code.addStatement("$T $L = $L", TypeName.get(property.type()), local, getter)
+            .beginControlFlow("if ($L == null)", local)
+            .addStatement("generator.writeNull()")
+            .nextControlFlow("else");
+        switch (property.kind()) {
+            case STRING -> code.addStatement("generator.writeString($L)", local);
+            case BOXED -> {
+                if (((DeclaredType) property.type()).asElement().getSimpleName()
+                    .contentEquals("Boolean")) {
+                    code.addStatement("generator.writeBoolean($L)", local);
+                } else {
+                    code.addStatement("generator.writeNumber($L)", local);
+                }
+            }
+            case BIG_NUMBER -> code.addStatement("generator.writeNumber($L)", local);
+            case ENUM -> code.addStatement("generator.writeString($L.name())", local);
+            default -> throw new IllegalStateException(property.kind().name());
+        }
+        return code.endControlFlow().build();
+    }
+
+    private MethodSpec readMethod(TypeElement typeElement, List<Property> properties,
+        boolean isRecord) {
+        TypeName valueType = TypeName.get(typeElement.asType());
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("read")
+            .addJavadoc("从 parser 的当前 token 开始读取一个对象\n")
+            .addModifiers(PUBLIC, Modifier.STATIC)
+            .addParameter(JSON_PARSER_CLASS_NAME, "parser")
+            .addException(IOException.class)
+            .returns(valueType)
+            .beginControlFlow("if (parser.currentToken() == $T.VALUE_NULL)",
+                JSON_TOKEN_CLASS_NAME)
+            .addStatement("return null")
+            .endControlFlow()
+            .beginControlFlow("if (parser.currentToken() != $T.START_OBJECT)",
+                JSON_TOKEN_CLASS_NAME)
+            .addStatement("throw new $T(parser, $S + parser.currentToken())",
+                ClassName.get("com.fasterxml.jackson.core", "JsonParseException"),
+                "Expected START_OBJECT for " + typeElement.getSimpleName() + " but got ")
+            .endControlFlow();
+        if (isRecord) {
+            for (Property property : properties) {
+                methodBuilder.addStatement("$T $LValue = $L", TypeName.get(property.type()),
+                    property.name(), defaultValue(property.type()));
+            }
+        } else {
+            methodBuilder.addStatement("$T value = new $T()", valueType, valueType);
+        }
+        methodBuilder.beginControlFlow("while (parser.nextToken() == $T.FIELD_NAME)",
+                JSON_TOKEN_CLASS_NAME)
+            .addStatement("$T fieldName = parser.currentName()", String.class)
+            .addStatement("parser.nextToken()")
+            .beginControlFlow("switch (fieldName)");
+        for (Property property : properties) {
+            if (property.kind() == Kind.IGNORED || (!isRecord && property.mutator() == null)) {
+                continue;
+            }
+            CodeBlock readValue = readValue(property);
+            methodBuilder.addCode("case $S:\n", property.jsonName()).addCode("$>");
+            if (isRecord) {
+                methodBuilder.addStatement("$LValue = $L", property.name(), readValue);
+            } else if (property.mutator().equals(property.name())) {
+                methodBuilder.addStatement("value.$L = $L", property.name(), readValue);
+            } else {
+                methodBuilder.addStatement("value.$L($L)", property.mutator(), readValue);
+            }
+            methodBuilder.addStatement("break").addCode("$<");
+        }
+        methodBuilder.addCode("default:\n").addCode("$>")
+            .addStatement("parser.skipChildren()")
+            .addCode("$<")
+            .endControlFlow()
+            .endControlFlow();
+        if (isRecord) {
+            methodBuilder.addStatement("return new $T($L)", valueType,
+                String.join(", ", properties.stream().map(p -> p.name() + "Value").toList()));
+        } else {
+            methodBuilder.addStatement("return value");
+        }
+        return methodBuilder.build();
+    }
+
+    private CodeBlock readValue(Property property) {
+        TypeMirror type = property.type();
+        CodeBlock nullCheck = CodeBlock.of("parser.currentToken() == $T.VALUE_NULL ? null : ",
+            JSON_TOKEN_CLASS_NAME);
+        return switch (property.kind()) {
+            case PRIMITIVE -> switch (type.getKind()) {
+                case BOOLEAN -> CodeBlock.of("parser.getValueAsBoolean()");
+                case BYTE -> CodeBlock.of("(byte) parser.getValueAsInt()");
+                case SHORT -> CodeBlock.of("(short) parser.getValueAsInt()");
+                case INT -> CodeBlock.of("parser.getValueAsInt()");
+                case LONG -> CodeBlock.of("parser.getValueAsLong()");
+                case FLOAT -> CodeBlock.of("(float) parser.getValueAsDouble()");
+                case DOUBLE -> CodeBlock.of("parser.getValueAsDouble()");
+                default -> throw new IllegalStateException(type.getKind().name());
+            };
+            case BOXED -> {
+                String simpleName = ((DeclaredType) type).asElement().getSimpleName().toString();
+                CodeBlock value = switch (simpleName) {
+                    case "Boolean" -> CodeBlock.of("$T.valueOf(parser.getValueAsBoolean())",
+                        Boolean.class);
+                    case "Byte" -> CodeBlock.of("$T.valueOf((byte) parser.getValueAsInt())",
+                        Byte.class);
+                    case "Short" -> CodeBlock.of("$T.valueOf((short) parser.getValueAsInt())",
+                        Short.class);
+                    case "Integer" -> CodeBlock.of("$T.valueOf(parser.getValueAsInt())",
+                        Integer.class);
+                    case "Long" -> CodeBlock.of("$T.valueOf(parser.getValueAsLong())", Long.class);
+                    case "Float" -> CodeBlock.of("$T.valueOf((float) parser.getValueAsDouble())",
+                        Float.class);
+                    default -> CodeBlock.of("$T.valueOf(parser.getValueAsDouble())",
+                        Double.class);
+                };
+                yield CodeBlock.of("$L$L", nullCheck, value);
+            }
+            case STRING -> CodeBlock.of("parser.getValueAsString()");
+            case BIG_NUMBER -> CodeBlock.of("$Lnew $T(parser.getText())", nullCheck,
+                ((DeclaredType) type).asElement().getSimpleName().contentEquals("BigDecimal")
+                    ? BigDecimal.class : BigInteger.class);
+            case ENUM -> CodeBlock.of("$L$T.valueOf(parser.getText())", nullCheck,
+                TypeName.get(type));
+            case NESTED_CODEC -> CodeBlock.of("$T.read(parser)", property.nestedCodec());
+            case GENERIC_FALLBACK -> CodeBlock.of("parser.readValueAs($L_TYPE)",
+                property.constantName());
+            case FALLBACK -> CodeBlock.of("parser.readValueAs($T.class)",
+                TypeName.get(type).box());
+            case IGNORED -> throw new IllegalStateException(property.kind().name());
+        };
+    }
+
+    private String defaultValue(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "false";
+            case BYTE, SHORT, INT, CHAR -> "0";
+            case LONG -> "0L";
+            case FLOAT -> "0F";
+            case DOUBLE -> "0D";
+            default -> "null";
+        };
+    }
+
+    private enum Kind {
+        PRIMITIVE,
+        BOXED,
+        STRING,
+        BIG_NUMBER,
+        ENUM,
+        NESTED_CODEC,
+        GENERIC_FALLBACK,
+        FALLBACK,
+        IGNORED
+    }
+
+    /**
+     * @param name         Java 属性名
+     * @param jsonName     JSON 属性名
+     * @param constantName 预编码属性名的常量名
+     * @param type         属性类型
+     * @param kind         读写方式
+     * @param accessor     读取属性的表达式，相对于实例
+     * @param mutator      写入属性的 setter 或字段名，为 null 时不读取
+     * @param nestedCodec  属性类型对应的编解码器
+     */
+    private record Property(String name, String jsonName, String constantName, TypeMirror type,
+                            Kind kind, String accessor, String mutator, ClassName nestedCodec) {
+
+    }
+}
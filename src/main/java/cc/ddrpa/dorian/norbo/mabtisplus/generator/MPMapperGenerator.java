@@ -0,0 +1,368 @@
+package cc.ddrpa.dorian.norbo.mabtisplus.generator;
+
+import static javax.lang.model.element.Modifier.ABSTRACT;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPRepository;
+import cc.ddrpa.dorian.norbo.model.ColumnModel;
+import cc.ddrpa.dorian.norbo.model.EntityModel;
+import cc.ddrpa.dorian.norbo.processor.Generator;
+import cc.ddrpa.dorian.norbo.processor.GeneratorContext;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.tools.Diagnostic;
+
+/**
+ * 为 {@code @MPMapper} 修饰的实体类生成 Mapper
+ */
+public class MPMapperGenerator implements Generator {
+
+    private static final ClassName INSERT_CLASS_NAME = ClassName.get(
+        "org.apache.ibatis.annotations", "Insert");
+    private static final ClassName OPTIONS_CLASS_NAME = ClassName.get(
+        "org.apache.ibatis.annotations", "Options");
+    private static final ClassName WRAPPER_CLASS_NAME = ClassName.get(
+        "com.baomidou.mybatisplus.core.conditions", "Wrapper");
+    /**
+     * 与 {@code Constants.WRAPPER} 一致，{@code ${ew.customSqlSegment}} 等片段依赖该参数名
+     */
+    private static final String WRAPPER_PARAM_NAME = "ew";
+    /**
+     * upsert 冲突时在原值上加一的版本列类型
+     */
+    private static final Set<TypeName> NUMERIC_VERSION_TYPES = Set.of(
+        TypeName.INT.box(), TypeName.LONG.box());
+
+    @Override
+    public void generate(GeneratorContext context) {
+        for (EntityModel entity : context.entities()) {
+            MPRepository repository = entity.repository();
+            boolean batchInsert = Objects.nonNull(repository) && repository.batchInsert();
+            MPRepository.Dialect upsert = Objects.nonNull(repository) ? repository.upsert()
+                : MPRepository.Dialect.NONE;
+            if (Objects.isNull(entity.mapper())) {
+                if (batchInsert || upsert != MPRepository.Dialect.NONE) {
+                    context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Batch insert and upsert require @MPMapper", entity.element());
+                }
+                continue;
+            }
+            ClassName classType = entity.mapperClassName();
+
+            TypeSpec.Builder typeBuilder = TypeSpec.interfaceBuilder(classType)
+                .addOriginatingElement(entity.element())
+                .addAnnotation(ClassName.get("org.apache.ibatis.annotations", "Mapper"))
+                .addModifiers(PUBLIC)
+                .addSuperinterface(ParameterizedTypeName.get(
+                    ClassName.get("com.baomidou.mybatisplus.core.mapper", "BaseMapper"),
+                    entity.entityClassName()));
+            for (ColumnModel column : entity.columns()) {
+                typeBuilder.addField(FieldSpec.builder(String.class, column.constantName(),
+                        PUBLIC, STATIC, FINAL)
+                    .addJavadoc("属性 {@code $L} 对应的列\n", column.propertyName())
+                    .initializer("$S", column.columnName())
+                    .build());
+            }
+            if (entity.mapper().stream()) {
+                int fetchSize = entity.mapper().fetchSize();
+                if (fetchSize < 0 && fetchSize != Integer.MIN_VALUE) {
+                    context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "fetchSize must not be negative, except Integer.MIN_VALUE for MySQL",
+                        entity.element());
+                }
+                typeBuilder.addMethod(streamByMethod(entity))
+                    .addMethod(forEachMethod(entity));
+            }
+            if (batchInsert) {
+                typeBuilder.addMethod(insertBatchMethod(entity));
+            }
+            if (upsert != MPRepository.Dialect.NONE) {
+                Optional<ColumnModel> idColumn = entity.idColumn();
+                if (idColumn.isEmpty()) {
+                    context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Upsert requires a primary key, annotate it with @TableId",
+                        entity.element());
+                } else {
+                    typeBuilder.addMethod(upsertBatchMethod(entity, idColumn.get(), upsert));
+                }
+            }
+            context.write(classType, typeBuilder.build(), entity.element());
+        }
+    }
+
+    /**
+     * 以 {@link org.apache.ibatis.cursor.Cursor} 返回查询结果，遍历时才从数据库读取
+     *
+     * @param entity
+     * @return
+     */
+    protected MethodSpec streamByMethod(EntityModel entity) {
+        return streamMethodBuilder(entity, "streamBy")
+            .addJavadoc("流式查询，结果集按 fetchSize 分批从数据库读取\n"
+                + "<p>\n"
+                + "游标只能在 SqlSession 打开期间遍历，在 Spring 中需要在事务内调用，使用完毕后关闭游标\n\n"
+                + "@param queryWrapper 查询条件，可以为 null\n"
+                + "@return\n")
+            .returns(ParameterizedTypeName.get(ClassName.get("org.apache.ibatis.cursor", "Cursor"),
+                entity.entityClassName()))
+            .build();
+    }
+
+    /**
+     * 以 {@link org.apache.ibatis.session.ResultHandler} 逐行回调查询结果，不需要事务
+     *
+     * @param entity
+     * @return
+     */
+    protected MethodSpec forEachMethod(EntityModel entity) {
+        MethodSpec.Builder methodBuilder = streamMethodBuilder(entity, "forEach")
+            .addJavadoc("流式查询，逐行回调 handler，已处理的行不会被保留\n\n"
+                + "@param queryWrapper 查询条件，可以为 null\n"
+                + "@param handler\n")
+            .addParameter(ParameterizedTypeName.get(
+                ClassName.get("org.apache.ibatis.session", "ResultHandler"),
+                entity.entityClassName()), "handler");
+        if (!entity.autoResultMap()) {
+            // 返回值为 void 时，MyBatis 通过 @ResultType 确定结果类型
+            methodBuilder.addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.apache.ibatis.annotations", "ResultType"))
+                .addMember("value", "$T.class", entity.entityClassName())
+                .build());
+        }
+        return methodBuilder.build();
+    }
+
+    private MethodSpec.Builder streamMethodBuilder(EntityModel entity, String methodName) {
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(methodName)
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.apache.ibatis.annotations", "Select"))
+                .addMember("value", "$S", script(selectStatement(entity)))
+                .build())
+            .addAnnotation(AnnotationSpec.builder(OPTIONS_CLASS_NAME)
+                .addMember("resultSetType", "$T.FORWARD_ONLY",
+                    ClassName.get("org.apache.ibatis.mapping", "ResultSetType"))
+                .addMember("fetchSize", "$L", entity.mapper().fetchSize() == Integer.MIN_VALUE
+                    ? "Integer.MIN_VALUE" : entity.mapper().fetchSize())
+                .build())
+            .addModifiers(PUBLIC, ABSTRACT)
+            .addParameter(ParameterSpec.builder(ParameterizedTypeName.get(WRAPPER_CLASS_NAME,
+                    entity.entityClassName()), "queryWrapper")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("org.apache.ibatis.annotations", "Param"))
+                    .addMember("value", "$S", WRAPPER_PARAM_NAME)
+                    .build())
+                .build());
+        if (entity.autoResultMap()) {
+            // 使用 MyBatis-Plus 生成的 ResultMap，TypeHandler 才会在查询时生效
+            methodBuilder.addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.apache.ibatis.annotations", "ResultMap"))
+                .addMember("value", "$S", "mybatis-plus_" + entity.entityClassName().simpleName())
+                .build());
+        }
+        return methodBuilder;
+    }
+
+    /**
+     * 与 MyBatis-Plus 的 selectList 等价的查询语句
+     * <p>
+     * 未指定 select 时查询 {@code select = false} 以外的列；逻辑删除实体只查询未删除的记录；
+     * 条件的拼接方式与 {@code AbstractMethod#sqlWhereEntityWrapper} 一致，包括以实体构造的 Wrapper 中的条件
+     *
+     * @param entity
+     * @return
+     */
+    protected String selectStatement(EntityModel entity) {
+        String columns = entity.columns().stream()
+            .filter(ColumnModel::select)
+            .map(column -> entity.autoResultMap()
+                || column.columnName().equals(column.propertyName())
+                ? column.columnName() : column.columnName() + " AS " + column.propertyName())
+            .collect(Collectors.joining(", "));
+        String ew = WRAPPER_PARAM_NAME;
+        String segment = ew + ".sqlSegment != null and " + ew + ".sqlSegment != ''";
+        String conditions = entityWhere(entity)
+            + "<if test=\"" + segment + " and " + ew + ".nonEmptyOfNormal\"> AND ${"
+            + ew + ".sqlSegment}</if>";
+        String orderOnly = "<if test=\"" + segment + " and " + ew + ".emptyOfNormal\"> ${"
+            + ew + ".sqlSegment}</if>";
+        String where = entity.logicDeleteColumn()
+            .map(column -> " <where>" + column.logicNotDeletedCondition()
+                + "<if test=\"" + ew + " != null\">" + conditions + orderOnly + "</if></where>")
+            .orElse(" <if test=\"" + ew + " != null\"><where>" + conditions + "</where>"
+                + orderOnly + "</if>");
+        return "SELECT <choose><when test=\"" + ew + " != null and " + ew
+            + ".sqlSelect != null\">${" + ew + ".sqlSelect}</when>"
+            + "<otherwise>" + columns + "</otherwise></choose>"
+            + " FROM " + entity.tableName() + where;
+    }
+
+    /**
+     * 以实体构造的 Wrapper（如 {@code new QueryWrapper<>(entity)}）中的条件，逻辑删除列除外
+     * <p>
+     * 与 MyBatis-Plus 一致，按 {@code @TableField} 的 whereStrategy 与 condition 生成；未指定 whereStrategy 时按
+     * {@code NOT_NULL} 处理，编译期无法得知全局配置中的 whereStrategy
+     *
+     * @param entity
+     * @return
+     */
+    protected String entityWhere(EntityModel entity) {
+        String prefix = WRAPPER_PARAM_NAME + ".entity";
+        StringBuilder builder = new StringBuilder("<if test=\"" + prefix + " != null\">");
+        entity.idColumn().ifPresent(idColumn -> builder.append("<if test=\"")
+            .append(prefix).append('.').append(idColumn.propertyName()).append(" != null\"> AND ")
+            .append(idColumn.columnName()).append("=#{").append(prefix).append('.')
+            .append(idColumn.propertyName()).append("}</if>"));
+        for (ColumnModel column : entity.columns()) {
+            if (column.id() || column.logicDelete() || "NEVER".equals(column.whereStrategy())) {
+                continue;
+            }
+            String condition = String.format(
+                Objects.requireNonNullElse(column.condition(), "%s=%s"),
+                column.columnName(), column.placeholder(prefix));
+            String property = prefix + "['" + column.propertyName() + "']";
+            switch (column.whereStrategy()) {
+                case "ALWAYS", "IGNORED" -> builder.append(" AND ").append(condition);
+                case "NOT_EMPTY" -> builder.append("<if test=\"").append(property)
+                    .append(" != null")
+                    .append(ClassName.get(String.class).equals(column.type())
+                        ? " and " + property + " != ''" : "")
+                    .append("\"> AND ").append(condition).append("</if>");
+                default -> builder.append("<if test=\"").append(property)
+                    .append(" != null\"> AND ").append(condition).append("</if>");
+            }
+        }
+        return builder.append("</if>").toString();
+    }
+
+    /**
+     * 多行 INSERT，由数据库生成的主键列不写入
+     *
+     * @param entity
+     * @return
+     */
+    protected MethodSpec insertBatchMethod(EntityModel entity) {
+        List<ColumnModel> columns = entity.columns().stream()
+            .filter(column -> !column.autoIncrement())
+            .toList();
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("insertBatch")
+            .addJavadoc("多行插入，一条 SQL 语句写入 list 中的所有实体\n\n"
+                + "@param list\n"
+                + "@return 影响的行数\n")
+            .addAnnotation(AnnotationSpec.builder(INSERT_CLASS_NAME)
+                .addMember("value", "$S", script(insertValues(entity, columns)))
+                .build())
+            .addModifiers(PUBLIC, ABSTRACT)
+            .addParameter(ParameterizedTypeName.get(ClassName.get(List.class),
+                entity.entityClassName()), "list")
+            .returns(int.class);
+        // 由数据库生成的主键通过 JDBC 回填到实体中
+        entity.idColumn()
+            .filter(ColumnModel::autoIncrement)
+            .ifPresent(idColumn -> methodBuilder.addAnnotation(AnnotationSpec.builder(OPTIONS_CLASS_NAME)
+                .addMember("useGeneratedKeys", "$L", true)
+                .addMember("keyProperty", "$S", idColumn.propertyName())
+                .addMember("keyColumn", "$S", idColumn.columnName())
+                .build()));
+        return methodBuilder.build();
+    }
+
+    /**
+     * 多行 upsert，主键冲突时以新值更新其他列
+     * <p>
+     * 冲突时不覆盖的列：
+     * <ul>
+     *     <li>{@code @Version} 列在原值上加一（数值类型），其他类型保持原值，避免绕过乐观锁</li>
+     *     <li>{@code @TableLogic} 列保持原值，upsert 不会恢复或删除已有记录</li>
+     *     <li>{@code FieldFill.INSERT} 列（如创建时间、创建人）保持原值</li>
+     * </ul>
+     * MySQL 使用 {@code VALUES(col)} 引用新值以兼容 5.7 与 MariaDB，该写法自 MySQL 8.0.20 起被标记为
+     * deprecated，执行时会产生 warning，但仍然可用
+     *
+     * @param entity
+     * @param idColumn
+     * @param dialect
+     * @return
+     */
+    protected MethodSpec upsertBatchMethod(EntityModel entity, ColumnModel idColumn,
+        MPRepository.Dialect dialect) {
+        // 主键冲突检测需要写入主键列
+        List<ColumnModel> columns = entity.columns();
+        List<String> assignments = new ArrayList<>();
+        for (ColumnModel column : columns) {
+            if (column.id() || column.logicDelete() || column.insertFill()) {
+                continue;
+            }
+            String name = column.columnName();
+            if (column.version()) {
+                if (NUMERIC_VERSION_TYPES.contains(column.type().box())) {
+                    String current = dialect == MPRepository.Dialect.POSTGRESQL
+                        ? entity.tableName() + "." + name : name;
+                    assignments.add(name + " = " + current + " + 1");
+                }
+                continue;
+            }
+            assignments.add(name + " = " + switch (dialect) {
+                case MYSQL -> "VALUES(" + name + ")";
+                case POSTGRESQL -> "EXCLUDED." + name;
+                case NONE -> throw new IllegalArgumentException(dialect.name());
+            });
+        }
+        String onConflict = switch (dialect) {
+            case MYSQL -> " ON DUPLICATE KEY UPDATE " + (assignments.isEmpty()
+                ? idColumn.columnName() + " = " + idColumn.columnName()
+                : String.join(", ", assignments));
+            case POSTGRESQL -> " ON CONFLICT (" + idColumn.columnName() + ") " + (
+                assignments.isEmpty() ? "DO NOTHING" : "DO UPDATE SET " + String.join(", ", assignments));
+            case NONE -> throw new IllegalArgumentException(dialect.name());
+        };
+        return MethodSpec.methodBuilder("upsertBatch")
+            .addJavadoc("多行 upsert，主键冲突时以 list 中的值更新已有记录，写入前需要设置主键\n"
+                + "<p>\n"
+                + "冲突时乐观锁版本列在原值上加一，逻辑删除列与插入时填充的列保持原值\n\n"
+                + "@param list\n"
+                + "@return 影响的行数，含义取决于数据库\n")
+            .addAnnotation(AnnotationSpec.builder(INSERT_CLASS_NAME)
+                .addMember("value", "$S", script(insertValues(entity, columns) + onConflict))
+                .build())
+            .addModifiers(PUBLIC, ABSTRACT)
+            .addParameter(ParameterizedTypeName.get(ClassName.get(List.class),
+                entity.entityClassName()), "list")
+            .returns(int.class)
+            .build();
+    }
+
+    /**
+     * {@code INSERT INTO table (columns) VALUES <foreach>(...)</foreach>}
+     *
+     * @param entity
+     * @param columns
+     * @return
+     */
+    protected String insertValues(EntityModel entity, List<ColumnModel> columns) {
+        return "INSERT INTO " + entity.tableName()
+            + " (" + columns.stream().map(ColumnModel::columnName)
+            .collect(Collectors.joining(", ")) + ") VALUES "
+            + "<foreach collection=\"list\" item=\"item\" separator=\",\">"
+            + "(" + columns.stream().map(column -> column.placeholder("item"))
+            .collect(Collectors.joining(", ")) + ")"
+            + "</foreach>";
+    }
+
+    protected String script(String sql) {
+        return "<script>" + sql + "</script>";
+    }
+}
@@ -0,0 +1,824 @@
+package cc.ddrpa.dorian.norbo.mabtisplus.generator;
+
+import static javax.lang.model.element.Modifier.PUBLIC;
+
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPRepository;
+import cc.ddrpa.dorian.norbo.model.ColumnModel;
+import cc.ddrpa.dorian.norbo.model.EntityModel;
+import cc.ddrpa.dorian.norbo.processor.Generator;
+import cc.ddrpa.dorian.norbo.processor.GeneratorContext;
+import cc.ddrpa.dorian.norbo.util.MeterUtils;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Modifier;
+import javax.tools.Diagnostic;
+
+/**
+ * 为 {@code @MPRepository} 修饰的实体类生成 Repository
+ */
+public class MPRepositoryGenerator implements Generator {
+
+    private static final ClassName TRANSACTIONAL_CLASS_NAME = ClassName.get(
+        "org.springframework.transaction.annotation", "Transactional");
+    private static final ClassName WRAPPER_CLASS_NAME = ClassName.get(
+        "com.baomidou.mybatisplus.core.conditions", "Wrapper");
+    private static final ClassName AUTOWIRED_CLASS_NAME = ClassName.get(
+        "org.springframework.beans.factory.annotation", "Autowired");
+    private static final ClassName QUALIFIER_CLASS_NAME = ClassName.get(
+        "org.springframework.beans.factory.annotation", "Qualifier");
+    private static final ClassName CACHE_CLASS_NAME = ClassName.get(
+        "com.github.benmanes.caffeine.cache", "Cache");
+    private static final ClassName CAFFEINE_CLASS_NAME = ClassName.get(
+        "com.github.benmanes.caffeine.cache", "Caffeine");
+    private static final ClassName CACHE_STATS_CLASS_NAME = ClassName.get(
+        "com.github.benmanes.caffeine.cache.stats", "CacheStats");
+    private static final ClassName UPDATE_CHAIN_WRAPPER_CLASS_NAME = ClassName.get(
+        "com.baomidou.mybatisplus.extension.conditions.update", "UpdateChainWrapper");
+    private static final ClassName LAMBDA_UPDATE_CHAIN_WRAPPER_CLASS_NAME = ClassName.get(
+        "com.baomidou.mybatisplus.extension.conditions.update", "LambdaUpdateChainWrapper");
+    private static final ClassName UPDATE_WRAPPER_CLASS_NAME = ClassName.get(
+        "com.baomidou.mybatisplus.core.conditions.update", "UpdateWrapper");
+    private static final ClassName LAMBDA_UPDATE_WRAPPER_CLASS_NAME = ClassName.get(
+        "com.baomidou.mybatisplus.core.conditions.update", "LambdaUpdateWrapper");
+    private static final ClassName TRANSACTION_SYNCHRONIZATION_CLASS_NAME = ClassName.get(
+        "org.springframework.transaction.support", "TransactionSynchronization");
+    private static final ClassName TRANSACTION_SYNCHRONIZATION_MANAGER_CLASS_NAME = ClassName.get(
+        "org.springframework.transaction.support", "TransactionSynchronizationManager");
+    /**
+     * 只读取进程内状态的方法，不生成埋点
+     */
+    private static final Set<String> NOT_INSTRUMENTED_METHODS = Set.of("cacheStats",
+        "invalidateCache");
+
+    @Override
+    public void generate(GeneratorContext context) {
+        for (EntityModel entity : context.entities()) {
+            MPRepository repository = entity.repository();
+            if (Objects.isNull(repository)) {
+                continue;
+            }
+            ClassName classType = entity.repositoryClassName();
+
+            TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(classType)
+                .addOriginatingElement(entity.element())
+                .addAnnotation(ClassName.get("org.springframework.stereotype", "Service"))
+                .addModifiers(PUBLIC)
+                .superclass(ParameterizedTypeName.get(
+                    ClassName.get("com.baomidou.mybatisplus.extension.service.impl", "ServiceImpl"),
+                    entity.mapperClassName(),
+                    entity.entityClassName()));
+
+            if (Objects.nonNull(entity.mapper()) && entity.mapper().stream()) {
+                typeBuilder.addMethod(forEachMethod(entity))
+                    .addMethod(forEachChunkMethod(entity));
+            }
+
+            boolean cache = repository.cache() && addCache(context, entity, typeBuilder);
+            if (repository.async()) {
+                addAsyncMethods(context, entity, typeBuilder);
+            }
+
+            // 批量写入方法依赖 Mapper 中生成的 SQL，缺少 @MPMapper 时由 MPMapperGenerator 报告错误
+            boolean batchInsert = repository.batchInsert();
+            boolean upsert = repository.upsert() != MPRepository.Dialect.NONE;
+            if (Objects.nonNull(entity.mapper()) && (batchInsert || upsert)) {
+                if (repository.batchSize() < 1) {
+                    context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "batchSize must be positive", entity.element());
+                }
+                typeBuilder.addField(FieldSpec.builder(int.class, "BATCH_SIZE",
+                            Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$L", repository.batchSize())
+                        .build())
+                    .addMethod(executeInChunksMethod(entity, repository.instrument()));
+                if (batchInsert) {
+                    typeBuilder.addMethods(batchMethods(entity, "insertBatch",
+                        "多行插入，每条 SQL 语句写入 batchSize 个实体", false));
+                }
+                if (upsert) {
+                    typeBuilder.addMethods(batchMethods(entity, "upsertBatch",
+                        "多行 upsert，主键冲突时更新已有记录，每条 SQL 语句写入 batchSize 个实体", cache));
+                }
+            }
+            if (repository.instrument()) {
+                instrument(entity, typeBuilder);
+            }
+            context.write(classType, typeBuilder.build(), entity.element());
+        }
+    }
+
+    /**
+     * 逐行处理查询结果，调用 Mapper 中生成的 forEach
+     *
+     * @param entity
+     * @return
+     */
+    protected MethodSpec forEachMethod(EntityModel entity) {
+        return MethodSpec.methodBuilder("forEach")
+            .addAnnotation(readOnlyTransactional())
+            .addJavadoc("流式查询并逐行处理，内存占用与结果集大小无关\n\n"
+                + "@param queryWrapper 查询条件，可以为 null\n"
+                + "@param action\n")
+            .addModifiers(PUBLIC)
+            .addParameter(ParameterizedTypeName.get(WRAPPER_CLASS_NAME,
+                entity.entityClassName()), "queryWrapper")
+            .addParameter(ParameterizedTypeName.get(ClassName.get(Consumer.class),
+                WildcardTypeName.supertypeOf(entity.entityClassName())), "action")
+            .addStatement("baseMapper.forEach(queryWrapper, "
+                + "context -> action.accept(context.getResultObject()))")
+            .build();
+    }
+
+    /**
+     * PostgreSQL 只在事务中按 fetchSize 分批读取，自动提交时会一次读入全部结果
+     *
+     * @return
+     */
+    private static AnnotationSpec readOnlyTransactional() {
+        return AnnotationSpec.builder(TRANSACTIONAL_CLASS_NAME)
+            .addMember("readOnly", "true")
+            .build();
+    }
+
+    /**
+     * 按块处理查询结果，适合批量写入其他存储的场景
+     *
+     * @param entity
+     * @return
+     */
+    protected MethodSpec forEachChunkMethod(EntityModel entity) {
+        TypeName listType = ParameterizedTypeName.get(ClassName.get(List.class),
+            entity.entityClassName());
+        return MethodSpec.methodBuilder("forEachChunk")
+            .addAnnotation(readOnlyTransactional())
+            .addJavadoc("流式查询并按块处理，每次回调最多 chunkSize 个实体\n"
+                + "<p>\n"
+                + "传入回调的列表会被复用，回调返回后不要继续持有\n\n"
+                + "@param queryWrapper 查询条件，可以为 null\n"
+                + "@param chunkSize\n"
+                + "@param action\n")
+            .addModifiers(PUBLIC)
+            .addParameter(ParameterizedTypeName.get(WRAPPER_CLASS_NAME,
+                entity.entityClassName()), "queryWrapper")
+            .addParameter(int.class, "chunkSize")
+            .addParameter(ParameterizedTypeName.get(ClassName.get(Consumer.class),
+                WildcardTypeName.supertypeOf(listType)), "action")
+            .beginControlFlow("if (chunkSize < 1)")
+            .addStatement("throw new $T($S + chunkSize)", IllegalArgumentException.class,
+                "chunkSize must be positive: ")
+            .endControlFlow()
+            .addStatement("$T chunk = new $T<>(chunkSize)", listType, ArrayList.class)
+            .addCode("baseMapper.forEach(queryWrapper, context -> {\n$>")
+            .addStatement("chunk.add(context.getResultObject())")
+            .beginControlFlow("if (chunk.size() >= chunkSize)")
+            .addStatement("action.accept(chunk)")
+            .addStatement("chunk.clear()")
+            .endControlFlow()
+            .addCode("$<});\n")
+            .beginControlFlow("if (!chunk.isEmpty())")
+            .addStatement("action.accept(chunk)")
+            .endControlFlow()
+            .build();
+    }
+
+    /**
+     * 返回 CompletableFuture 的异步方法，在指定的执行器或默认执行器中调用同名的同步方法
+     *
+     * @param context
+     * @param entity
+     * @param typeBuilder
+     */
+    protected void addAsyncMethods(GeneratorContext context, EntityModel entity,
+        TypeSpec.Builder typeBuilder) {
+        String executorBeanName = entity.repository().asyncExecutor();
+        String executor;
+        if (executorBeanName.isBlank()) {
+            executor = "ASYNC_EXECUTOR";
+            // 虚拟线程在 Java 21 中正式发布
+            CodeBlock initializer = context.getSourceVersion().ordinal() >= 21
+                ? CodeBlock.of("$T.newVirtualThreadPerTaskExecutor()", Executors.class)
+                : CodeBlock.builder()
+                    .add("$T.newCachedThreadPool(runnable -> {\n$>", Executors.class)
+                    .addStatement("$T thread = new $T(runnable, $S)", Thread.class, Thread.class,
+                        entity.repositoryClassName().simpleName() + "-async")
+                    .addStatement("thread.setDaemon(true)")
+                    .addStatement("return thread")
+                    .add("$<})")
+                    .build();
+            typeBuilder.addField(FieldSpec.builder(Executor.class, executor,
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(initializer)
+                .build());
+        } else {
+            executor = "asyncExecutor";
+            typeBuilder.addField(FieldSpec.builder(Executor.class, executor, Modifier.PRIVATE)
+                .addAnnotation(AUTOWIRED_CLASS_NAME)
+                .addAnnotation(AnnotationSpec.builder(QUALIFIER_CLASS_NAME)
+                    .addMember("value", "$S", executorBeanName)
+                    .build())
+                .build());
+        }
+        ClassName entityClassName = entity.entityClassName();
+        ClassName completableFuture = ClassName.get(CompletableFuture.class);
+        TypeName entitiesType = ParameterizedTypeName.get(ClassName.get(Collection.class),
+            entityClassName);
+        typeBuilder.addMethod(MethodSpec.methodBuilder("getByIdAsync")
+                .addJavadoc("在执行器中调用 {@code getById}\n\n"
+                    + "@param id\n"
+                    + "@return\n")
+                .addModifiers(PUBLIC)
+                .addParameter(Serializable.class, "id")
+                .returns(ParameterizedTypeName.get(completableFuture, entityClassName))
+                .addStatement("return $T.supplyAsync(() -> getById(id), $L)",
+                    CompletableFuture.class, executor)
+                .build())
+            .addMethod(MethodSpec.methodBuilder("listByIdsAsync")
+                .addJavadoc("在执行器中调用 {@code listByIds}\n\n"
+                    + "@param idList\n"
+                    + "@return\n")
+                .addModifiers(PUBLIC)
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                    WildcardTypeName.subtypeOf(Serializable.class)), "idList")
+                .returns(ParameterizedTypeName.get(completableFuture,
+                    ParameterizedTypeName.get(ClassName.get(List.class), entityClassName)))
+                .addStatement("return $T.supplyAsync(() -> listByIds(idList), $L)",
+                    CompletableFuture.class, executor)
+                .build())
+            .addMethod(MethodSpec.methodBuilder("saveBatchAsync")
+                .addJavadoc("在执行器中调用 {@code saveBatch}\n"
+                    + "<p>\n"
+                    + "不参与调用方的事务，调用返回前不要修改 entityList\n\n"
+                    + "@param entityList\n"
+                    + "@return\n")
+                .addModifiers(PUBLIC)
+                .addParameter(entitiesType, "entityList")
+                .returns(ParameterizedTypeName.get(completableFuture, ClassName.get(Boolean.class)))
+                .addStatement("return $T.supplyAsync(() -> saveBatch(entityList), $L)",
+                    CompletableFuture.class, executor)
+                .build());
+    }
+
+    /**
+     * 为常用的读写方法生成调用父类的覆盖方法，再为所有公开方法记录耗时，同名方法共享一个 Timer
+     * <p>
+     * 只调用同名重载方法的方法不再记录，避免重复计数
+     *
+     * @param entity
+     * @param typeBuilder
+     */
+    protected void instrument(EntityModel entity, TypeSpec.Builder typeBuilder) {
+        ClassName entityClassName = entity.entityClassName();
+        String repositoryName = entity.repositoryClassName().simpleName();
+        TypeName wrapperType = ParameterizedTypeName.get(WRAPPER_CLASS_NAME, entityClassName);
+        TypeName listType = ParameterizedTypeName.get(ClassName.get(List.class), entityClassName);
+        TypeVariableName pageType = TypeVariableName.get("P", ParameterizedTypeName.get(
+            ClassName.get("com.baomidou.mybatisplus.core.metadata", "IPage"), entityClassName));
+        List<MethodSpec> overrides = List.of(
+            superCallMethod("getById", entityClassName,
+                ParameterSpec.builder(Serializable.class, "id").build()),
+            superCallMethod("listByIds", listType,
+                ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                    WildcardTypeName.subtypeOf(Serializable.class)), "idList").build()),
+            superCallMethod("list", listType,
+                ParameterSpec.builder(wrapperType, "queryWrapper").build()),
+            superCallMethod("page", pageType,
+                ParameterSpec.builder(pageType, "page").build(),
+                ParameterSpec.builder(wrapperType, "queryWrapper").build())
+                .toBuilder()
+                .addTypeVariable(pageType)
+                .build(),
+            superCallMethod("count", TypeName.LONG,
+                ParameterSpec.builder(wrapperType, "queryWrapper").build()),
+            superCallMethod("save", TypeName.BOOLEAN,
+                ParameterSpec.builder(entityClassName, "entity").build()),
+            superCallMethod("saveBatch", TypeName.BOOLEAN,
+                ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                    entityClassName), "entityList").build(),
+                ParameterSpec.builder(int.class, "batchSize").build())
+                .toBuilder()
+                .addAnnotation(AnnotationSpec.builder(TRANSACTIONAL_CLASS_NAME)
+                    .addMember("rollbackFor", "$T.class", Exception.class)
+                    .build())
+                .build(),
+            superCallMethod("updateById", TypeName.BOOLEAN,
+                ParameterSpec.builder(entityClassName, "entity").build()),
+            superCallMethod("removeById", TypeName.BOOLEAN,
+                ParameterSpec.builder(Serializable.class, "id").build()));
+        for (MethodSpec override : overrides) {
+            // 开启缓存时已经覆盖了部分方法
+            boolean overridden = typeBuilder.methodSpecs.stream()
+                .anyMatch(method -> method.name.equals(override.name)
+                    && method.parameters.size() == override.parameters.size()
+                    && method.parameters.get(0).type.equals(override.parameters.get(0).type));
+            if (!overridden) {
+                typeBuilder.addMethod(override);
+            }
+        }
+        Set<String> timerFields = new HashSet<>();
+        typeBuilder.methodSpecs.replaceAll(method -> {
+            // 委托给重载方法的不重复计时；异步方法只耗费提交任务的时间，实际执行由同步方法计时
+            // 链式 update 只创建条件构造器，执行时才访问数据库
+            if (!method.modifiers.contains(PUBLIC) || method.modifiers.contains(Modifier.STATIC)
+                || method.returnType instanceof ParameterizedTypeName returnType
+                && (UPDATE_CHAIN_WRAPPER_CLASS_NAME.equals(returnType.rawType)
+                || LAMBDA_UPDATE_CHAIN_WRAPPER_CLASS_NAME.equals(returnType.rawType))
+                || method.code.toString().startsWith("return " + method.name + "(")
+                || method.name.endsWith("Async")
+                || NOT_INSTRUMENTED_METHODS.contains(method.name)) {
+                return method;
+            }
+            String timerField = MeterUtils.fieldName(method.name, "TIMER");
+            if (timerFields.add(timerField)) {
+                typeBuilder.addField(MeterUtils.timerField(timerField, "norbo.repository",
+                    "repository", repositoryName, "method", method.name));
+            }
+            return MeterUtils.timed(method, timerField);
+        });
+        if (typeBuilder.methodSpecs.stream()
+            .anyMatch(method -> method.name.equals("executeInChunks"))) {
+            typeBuilder.addField(MeterUtils.summaryField("BATCH_ROWS", "norbo.repository.rows",
+                "rows", "repository", repositoryName));
+        }
+    }
+
+    /**
+     * 直接调用父类同名方法的覆盖方法
+     *
+     * @param methodName
+     * @param returnType
+     * @param parameters
+     * @return
+     */
+    protected MethodSpec superCallMethod(String methodName, TypeName returnType,
+        ParameterSpec... parameters) {
+        return MethodSpec.methodBuilder(methodName)
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .addParameters(List.of(parameters))
+            .returns(returnType)
+            .addStatement("return super.$L($L)", methodName, Arrays.stream(parameters)
+                .map(parameter -> CodeBlock.of("$N", parameter))
+                .collect(CodeBlock.joining(", ")))
+            .build();
+    }
+
+    /**
+     * 按主键读取的缓存，写入后失效对应的缓存项
+     * <p>
+     * 读取时返回缓存中实体的浅拷贝，调用方修改返回的实体不会影响缓存；链式 update 在执行时失效全部缓存。
+     * {@code ktUpdate()} 依赖 Kotlin，无法在生成的代码中覆盖，通过它写入后需要调用 {@code invalidateCache()}
+     *
+     * @param context
+     * @param entity
+     * @param typeBuilder
+     * @return 实体缺少主键时报告错误并返回 false
+     */
+    protected boolean addCache(GeneratorContext context, EntityModel entity,
+        TypeSpec.Builder typeBuilder) {
+        MPRepository repository = entity.repository();
+        Optional<ColumnModel> idColumn = entity.idColumn();
+        if (idColumn.isEmpty()) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Repository cache requires a primary key, annotate it with @TableId",
+                entity.element());
+            return false;
+        }
+        if (repository.cacheMaximumSize() < 0 || repository.cacheExpireAfterWrite() < 0) {
+            context.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "cacheMaximumSize and cacheExpireAfterWrite must not be negative",
+                entity.element());
+        }
+        // 缓存的键只有主键，命中时不经过 SQL 拦截器
+        context.getMessager().printMessage(Diagnostic.Kind.WARNING,
+            "Repository cache is keyed by primary key only and cache hits bypass SQL "
+                + "interceptors, so tenant or data scope conditions are not applied; do not "
+                + "enable cache with tenant or data scope interceptors", entity.element());
+        ClassName entityClassName = entity.entityClassName();
+        TypeName cacheType = ParameterizedTypeName.get(CACHE_CLASS_NAME,
+            ClassName.get(String.class), entityClassName);
+        CodeBlock.Builder cacheInitializer = CodeBlock.builder()
+            .add("$T.newBuilder()\n$>$>", CAFFEINE_CLASS_NAME)
+            .add(".maximumSize($LL)\n", repository.cacheMaximumSize());
+        if (repository.cacheExpireAfterWrite() > 0) {
+            cacheInitializer.add(".expireAfterWrite($T.ofSeconds($LL))\n", Duration.class,
+                repository.cacheExpireAfterWrite());
+        }
+        cacheInitializer.add(".recordStats()\n")
+            .add(".build()$<$<");
+        TypeName entitiesType = ParameterizedTypeName.get(ClassName.get(Collection.class),
+            entityClassName);
+        TypeName idsType = ParameterizedTypeName.get(ClassName.get(Collection.class),
+            WildcardTypeName.subtypeOf(Object.class));
+        TypeName wrapperType = ParameterizedTypeName.get(WRAPPER_CLASS_NAME, entityClassName);
+        // 父类中的批量方法声明了 @Transactional，覆盖后需要重新声明
+        AnnotationSpec transactional = AnnotationSpec.builder(TRANSACTIONAL_CLASS_NAME)
+            .addMember("rollbackFor", "$T.class", Exception.class)
+            .build();
+        typeBuilder.addField(FieldSpec.builder(cacheType, "cache",
+                    Modifier.PRIVATE, Modifier.FINAL)
+                .initializer(cacheInitializer.build())
+                .build())
+            .addMethod(MethodSpec.methodBuilder("getById")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .addParameter(Serializable.class, "id")
+                .returns(entityClassName)
+                .addStatement("return copyOf(cache.get(cacheKey(id), key -> super.getById(id)))")
+                .build())
+            .addMethod(MethodSpec.methodBuilder("listByIds")
+                .addJavadoc("只查询缓存中不存在的主键，结果中不包含重复的实体\n\n"
+                    + "@param idList\n"
+                    + "@return\n")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                    WildcardTypeName.subtypeOf(Serializable.class)), "idList")
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), entityClassName))
+                .addStatement("$T<$T, $T> ids = new $T<>()", Map.class, String.class,
+                    Serializable.class, LinkedHashMap.class)
+                .beginControlFlow("for ($T id : idList)", Serializable.class)
+                .addStatement("ids.put(cacheKey(id), id)")
+                .endControlFlow()
+                .addStatement("return cache.getAll(ids.keySet(), keys -> super.listByIds(\n"
+                        + "keys.stream().map(ids::get).toList()).stream()\n"
+                        + ".collect($T.toMap(this::cacheKey, $T.identity()))).values().stream()\n"
+                        + ".map(this::copyOf)\n"
+                        + ".collect($T.toCollection($T::new))",
+                    Collectors.class, Function.class, Collectors.class, ArrayList.class)
+                .build())
+            .addMethod(evictingMethod("updateById",
+                CodeBlock.of("$T.singletonList(entity)", Collections.class),
+                ParameterSpec.builder(entityClassName, "entity").build()))
+            .addMethod(evictingMethod("updateBatchById", CodeBlock.of("entityList"),
+                    ParameterSpec.builder(entitiesType, "entityList").build(),
+                    ParameterSpec.builder(int.class, "batchSize").build())
+                .toBuilder()
+                .addAnnotation(transactional)
+                .build())
+            .addMethod(evictingMethod("saveOrUpdate",
+                CodeBlock.of("$T.singletonList(entity)", Collections.class),
+                ParameterSpec.builder(entityClassName, "entity").build()))
+            .addMethod(evictingMethod("saveOrUpdateBatch", CodeBlock.of("entityList"),
+                    ParameterSpec.builder(entitiesType, "entityList").build(),
+                    ParameterSpec.builder(int.class, "batchSize").build())
+                .toBuilder()
+                .addAnnotation(transactional)
+                .build())
+            .addMethod(evictingMethod("removeById",
+                CodeBlock.of("$T.singletonList(id)", Collections.class),
+                ParameterSpec.builder(Serializable.class, "id").build()))
+            .addMethod(evictingMethod("removeById",
+                CodeBlock.of("$T.singletonList(entity)", Collections.class),
+                ParameterSpec.builder(entityClassName, "entity").build()))
+            .addMethod(evictingMethod("removeByIds", CodeBlock.of("list"),
+                ParameterSpec.builder(idsType, "list").build()))
+            .addMethod(evictingMethod("removeByIds", CodeBlock.of("list"),
+                ParameterSpec.builder(idsType, "list").build(),
+                ParameterSpec.builder(boolean.class, "useFill").build()))
+            // 按条件写入时无法得知受影响的主键，失效全部缓存
+            .addMethod(evictingMethod("update", CodeBlock.of("null"),
+                ParameterSpec.builder(entityClassName, "entity").build(),
+                ParameterSpec.builder(wrapperType, "updateWrapper").build()))
+            .addMethod(evictingMethod("remove", CodeBlock.of("null"),
+                ParameterSpec.builder(wrapperType, "queryWrapper").build()))
+            .addMethod(evictingMethod("removeByMap", CodeBlock.of("null"),
+                ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Map.class),
+                    ClassName.get(String.class), ClassName.get(Object.class)), "columnMap").build()))
+            .addMethod(MethodSpec.methodBuilder("update")
+                .addJavadoc("链式更新，执行 update、remove 后失效全部缓存\n\n"
+                    + "@return\n")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(ParameterizedTypeName.get(UPDATE_CHAIN_WRAPPER_CLASS_NAME,
+                    entityClassName))
+                .addStatement("return $L", updateChainWrapper(entityClassName))
+                .build())
+            .addMethod(MethodSpec.methodBuilder("lambdaUpdate")
+                .addJavadoc("链式更新，执行 update、remove 后失效全部缓存\n\n"
+                    + "@return\n")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(ParameterizedTypeName.get(LAMBDA_UPDATE_CHAIN_WRAPPER_CLASS_NAME,
+                    entityClassName))
+                .addStatement("return evictingLambdaUpdate(new $T<>())",
+                    LAMBDA_UPDATE_WRAPPER_CLASS_NAME)
+                .build())
+            .addMethod(evictingLambdaUpdateMethod(entityClassName))
+            .addMethod(MethodSpec.methodBuilder("cacheStats")
+                .addJavadoc("缓存命中率、加载耗时与淘汰次数等统计\n\n"
+                    + "@return\n")
+                .addModifiers(PUBLIC)
+                .returns(CACHE_STATS_CLASS_NAME)
+                .addStatement("return cache.stats()")
+                .build())
+            .addMethod(MethodSpec.methodBuilder("invalidateCache")
+                .addJavadoc("清空缓存，绕过 Repository 修改数据后调用\n"
+                    + "<p>\n"
+                    + "包括直接调用 Mapper、执行 SQL，以及通过 {@code ktUpdate()} 写入\n")
+                .addModifiers(PUBLIC)
+                .addStatement("cache.invalidateAll()")
+                .build())
+            .addMethod(cacheKeyMethod(entity, idColumn.get()))
+            .addMethod(copyOfMethod(entity))
+            .addMethod(evictMethod());
+        return true;
+    }
+
+    /**
+     * 执行时失效全部缓存的 {@code UpdateChainWrapper}，转换为 lambda 形式后同样失效缓存
+     *
+     * @param entityClassName
+     * @return
+     */
+    protected TypeSpec updateChainWrapper(ClassName entityClassName) {
+        return TypeSpec.anonymousClassBuilder("baseMapper")
+            .superclass(ParameterizedTypeName.get(UPDATE_CHAIN_WRAPPER_CLASS_NAME,
+                entityClassName))
+            .addMethods(evictingChainMethods(entityClassName))
+            .addMethod(MethodSpec.methodBuilder("lambda")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(ParameterizedTypeName.get(LAMBDA_UPDATE_CHAIN_WRAPPER_CLASS_NAME,
+                    entityClassName))
+                .addStatement("return evictingLambdaUpdate((($T<$T>) getWrapper()).lambda())",
+                    UPDATE_WRAPPER_CLASS_NAME, entityClassName)
+                .build())
+            .build();
+    }
+
+    /**
+     * 以 wrapper 为条件、执行时失效全部缓存的 {@code LambdaUpdateChainWrapper}
+     *
+     * @param entityClassName
+     * @return
+     */
+    protected MethodSpec evictingLambdaUpdateMethod(ClassName entityClassName) {
+        return MethodSpec.methodBuilder("evictingLambdaUpdate")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(ParameterizedTypeName.get(LAMBDA_UPDATE_WRAPPER_CLASS_NAME,
+                entityClassName), "wrapper")
+            .returns(ParameterizedTypeName.get(LAMBDA_UPDATE_CHAIN_WRAPPER_CLASS_NAME,
+                entityClassName))
+            .addStatement("return $L", TypeSpec.anonymousClassBuilder("baseMapper, wrapper")
+                .superclass(ParameterizedTypeName.get(LAMBDA_UPDATE_CHAIN_WRAPPER_CLASS_NAME,
+                    entityClassName))
+                .addMethods(evictingChainMethods(entityClassName))
+                .build())
+            .build();
+    }
+
+    /**
+     * {@code ChainUpdate} 中执行写入的方法，{@code update()} 委托给 {@code update(null)}，无需覆盖
+     *
+     * @param entityClassName
+     * @return
+     */
+    protected List<MethodSpec> evictingChainMethods(ClassName entityClassName) {
+        return List.of(
+            MethodSpec.methodBuilder("update")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .addParameter(entityClassName, "entity")
+                .returns(boolean.class)
+                .beginControlFlow("try")
+                .addStatement("return super.update(entity)")
+                .nextControlFlow("finally")
+                .addStatement("evict(null)")
+                .endControlFlow()
+                .build(),
+            MethodSpec.methodBuilder("remove")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(boolean.class)
+                .beginControlFlow("try")
+                .addStatement("return super.remove()")
+                .nextControlFlow("finally")
+                .addStatement("evict(null)")
+                .endControlFlow()
+                .build());
+    }
+
+    /**
+     * 缓存中实体的浅拷贝，逐个复制映射到数据库列的属性；{@code Date}、集合等可变的属性值仍与缓存共享
+     *
+     * @param entity
+     * @return
+     */
+    protected MethodSpec copyOfMethod(EntityModel entity) {
+        ClassName entityClassName = entity.entityClassName();
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("copyOf")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(entityClassName, "source")
+            .returns(entityClassName)
+            .beginControlFlow("if (source == null)")
+            .addStatement("return null")
+            .endControlFlow()
+            .addStatement("$T copy = new $T()", entityClassName, entityClassName);
+        for (ColumnModel column : entity.columns()) {
+            methodBuilder.addStatement("copy.$L(source.$L())", column.setterName(),
+                column.getterName());
+        }
+        return methodBuilder.addStatement("return copy").build();
+    }
+
+    /**
+     * 调用父类中的同名方法，返回或抛出异常后失效缓存
+     * <p>
+     * 抛出异常时也需要失效：调用方可能已经修改了实体，部分批次也可能已经写入
+     *
+     * @param methodName
+     * @param evictArgument 传给 evict 的主键或实体集合，为 null 时失效全部缓存
+     * @param parameters
+     * @return
+     */
+    protected MethodSpec evictingMethod(String methodName, CodeBlock evictArgument,
+        ParameterSpec... parameters) {
+        return MethodSpec.methodBuilder(methodName)
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .addParameters(List.of(parameters))
+            .returns(boolean.class)
+            .beginControlFlow("try")
+            .addStatement("return super.$L($L)", methodName,
+                Arrays.stream(parameters)
+                    .map(parameter -> CodeBlock.of("$N", parameter))
+                    .collect(CodeBlock.joining(", ")))
+            .nextControlFlow("finally")
+            .addStatement("evict($L)", evictArgument)
+            .endControlFlow()
+            .build();
+    }
+
+    /**
+     * 缓存的键，主键与实体都转换为主键的字符串形式，使 {@code "1"} 与 {@code 1L} 对应同一个缓存项
+     *
+     * @param entity
+     * @param idColumn
+     * @return
+     */
+    protected MethodSpec cacheKeyMethod(EntityModel entity, ColumnModel idColumn) {
+        return MethodSpec.methodBuilder("cacheKey")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(Object.class, "idOrEntity")
+            .returns(String.class)
+            .beginControlFlow("if (idOrEntity instanceof $T)", entity.entityClassName())
+            .addStatement("return $T.valueOf((($T) idOrEntity).$L())", String.class,
+                entity.entityClassName(), idColumn.getterName())
+            .endControlFlow()
+            .addStatement("return $T.valueOf(idOrEntity)", String.class)
+            .build();
+    }
+
+    /**
+     * 失效缓存；在事务中时提交或回滚后再失效一次，避免其他线程在提交前读到旧值并写回缓存
+     *
+     * @return
+     */
+    protected MethodSpec evictMethod() {
+        return MethodSpec.methodBuilder("evict")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                WildcardTypeName.subtypeOf(Object.class)), "idsOrEntities")
+            .addStatement("$T<$T> keys = idsOrEntities == null ? null\n"
+                    + ": idsOrEntities.stream().map(this::cacheKey).toList()", List.class,
+                String.class)
+            .addStatement("$T invalidate = keys == null ? cache::invalidateAll\n"
+                + ": () -> cache.invalidateAll(keys)", Runnable.class)
+            .addStatement("invalidate.run()")
+            .beginControlFlow("if ($T.isSynchronizationActive())",
+                TRANSACTION_SYNCHRONIZATION_MANAGER_CLASS_NAME)
+            .addStatement("$T.registerSynchronization($L)",
+                TRANSACTION_SYNCHRONIZATION_MANAGER_CLASS_NAME,
+                TypeSpec.anonymousClassBuilder("")
+                    .addSuperinterface(TRANSACTION_SYNCHRONIZATION_CLASS_NAME)
+                    .addMethod(MethodSpec.methodBuilder("afterCompletion")
+                        .addAnnotation(Override.class)
+                        .addModifiers(PUBLIC)
+                        .addParameter(int.class, "status")
+                        .addStatement("invalidate.run()")
+                        .build())
+                    .build())
+            .endControlFlow()
+            .build();
+    }
+
+    /**
+     * 按默认行数与指定行数分批写入的两个重载方法，分别调用 Mapper 中的同名方法
+     *
+     * @param entity
+     * @param methodName
+     * @param description
+     * @param evict       写入后是否失效缓存
+     * @return
+     */
+    protected List<MethodSpec> batchMethods(EntityModel entity, String methodName,
+        String description, boolean evict) {
+        TypeName entitiesType = ParameterizedTypeName.get(ClassName.get(Collection.class),
+            entity.entityClassName());
+        AnnotationSpec transactional = AnnotationSpec.builder(TRANSACTIONAL_CLASS_NAME)
+            .addMember("rollbackFor", "$T.class", Exception.class)
+            .build();
+        CodeBlock batchStatement = evict
+            ? CodeBlock.builder()
+                .beginControlFlow("try")
+                .addStatement("return executeInChunks(entities, batchSize, baseMapper::$L)",
+                    methodName)
+                .nextControlFlow("finally")
+                .addStatement("evict(entities)")
+                .endControlFlow()
+                .build()
+            : CodeBlock.builder()
+                .addStatement("return executeInChunks(entities, batchSize, baseMapper::$L)",
+                    methodName)
+                .build();
+        return List.of(
+            MethodSpec.methodBuilder(methodName)
+                .addJavadoc(description + "\n\n"
+                    + "@param entities\n"
+                    + "@return 影响的行数\n")
+                .addAnnotation(transactional)
+                .addModifiers(PUBLIC)
+                .addParameter(entitiesType, "entities")
+                .returns(int.class)
+                .addStatement("return $L(entities, BATCH_SIZE)", methodName)
+                .build(),
+            MethodSpec.methodBuilder(methodName)
+                .addJavadoc(description + "\n\n"
+                    + "@param entities\n"
+                    + "@param batchSize\n"
+                    + "@return 影响的行数\n")
+                .addAnnotation(transactional)
+                .addModifiers(PUBLIC)
+                .addParameter(entitiesType, "entities")
+                .addParameter(int.class, "batchSize")
+                .returns(int.class)
+                .addCode(batchStatement)
+                .build());
+    }
+
+    /**
+     * 将实体按 batchSize 切分后依次写入
+     *
+     * @param entity
+     * @param instrument 是否记录写入的行数
+     * @return
+     */
+    protected MethodSpec executeInChunksMethod(EntityModel entity, boolean instrument) {
+        TypeName listType = ParameterizedTypeName.get(ClassName.get(List.class),
+            entity.entityClassName());
+        return MethodSpec.methodBuilder("executeInChunks")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                entity.entityClassName()), "entities")
+            .addParameter(int.class, "batchSize")
+            .addParameter(ParameterizedTypeName.get(ClassName.get(ToIntFunction.class),
+                listType), "statement")
+            .returns(int.class)
+            .beginControlFlow("if (batchSize < 1)")
+            .addStatement("throw new $T($S + batchSize)", IllegalArgumentException.class,
+                "batchSize must be positive: ")
+            .endControlFlow()
+            .beginControlFlow("if (entities == null || entities.isEmpty())")
+            .addStatement("return 0")
+            .endControlFlow()
+            .addStatement("$T list = entities instanceof $T ? ($T) entities : new $T<>(entities)",
+                listType, List.class, listType, ArrayList.class)
+            .addStatement("int rows = 0")
+            .beginControlFlow("for (int from = 0; from < list.size(); from += batchSize)")
+            .addStatement("rows += statement.applyAsInt("
+                + "list.subList(from, $T.min(from + batchSize, list.size())))", Math.class)
+            .endControlFlow()
+            .addCode(instrument ? CodeBlock.of("BATCH_ROWS.record(rows);\n") : CodeBlock.of(""))
+            .addStatement("return rows")
+            .build();
+    }
+}
@@ -0,0 +1,1132 @@
+package cc.ddrpa.dorian.norbo.mabtisplus.generator;
+
+import static javax.lang.model.element.Modifier.PUBLIC;
+
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPTypeHandler;
+import cc.ddrpa.dorian.norbo.processor.Generator;
+import cc.ddrpa.dorian.norbo.processor.GeneratorContext;
+import cc.ddrpa.dorian.norbo.util.ElementUtils;
+import cc.ddrpa.dorian.norbo.util.MeterUtils;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+
+/**
+ * 为 {@code @MPTypeHandler} 修饰的类型生成 TypeHandler
+ */
+public class MPTypeHandlerGenerator implements Generator {
+
+    private static final String OBJECT_MAPPER_HOLDER_SIMPLE_NAME = "TypeHandlerObjectMapperHolder";
+    private static final ClassName OBJECT_MAPPER_CLASS_NAME = ClassName.get(
+        "com.fasterxml.jackson.databind", "ObjectMapper");
+    private static final ClassName JDBC_TYPE_CLASS_NAME = ClassName.get(
+        "org.apache.ibatis.type", "JdbcType");
+    private static final ClassName JSON_FACTORY_CLASS_NAME = ClassName.get(
+        "com.fasterxml.jackson.core", "JsonFactory");
+    private static final ClassName JAVA_TYPE_CLASS_NAME = ClassName.get(
+        "com.fasterxml.jackson.databind", "JavaType");
+    /**
+     * 本次编译中已生成的 TypeHandler
+     */
+    private final Set<String> generatedHandlers = new HashSet<>();
+    /**
+     * 本次编译中已生成的 ObjectMapperHolder
+     */
+    private final Set<String> generatedHolders = new HashSet<>();
+    /**
+     * 本次编译中已生成的编解码器
+     */
+    private final Set<String> generatedCodecs = new HashSet<>();
+    private Elements elementUtils;
+    private Filer filer;
+    private Messager messager;
+    private GeneratorContext context;
+
+    @Override
+    public void generate(GeneratorContext context) {
+        this.context = context;
+        elementUtils = context.getElementUtils();
+        filer = context.getFiler();
+        messager = context.getMessager();
+        for (Element annotatedElement : context.getRoundEnv()
+            .getElementsAnnotatedWith(MPTypeHandler.class)) {
+            if (!annotatedElement.getKind().isClass() && !annotatedElement.getKind().isField()) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                    String.format("Only class or field can be annotated with @%s",
+                        MPTypeHandler.class.getSimpleName()),
+                    annotatedElement);
+            }
+            MPTypeHandler annotation = annotatedElement.getAnnotation(MPTypeHandler.class);
+            // JSON 以外的格式在类名中体现，避免与同一类型的 JSON TypeHandler 重名
+            ClassName className = ClassName.get(
+                packageName(annotatedElement),
+                typeHandlerSimpleName(annotatedElement.asType(), annotation.format()));
+
+            if (Objects.nonNull(elementUtils.getTypeElement(className.canonicalName()))
+                || !generatedHandlers.add(className.canonicalName())) {
+                // 在类定义和属性上为同一个类型添加注解时，发现类已经存在就不需要再生成
+                continue;
+            }
+
+            // 修饰对象的类型
+            TypeName annotatedElementType = TypeName.get(annotatedElement.asType());
+            // 判断修饰对象是否为参数化类型
+            boolean isElementParameterized = annotatedElement.asType() instanceof DeclaredType d &&
+                !d.getTypeArguments().isEmpty();
+
+            TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(className)
+                .addOriginatingElement(ElementUtils.topLevelType(annotatedElement));
+            // @MappedTypes
+            if (isElementParameterized) {
+                DeclaredType declaredType = (DeclaredType) annotatedElement.asType();
+                TypeElement rawType = (TypeElement) declaredType.asElement();
+                typeBuilder.addAnnotation(
+                    AnnotationSpec.builder(
+                            ClassName.get("org.apache.ibatis.type", "MappedTypes"))
+                        .addMember("value", "$T.class", ClassName.get(rawType))
+                        .build());
+            } else {
+                typeBuilder.addAnnotation(
+                    AnnotationSpec.builder(
+                            ClassName.get("org.apache.ibatis.type", "MappedTypes"))
+                        .addMember("value", "$T.class", annotatedElementType)
+                        .build());
+            }
+
+            // 二进制格式只能按字节读写
+            boolean isBytesMode = annotation.mode() == MPTypeHandler.Mode.BYTES
+                || annotation.format() != MPTypeHandler.Format.JSON;
+            typeBuilder.addAnnotation(mappedJdbcTypesAnnotation(annotation, isBytesMode))
+                .addModifiers(PUBLIC);
+            if (isBytesMode) {
+                // 直接读写字节流，跳过中间的 String
+                typeBuilder.superclass(ParameterizedTypeName.get(
+                    ClassName.get("org.apache.ibatis.type", "BaseTypeHandler"),
+                    annotatedElementType));
+            } else {
+                typeBuilder.superclass(ParameterizedTypeName.get(
+                    ClassName.get("com.baomidou.mybatisplus.extension.handlers",
+                        "AbstractJsonTypeHandler"),
+                    annotatedElementType));
+            }
+
+            // 同一个包下相同格式的 TypeHandler 共享一个 ObjectMapper 实例，避免重复创建与预热，由 generateShared 生成
+            ClassName holderClassName = holderClassName(className.packageName(),
+                annotation.format());
+
+            // 生成编解码器时不再需要 Jackson 的反射，只需共享 ObjectMapper 的工厂
+            ClassName codecClassName = null;
+            if (annotation.codec()) {
+                Optional<String> unsupported = Optional.empty();
+                if (!JsonCodecGenerator.isSupported(annotatedElement.asType())) {
+                    messager.printMessage(Diagnostic.Kind.WARNING,
+                        "Codec can only be generated for non-parameterized class or record, "
+                            + "fall back to ObjectMapper",
+                        annotatedElement);
+                } else if ((unsupported = unsupportedCodecAnnotation(
+                    annotatedElement.asType())).isPresent()) {
+                    messager.printMessage(Diagnostic.Kind.WARNING,
+                        "Codec does not support " + unsupported.get()
+                            + ", fall back to ObjectMapper",
+                        annotatedElement);
+                } else if ((unsupported = missingCodecMember(annotatedElement.asType(),
+                    className.packageName())).isPresent()) {
+                    messager.printMessage(Diagnostic.Kind.WARNING,
+                        "Codec requires a no-args constructor and getter / setter ("
+                            + unsupported.get() + "), fall back to ObjectMapper",
+                        annotatedElement);
+                } else {
+                    codecClassName = ClassName.get(className.packageName(),
+                        buildNameFromType(annotatedElement.asType()) + "JsonCodec");
+                    writeJsonCodecIfAbsent(codecClassName, annotatedElement);
+                }
+            }
+            addSerializers(typeBuilder, annotatedElementType, isElementParameterized,
+                holderClassName, codecClassName);
+
+            // 添加方法到类
+            if (isBytesMode) {
+                typeBuilder
+                    .addMethod(setNonNullParameterMethod(annotatedElementType))
+                    .addMethod(getNullableResultByColumnNameMethod(annotatedElementType,
+                        annotation.instrument()))
+                    .addMethod(getNullableResultByColumnIndexMethod(annotatedElementType,
+                        annotation.instrument()))
+                    .addMethod(getNullableResultFromCallableMethod(annotatedElementType));
+                if (!annotation.instrument()) {
+                    typeBuilder.addMethod(parseStreamMethod(annotatedElementType,
+                        codecClassName));
+                }
+                typeBuilder
+                    .addMethod(parseBytesMethod(annotatedElementType, codecClassName))
+                    .addMethod(toBytesMethod(annotatedElementType, codecClassName,
+                        annotation.instrument()));
+            } else {
+                typeBuilder
+                    .addMethod(constructorMethod())
+                    .addMethod(parseMethod(annotatedElementType, codecClassName))
+                    .addMethod(toJsonMethod(annotatedElementType, codecClassName,
+                        annotation.instrument()));
+            }
+
+            if (annotation.instrument()) {
+                instrument(className, typeBuilder, isBytesMode);
+            }
+
+            JavaFile file = JavaFile.builder(className.packageName(), typeBuilder.build()).build();
+            try {
+                file.writeTo(filer);
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write file for element",
+                    annotatedElement);
+            }
+
+            if (annotation.lazy()) {
+                // 延迟解码的包装类及其 TypeHandler
+                ClassName lazyClassName = ClassName.get(className.packageName(),
+                    "Lazy" + buildNameFromType(annotatedElement.asType())
+                        + formatNamePrefix(annotation.format()));
+                ClassName lazyHandlerClassName = ClassName.get(className.packageName(),
+                    lazyClassName.simpleName() + "TypeHandler");
+                TypeName rawType = isBytesMode ? TypeName.get(byte[].class)
+                    : ClassName.get(String.class);
+                writeTypeIfAbsent(lazyClassName,
+                    lazyWrapperType(lazyClassName, lazyHandlerClassName, annotatedElementType,
+                        rawType, isImmutable(annotatedElement.asType(), new HashSet<>())),
+                    annotatedElement);
+                writeTypeIfAbsent(lazyHandlerClassName,
+                    lazyTypeHandlerType(lazyHandlerClassName, lazyClassName, annotatedElementType,
+                        isElementParameterized, isBytesMode, annotation, holderClassName,
+                        codecClassName),
+                    annotatedElement);
+            }
+        }
+    }
+
+    /**
+     * 为解析与序列化记录耗时与内容大小，同名方法共享指标
+     * <p>
+     * 按字符串读写时内容大小为字符数，按字节读写时为字节数；按字节读写时不再从流中解析，而是先读入字节数组以记录大小。
+     * 延迟解码的 TypeHandler 在解码（decode）与编码（encode）时记录
+     *
+     * @param className
+     * @param typeBuilder
+     * @param isBytesMode
+     */
+    protected void instrument(ClassName className, TypeSpec.Builder typeBuilder,
+        boolean isBytesMode) {
+        String handlerName = className.simpleName();
+        String baseUnit = isBytesMode ? "bytes" : "characters";
+        typeBuilder.addField(MeterUtils.timerField("PARSE_TIMER", "norbo.type_handler",
+                "handler", handlerName, "operation", "parse"))
+            .addField(MeterUtils.timerField("SERIALIZE_TIMER", "norbo.type_handler",
+                "handler", handlerName, "operation", "serialize"))
+            .addField(MeterUtils.summaryField("PARSE_PAYLOAD", "norbo.type_handler.payload",
+                baseUnit, "handler", handlerName, "operation", "parse"))
+            .addField(MeterUtils.summaryField("SERIALIZE_PAYLOAD", "norbo.type_handler.payload",
+                baseUnit, "handler", handlerName, "operation", "serialize"));
+        typeBuilder.methodSpecs.replaceAll(method -> switch (method.name) {
+            case "parse", "decode" -> {
+                TypeName parameterType = method.parameters.get(0).type;
+                String parameterName = method.parameters.get(0).name;
+                CodeBlock size = parameterType.equals(ClassName.get(String.class))
+                    ? CodeBlock.of("$L.length()", parameterName)
+                    : parameterType.equals(TypeName.get(byte[].class))
+                        ? CodeBlock.of("$L.length", parameterName) : null;
+                if (Objects.isNull(size)) {
+                    yield MeterUtils.timed(method, "PARSE_TIMER");
+                }
+                yield MeterUtils.timed(method, "PARSE_TIMER", CodeBlock.builder()
+                    .beginControlFlow("if ($L != null)", parameterName)
+                    .addStatement("PARSE_PAYLOAD.record($L)", size)
+                    .endControlFlow()
+                    .build());
+            }
+            case "toJson", "toBytes", "encode" -> MeterUtils.timed(method, "SERIALIZE_TIMER");
+            default -> method;
+        });
+    }
+
+    /**
+     * 推断生成类的 packageName
+     *
+     * @param annotatedElement
+     * @return
+     */
+    protected String packageName(Element annotatedElement) {
+        return context.packageName(annotatedElement, MPTypeHandler.class);
+    }
+
+    /**
+     * 为类型生成的 TypeHandler 的类名，其他生成器引用尚未生成的 TypeHandler 时也使用该规则
+     *
+     * @param typeMirror
+     * @param format
+     * @return
+     */
+    public static String typeHandlerSimpleName(TypeMirror typeMirror,
+        MPTypeHandler.Format format) {
+        return buildNameFromType(typeMirror) + formatNamePrefix(format) + "TypeHandler";
+    }
+
+    protected static String buildNameFromType(TypeMirror typeMirror) {
+        if (typeMirror.getKind() != TypeKind.DECLARED) {
+            return typeMirror.toString();
+        }
+        DeclaredType declaredType = (DeclaredType) typeMirror;
+        TypeElement rawType = (TypeElement) declaredType.asElement();
+        String rawName = rawType.getSimpleName().toString();
+        List<? extends TypeMirror> typeArgs = declaredType.getTypeArguments();
+        if (typeArgs.isEmpty()) {
+            return rawName;
+        }
+        StringBuilder nameBuilder = new StringBuilder(rawName);
+        nameBuilder.append("Of");
+        List<String> argNames = new ArrayList<>();
+        for (TypeMirror arg : typeArgs) {
+            argNames.add(buildNameFromType(arg));
+        }
+        nameBuilder.append(String.join("And", argNames));
+        return nameBuilder.toString();
+    }
+
+    /**
+     * 生成类名中标识序列化格式的部分，JSON 格式为空
+     *
+     * @param format
+     * @return
+     */
+    protected static String formatNamePrefix(MPTypeHandler.Format format) {
+        return switch (format) {
+            case JSON -> "";
+            case CBOR -> "Cbor";
+            case SMILE -> "Smile";
+            case MESSAGE_PACK -> "MessagePack";
+        };
+    }
+
+    /**
+     * 序列化格式对应的 Jackson JsonFactory 实现，JSON 格式使用 ObjectMapper 默认的工厂
+     *
+     * @param format
+     * @return
+     */
+    protected Optional<ClassName> formatFactoryClassName(MPTypeHandler.Format format) {
+        return switch (format) {
+            case JSON -> Optional.empty();
+            case CBOR -> Optional.of(
+                ClassName.get("com.fasterxml.jackson.dataformat.cbor", "CBORFactory"));
+            case SMILE -> Optional.of(
+                ClassName.get("com.fasterxml.jackson.dataformat.smile", "SmileFactory"));
+            case MESSAGE_PACK -> Optional.of(
+                ClassName.get("org.msgpack.jackson.dataformat", "MessagePackFactory"));
+        };
+    }
+
+    @Override
+    public void generateShared(GeneratorContext context) {
+        this.context = context;
+        elementUtils = context.getElementUtils();
+        filer = context.getFiler();
+        messager = context.getMessager();
+        for (Element annotatedElement : context.getRoundEnv()
+            .getElementsAnnotatedWith(MPTypeHandler.class)) {
+            if (!annotatedElement.getKind().isClass() && !annotatedElement.getKind().isField()) {
+                continue;
+            }
+            MPTypeHandler.Format format = annotatedElement.getAnnotation(MPTypeHandler.class)
+                .format();
+            writeObjectMapperHolderIfAbsent(holderClassName(packageName(annotatedElement),
+                format), format, annotatedElement);
+        }
+    }
+
+    /**
+     * 包中指定格式的 TypeHandler 共享的 ObjectMapperHolder
+     *
+     * @param packageName
+     * @param format
+     * @return
+     */
+    protected ClassName holderClassName(String packageName, MPTypeHandler.Format format) {
+        return ClassName.get(packageName,
+            formatNamePrefix(format) + OBJECT_MAPPER_HOLDER_SIMPLE_NAME);
+    }
+
+    /**
+     * 为包生成共享的 ObjectMapperHolder，已存在时跳过
+     *
+     * @param holderClassName
+     * @param format
+     * @param annotatedElement
+     */
+    protected void writeObjectMapperHolderIfAbsent(ClassName holderClassName,
+        MPTypeHandler.Format format, Element annotatedElement) {
+        if (!generatedHolders.add(holderClassName.canonicalName())
+            || Objects.nonNull(elementUtils.getTypeElement(holderClassName.canonicalName()))) {
+            return;
+        }
+        TypeSpec holderSpec = TypeSpec.classBuilder(holderClassName)
+            .addOriginatingElement(ElementUtils.topLevelType(annotatedElement))
+            .addJavadoc("同一个包下生成的 TypeHandler 共享的 ObjectMapper\n"
+                + "<p>\n"
+                + "如需使用 Spring 容器中的 ObjectMapper，调用 {@link #setObjectMapper(ObjectMapper)}；\n"
+                + "TypeHandler 在下一次读写时改用新的 ObjectMapper，与调用时机无关\n")
+            .addModifiers(PUBLIC, Modifier.FINAL)
+            .addField(FieldSpec.builder(OBJECT_MAPPER_CLASS_NAME, "objectMapper",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.VOLATILE)
+                .initializer("defaultObjectMapper()")
+                .build())
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .build())
+            .addMethod(MethodSpec.methodBuilder("getObjectMapper")
+                .addModifiers(PUBLIC, Modifier.STATIC)
+                .returns(OBJECT_MAPPER_CLASS_NAME)
+                .addStatement("return objectMapper")
+                .build())
+            .addMethod(MethodSpec.methodBuilder("setObjectMapper")
+                .addModifiers(PUBLIC, Modifier.STATIC)
+                .addParameter(OBJECT_MAPPER_CLASS_NAME, "objectMapper")
+                .addStatement("$T.objectMapper = $T.requireNonNull(objectMapper)",
+                    holderClassName, Objects.class)
+                .build())
+            .addMethod(defaultObjectMapperMethod(format))
+            .build();
+        JavaFile file = JavaFile.builder(holderClassName.packageName(), holderSpec).build();
+        try {
+            file.writeTo(filer);
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                "Failed to write file for element",
+                annotatedElement);
+        }
+    }
+
+    /**
+     * 生成被修饰类型的编解码器，已存在时跳过
+     *
+     * @param codecClassName
+     * @param annotatedElement
+     */
+    protected void writeJsonCodecIfAbsent(ClassName codecClassName, Element annotatedElement) {
+        if (!generatedCodecs.add(codecClassName.canonicalName())
+            || Objects.nonNull(elementUtils.getTypeElement(codecClassName.canonicalName()))) {
+            return;
+        }
+        TypeElement typeElement = (TypeElement) ((DeclaredType) annotatedElement.asType())
+            .asElement();
+        TypeSpec codecSpec = new JsonCodecGenerator(context.annotations()).generate(codecClassName, typeElement,
+                this::nestedCodecClassName)
+            .toBuilder()
+            .addOriginatingElement(ElementUtils.topLevelType(annotatedElement))
+            .build();
+        JavaFile file = JavaFile.builder(codecClassName.packageName(), codecSpec).build();
+        try {
+            file.writeTo(filer);
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                "Failed to write file for element",
+                annotatedElement);
+        }
+    }
+
+    /**
+     * 编解码器无法还原的 Jackson 注解，存在时不生成编解码器
+     *
+     * @param typeMirror 非参数化的类或 record
+     * @return
+     */
+    protected Optional<String> unsupportedCodecAnnotation(TypeMirror typeMirror) {
+        return new JsonCodecGenerator(context.annotations())
+            .unsupportedAnnotation((TypeElement) ((DeclaredType) typeMirror).asElement());
+    }
+
+    /**
+     * 编解码器创建和读写对象时缺少的构造函数或 getter / setter，存在时不生成编解码器
+     *
+     * @param typeMirror   非参数化的类或 record
+     * @param codecPackage
+     * @return
+     */
+    protected Optional<String> missingCodecMember(TypeMirror typeMirror, String codecPackage) {
+        return new JsonCodecGenerator(context.annotations())
+            .missingMember((TypeElement) ((DeclaredType) typeMirror).asElement(), codecPackage);
+    }
+
+    /**
+     * 属性类型本身以 {@code @MPTypeHandler(codec = true)} 修饰时，复用为其生成的编解码器
+     *
+     * @param typeMirror
+     * @return
+     */
+    protected Optional<ClassName> nestedCodecClassName(TypeMirror typeMirror) {
+        if (!JsonCodecGenerator.isSupported(typeMirror)
+            || unsupportedCodecAnnotation(typeMirror).isPresent()) {
+            return Optional.empty();
+        }
+        Element element = ((DeclaredType) typeMirror).asElement();
+        MPTypeHandler annotation = element.getAnnotation(MPTypeHandler.class);
+        if (Objects.isNull(annotation) || !annotation.codec()
+            || missingCodecMember(typeMirror, packageName(element)).isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(ClassName.get(packageName(element),
+            buildNameFromType(typeMirror) + "JsonCodec"));
+    }
+
+    /**
+     * 缓存 ObjectReader / ObjectWriter，并与创建它们的 ObjectMapper 绑定，
+     * 通过 {@code setObjectMapper} 替换 ObjectMapper 后在下一次读写时重新创建；使用编解码器时只需共享 ObjectMapper 的工厂
+     *
+     * @param typeBuilder
+     * @param annotatedElementType
+     * @param isElementParameterized
+     * @param holderClassName
+     * @param codecClassName
+     */
+    protected void addSerializers(TypeSpec.Builder typeBuilder, TypeName annotatedElementType,
+        boolean isElementParameterized, ClassName holderClassName, ClassName codecClassName) {
+        if (Objects.nonNull(codecClassName)) {
+            typeBuilder.addMethod(MethodSpec.methodBuilder("factory")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(JSON_FACTORY_CLASS_NAME)
+                .addStatement("return $T.getObjectMapper().getFactory()", holderClassName)
+                .build());
+            return;
+        }
+        ClassName serializersClassName = ClassName.get("", "Serializers");
+        typeBuilder.addField(FieldSpec.builder(serializersClassName, "serializers",
+                    Modifier.PRIVATE, Modifier.STATIC, Modifier.VOLATILE)
+                .build())
+            .addMethod(MethodSpec.methodBuilder("serializers")
+                .addJavadoc("当前 ObjectMapper 对应的 ObjectReader / ObjectWriter，ObjectMapper 被替换后重新创建\n")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(serializersClassName)
+                .addStatement("$T mapper = $T.getObjectMapper()", OBJECT_MAPPER_CLASS_NAME,
+                    holderClassName)
+                .addStatement("$T current = serializers", serializersClassName)
+                .beginControlFlow("if (current == null || current.mapper != mapper)")
+                .addStatement("current = new $T(mapper)", serializersClassName)
+                .addStatement("serializers = current")
+                .endControlFlow()
+                .addStatement("return current")
+                .build())
+            .addType(serializersType(annotatedElementType, isElementParameterized));
+    }
+
+    /**
+     * 由同一个 ObjectMapper 创建的 ObjectReader / ObjectWriter，参数化类型的 JavaType 只在创建时解析一次
+     * <p>
+     * 参数化类型按声明类型序列化以保留泛型信息，其余类型仍按运行时类型序列化，避免丢失子类属性
+     *
+     * @param annotatedElementType
+     * @param isElementParameterized
+     * @return
+     */
+    protected TypeSpec serializersType(TypeName annotatedElementType,
+        boolean isElementParameterized) {
+        MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(OBJECT_MAPPER_CLASS_NAME, "mapper")
+            .addStatement("this.mapper = mapper");
+        if (isElementParameterized) {
+            constructorBuilder.addStatement(
+                "$T javaType = mapper.getTypeFactory().constructType(new $T<$T>() {})",
+                JAVA_TYPE_CLASS_NAME,
+                ClassName.get("com.fasterxml.jackson.core.type", "TypeReference"),
+                annotatedElementType);
+        } else {
+            constructorBuilder.addStatement(
+                "$T javaType = mapper.getTypeFactory().constructType($T.class)",
+                JAVA_TYPE_CLASS_NAME, annotatedElementType);
+        }
+        constructorBuilder.addStatement("this.reader = mapper.readerFor(javaType)")
+            .addStatement(isElementParameterized ? "this.writer = mapper.writerFor(javaType)"
+                : "this.writer = mapper.writer()");
+        return TypeSpec.classBuilder("Serializers")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .addField(OBJECT_MAPPER_CLASS_NAME, "mapper", Modifier.PRIVATE, Modifier.FINAL)
+            .addField(ClassName.get("com.fasterxml.jackson.databind", "ObjectReader"), "reader",
+                Modifier.PRIVATE, Modifier.FINAL)
+            .addField(ClassName.get("com.fasterxml.jackson.databind", "ObjectWriter"), "writer",
+                Modifier.PRIVATE, Modifier.FINAL)
+            .addMethod(constructorBuilder.build())
+            .build();
+    }
+
+    protected void writeTypeIfAbsent(ClassName className, TypeSpec typeSpec,
+        Element annotatedElement) {
+        if (Objects.nonNull(elementUtils.getTypeElement(className.canonicalName()))) {
+            return;
+        }
+        JavaFile file = JavaFile.builder(className.packageName(), typeSpec.toBuilder()
+                .addOriginatingElement(ElementUtils.topLevelType(annotatedElement))
+                .build())
+            .build();
+        try {
+            file.writeTo(filer);
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                "Failed to write file for element",
+                annotatedElement);
+        }
+    }
+
+    /**
+     * 类型的实例是否不可修改：基本类型、包装类型、String、BigDecimal、BigInteger、UUID、java.time 中的类型、枚举，
+     * 以及所有组件都不可修改的 record
+     *
+     * @param typeMirror
+     * @param visiting   正在检查的 record，避免递归引用时死循环
+     * @return
+     */
+    protected static boolean isImmutable(TypeMirror typeMirror, Set<String> visiting) {
+        if (typeMirror.getKind().isPrimitive()) {
+            return true;
+        }
+        if (!(typeMirror instanceof DeclaredType declaredType)
+            || !declaredType.getTypeArguments().isEmpty()) {
+            return false;
+        }
+        TypeElement element = (TypeElement) declaredType.asElement();
+        String qualifiedName = element.getQualifiedName().toString();
+        if (element.getKind() == ElementKind.ENUM || qualifiedName.startsWith("java.time.")
+            || Set.of("java.lang.String", "java.lang.Boolean", "java.lang.Byte",
+                "java.lang.Short", "java.lang.Character", "java.lang.Integer", "java.lang.Long",
+                "java.lang.Float", "java.lang.Double", "java.math.BigDecimal",
+                "java.math.BigInteger", "java.util.UUID").contains(qualifiedName)) {
+            return true;
+        }
+        if (element.getKind() != ElementKind.RECORD) {
+            return false;
+        }
+        if (!visiting.add(qualifiedName)) {
+            return true;
+        }
+        return element.getRecordComponents().stream()
+            .allMatch(component -> isImmutable(component.asType(), visiting));
+    }
+
+    /**
+     * 延迟解码的包装类，持有数据库中读出的原始内容，首次访问时才解码
+     * <p>
+     * 未被访问过的值原样写回数据库，不再重新序列化；被包装类型不可修改时，解码后仍保留原始内容，
+     * 未调用 set 时同样原样写回。状态的读写都在实例锁内进行，实体在线程间共享时也不会写回 null
+     *
+     * @param lazyClassName
+     * @param lazyHandlerClassName
+     * @param annotatedElementType
+     * @param rawType
+     * @param keepRaw              解码后是否保留原始内容
+     * @return
+     */
+    protected TypeSpec lazyWrapperType(ClassName lazyClassName, ClassName lazyHandlerClassName,
+        TypeName annotatedElementType, TypeName rawType, boolean keepRaw) {
+        MethodSpec.Builder getBuilder = MethodSpec.methodBuilder("get")
+            .addAnnotation(ClassName.get("com.fasterxml.jackson.annotation", "JsonValue"))
+            .addModifiers(PUBLIC, Modifier.SYNCHRONIZED)
+            .returns(annotatedElementType)
+            .beginControlFlow("if (!decoded)")
+            .addStatement("value = $T.decode(raw)", lazyHandlerClassName)
+            .addStatement("decoded = true");
+        if (keepRaw) {
+            getBuilder.addCode("// 不可修改的类型解码后仍与原始内容一致，写回时不需要重新序列化\n");
+        } else {
+            getBuilder.addCode("// 解码后的值可能被修改，写回时需要重新序列化\n")
+                .addStatement("raw = null");
+        }
+        getBuilder.endControlFlow()
+            .addStatement("return value");
+        return TypeSpec.classBuilder(lazyClassName)
+            .addJavadoc("延迟解码的 {@link $T}，首次调用 {@link #get()} 时才解码\n", annotatedElementType
+                instanceof ParameterizedTypeName p ? p.rawType : annotatedElementType)
+            .addJavadoc(keepRaw ? ""
+                : "<p>\n解码后的值可能被修改，写回时总是重新序列化；只读取时请避免调用 {@link #get()}\n")
+            .addModifiers(PUBLIC, Modifier.FINAL)
+            .addField(FieldSpec.builder(rawType, "raw", Modifier.PRIVATE)
+                .addJavadoc("数据库中读出的原始内容，与 value 不一致时为 null\n")
+                .build())
+            .addField(annotatedElementType, "value", Modifier.PRIVATE)
+            .addField(boolean.class, "decoded", Modifier.PRIVATE)
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .build())
+            .addMethod(MethodSpec.methodBuilder("of")
+                .addAnnotation(AnnotationSpec.builder(
+                        ClassName.get("com.fasterxml.jackson.annotation", "JsonCreator"))
+                    .addMember("mode", "$T.DELEGATING",
+                        ClassName.get("com.fasterxml.jackson.annotation", "JsonCreator", "Mode"))
+                    .build())
+                .addModifiers(PUBLIC, Modifier.STATIC)
+                .addParameter(annotatedElementType, "value")
+                .returns(lazyClassName)
+                .addStatement("$T lazy = new $T()", lazyClassName, lazyClassName)
+                .addStatement("lazy.set(value)")
+                .addStatement("return lazy")
+                .build())
+            .addMethod(MethodSpec.methodBuilder("ofRaw")
+                .addModifiers(Modifier.STATIC)
+                .addParameter(rawType, "raw")
+                .returns(lazyClassName)
+                .beginControlFlow("if (raw == null)")
+                .addStatement("return null")
+                .endControlFlow()
+                .addStatement("$T lazy = new $T()", lazyClassName, lazyClassName)
+                .addStatement("lazy.raw = raw")
+                .addStatement("return lazy")
+                .build())
+            .addMethod(getBuilder.build())
+            .addMethod(MethodSpec.methodBuilder("set")
+                .addModifiers(PUBLIC, Modifier.SYNCHRONIZED)
+                .addParameter(annotatedElementType, "value")
+                .addStatement("this.value = value")
+                .addStatement("this.decoded = true")
+                .addStatement("this.raw = null")
+                .build())
+            .addMethod(MethodSpec.methodBuilder("isDecoded")
+                .addJavadoc(keepRaw ? "是否已经解码\n"
+                    : "是否已经解码，已解码的值可能被修改过，写回时需要重新序列化\n")
+                .addModifiers(PUBLIC, Modifier.SYNCHRONIZED)
+                .returns(boolean.class)
+                .addStatement("return decoded")
+                .build())
+            .addMethod(MethodSpec.methodBuilder("toRaw")
+                .addModifiers(Modifier.SYNCHRONIZED)
+                .returns(rawType)
+                .addStatement("return raw != null ? raw : $T.encode(value)", lazyHandlerClassName)
+                .build())
+            .build();
+    }
+
+    protected TypeSpec lazyTypeHandlerType(ClassName lazyHandlerClassName,
+        ClassName lazyClassName, TypeName annotatedElementType, boolean isElementParameterized,
+        boolean isBytesMode, MPTypeHandler annotation, ClassName holderClassName,
+        ClassName codecClassName) {
+        TypeName rawType = isBytesMode ? TypeName.get(byte[].class) : ClassName.get(String.class);
+        String getter = isBytesMode ? "getBytes" : "getString";
+        String setter = isBytesMode ? "setBytes" : "setString";
+
+        MethodSpec.Builder decodeBuilder = MethodSpec.methodBuilder("decode")
+            .addAnnotation(ClassName.get("lombok", "SneakyThrows"))
+            .addModifiers(Modifier.STATIC)
+            .addParameter(rawType, "raw")
+            .returns(annotatedElementType);
+        MethodSpec.Builder encodeBuilder = MethodSpec.methodBuilder("encode")
+            .addAnnotation(ClassName.get("lombok", "SneakyThrows"))
+            .addModifiers(Modifier.STATIC)
+            .addParameter(annotatedElementType, "obj")
+            .returns(rawType);
+        Class<?> rawClass = isBytesMode ? byte[].class : String.class;
+        String size = isBytesMode ? "length" : "length()";
+        boolean instrument = annotation.instrument();
+        if (Objects.isNull(codecClassName)) {
+            decodeBuilder.addStatement("return serializers().reader.readValue(raw)");
+            encodeBuilder.addCode(returnSerialized(rawClass, CodeBlock.of(isBytesMode
+                ? "serializers().writer.writeValueAsBytes(obj)"
+                : "serializers().writer.writeValueAsString(obj)"), size, instrument));
+        } else if (isBytesMode) {
+            decodeBuilder.addCode(readWithCodec(codecClassName, "raw"));
+            encodeBuilder
+                .addStatement("$T output = new $T()", ByteArrayOutputStream.class,
+                    ByteArrayOutputStream.class)
+                .addCode(writeWithCodec(codecClassName, "output"))
+                .addCode(returnSerialized(rawClass, CodeBlock.of("output.toByteArray()"), size,
+                    instrument));
+        } else {
+            decodeBuilder.addCode(readWithCodec(codecClassName, "raw"));
+            encodeBuilder
+                .addStatement("$T writer = new $T()", StringWriter.class, StringWriter.class)
+                .addCode(writeWithCodec(codecClassName, "writer"))
+                .addCode(returnSerialized(rawClass, CodeBlock.of("writer.toString()"), size,
+                    instrument));
+        }
+
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(lazyHandlerClassName)
+            .addAnnotation(AnnotationSpec.builder(
+                    ClassName.get("org.apache.ibatis.type", "MappedTypes"))
+                .addMember("value", "$T.class", lazyClassName)
+                .build())
+            .addAnnotation(mappedJdbcTypesAnnotation(annotation, isBytesMode))
+            .addModifiers(PUBLIC)
+            .superclass(ParameterizedTypeName.get(
+                ClassName.get("org.apache.ibatis.type", "BaseTypeHandler"), lazyClassName))
+            .addMethod(MethodSpec.methodBuilder("setNonNullParameter")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(PreparedStatement.class, "ps")
+                .addParameter(int.class, "i")
+                .addParameter(lazyClassName, "parameter")
+                .addParameter(JDBC_TYPE_CLASS_NAME, "jdbcType")
+                .addException(SQLException.class)
+                .addStatement("ps.$L(i, parameter.toRaw())", setter)
+                .build())
+            .addMethod(MethodSpec.methodBuilder("getNullableResult")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ResultSet.class, "rs")
+                .addParameter(String.class, "columnName")
+                .addException(SQLException.class)
+                .returns(lazyClassName)
+                .addStatement("return $T.ofRaw(rs.$L(columnName))", lazyClassName, getter)
+                .build())
+            .addMethod(MethodSpec.methodBuilder("getNullableResult")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ResultSet.class, "rs")
+                .addParameter(int.class, "columnIndex")
+                .addException(SQLException.class)
+                .returns(lazyClassName)
+                .addStatement("return $T.ofRaw(rs.$L(columnIndex))", lazyClassName, getter)
+                .build())
+            .addMethod(MethodSpec.methodBuilder("getNullableResult")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(CallableStatement.class, "cs")
+                .addParameter(int.class, "columnIndex")
+                .addException(SQLException.class)
+                .returns(lazyClassName)
+                .addStatement("return $T.ofRaw(cs.$L(columnIndex))", lazyClassName, getter)
+                .build())
+            .addMethod(decodeBuilder.build())
+            .addMethod(encodeBuilder.build());
+        addSerializers(typeBuilder, annotatedElementType, isElementParameterized,
+            holderClassName, codecClassName);
+        if (instrument) {
+            // 解码与编码推迟到包装类的 get() 与写回时，在 decode / encode 中记录
+            instrument(lazyHandlerClassName, typeBuilder, isBytesMode);
+        }
+        return typeBuilder.build();
+    }
+
+    /**
+     * 生成 @MappedJdbcTypes，未显式指定时按读写方式选择默认的 JdbcType
+     *
+     * @param annotation
+     * @param isBytesMode
+     * @return
+     */
+    protected AnnotationSpec mappedJdbcTypesAnnotation(MPTypeHandler annotation,
+        boolean isBytesMode) {
+        String[] jdbcTypes = annotation.jdbcTypes();
+        if (jdbcTypes.length == 0) {
+            jdbcTypes = isBytesMode
+                ? new String[]{"BLOB", "LONGVARBINARY", "VARBINARY"}
+                : new String[]{"VARCHAR", "LONGVARCHAR"};
+        }
+        CodeBlock.Builder valueBuilder = CodeBlock.builder().add("{");
+        for (int i = 0; i < jdbcTypes.length; i++) {
+            if (i > 0) {
+                valueBuilder.add(", ");
+            }
+            valueBuilder.add("$T.$L", JDBC_TYPE_CLASS_NAME, jdbcTypes[i]);
+        }
+        return AnnotationSpec.builder(ClassName.get("org.apache.ibatis.type", "MappedJdbcTypes"))
+            .addMember("value", valueBuilder.add("}").build())
+            .build();
+    }
+
+    /**
+     * 创建构造函数
+     *
+     * @return
+     */
+    protected MethodSpec constructorMethod() {
+        return MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(Class.class, "type")
+            .addStatement("super(type)")
+            .build();
+    }
+
+    /**
+     * 创建并配置默认的 ObjectMapper
+     *
+     * @param format
+     * @return
+     */
+    protected MethodSpec defaultObjectMapperMethod(MPTypeHandler.Format format) {
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("defaultObjectMapper")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(OBJECT_MAPPER_CLASS_NAME);
+        formatFactoryClassName(format).ifPresentOrElse(
+            factory -> methodBuilder.addStatement("$T mapper = new $T(new $T())",
+                OBJECT_MAPPER_CLASS_NAME, OBJECT_MAPPER_CLASS_NAME, factory),
+            () -> methodBuilder.addStatement("$T mapper = new $T()",
+                OBJECT_MAPPER_CLASS_NAME, OBJECT_MAPPER_CLASS_NAME));
+        return methodBuilder
+            // ObjectMapper 配置
+            .addStatement("mapper.registerModule(new $T())",
+                ClassName.get("com.fasterxml.jackson.datatype.jsr310", "JavaTimeModule"))
+            .addStatement("mapper.disable($T.$L)",
+                ClassName.get("com.fasterxml.jackson.databind", "SerializationFeature"),
+                "WRITE_DATES_AS_TIMESTAMPS")
+            .addStatement("mapper.registerModule(new $T())",
+                ClassName.get("com.fasterxml.jackson.datatype.jdk8", "Jdk8Module"))
+            .addStatement("mapper.disable($T.$L)",
+                ClassName.get("com.fasterxml.jackson.databind", "SerializationFeature"),
+                "FAIL_ON_EMPTY_BEANS")
+            .addStatement("mapper.disable($T.$L)",
+                ClassName.get("com.fasterxml.jackson.databind", "DeserializationFeature"),
+                "FAIL_ON_UNKNOWN_PROPERTIES")
+            .addStatement("mapper.disable($T.$L)",
+                ClassName.get("com.fasterxml.jackson.databind", "DeserializationFeature"),
+                "FAIL_ON_NULL_FOR_PRIMITIVES")
+            .addStatement("mapper.enable($T.$L)",
+                ClassName.get("com.fasterxml.jackson.databind", "DeserializationFeature"),
+                "ACCEPT_EMPTY_STRING_AS_NULL_OBJECT")
+            .addStatement("mapper.disable($T.$L)",
+                ClassName.get("com.fasterxml.jackson.databind", "DeserializationFeature"),
+                "FAIL_ON_NUMBERS_FOR_ENUMS")
+            .addStatement(
+                "mapper.configOverride($T.class).setSetterInfo($T.forContentNulls($T.AS_EMPTY))",
+                List.class,
+                ClassName.get("com.fasterxml.jackson.annotation", "JsonSetter", "Value"),
+                ClassName.get("com.fasterxml.jackson.annotation", "Nulls"))
+            .addStatement(
+                "mapper.configOverride($T.class).setSetterInfo($T.forValueNulls($T.AS_EMPTY))",
+                List.class,
+                ClassName.get("com.fasterxml.jackson.annotation", "JsonSetter", "Value"),
+                ClassName.get("com.fasterxml.jackson.annotation", "Nulls"))
+            .addStatement("return mapper")
+            .build();
+    }
+
+    protected MethodSpec parseMethod(TypeName annotatedElementType, ClassName codecClassName) {
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("parse")
+            .addAnnotation(ClassName.get("lombok", "SneakyThrows"))
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(String.class, "json")
+            .returns(annotatedElementType);
+        if (Objects.isNull(codecClassName)) {
+            return methodBuilder.addStatement("return serializers().reader.readValue(json)").build();
+        }
+        return methodBuilder.addCode(readWithCodec(codecClassName, "json")).build();
+    }
+
+    protected MethodSpec toJsonMethod(TypeName annotatedElementType, ClassName codecClassName,
+        boolean instrument) {
+        // 构建 toJson 方法
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("toJson")
+            .addAnnotation(ClassName.get("lombok", "SneakyThrows"))
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(annotatedElementType, "obj")
+            .returns(String.class);
+        if (Objects.isNull(codecClassName)) {
+            return methodBuilder.addCode(returnSerialized(String.class,
+                CodeBlock.of("serializers().writer.writeValueAsString(obj)"), "length()", instrument)).build();
+        }
+        return methodBuilder
+            .addStatement("$T writer = new $T()", StringWriter.class, StringWriter.class)
+            .addCode(writeWithCodec(codecClassName, "writer"))
+            .addCode(returnSerialized(String.class, CodeBlock.of("writer.toString()"), "length()",
+                instrument))
+            .build();
+    }
+
+    /**
+     * 返回序列化的结果，需要埋点时先记录其大小
+     *
+     * @param type
+     * @param result
+     * @param size       result 上获取大小的表达式
+     * @param instrument
+     * @return
+     */
+    protected CodeBlock returnSerialized(Class<?> type, CodeBlock result, String size,
+        boolean instrument) {
+        if (!instrument) {
+            return CodeBlock.builder().addStatement("return $L", result).build();
+        }
+        return CodeBlock.builder()
+            .addStatement("$T serialized = $L", type, result)
+            .addStatement("SERIALIZE_PAYLOAD.record(serialized.$L)", size)
+            .addStatement("return serialized")
+            .build();
+    }
+
+    /**
+     * 通过编解码器从 source 读取对象
+     *
+     * @param codecClassName
+     * @param source
+     * @return
+     */
+    protected CodeBlock readWithCodec(ClassName codecClassName, String source) {
+        return CodeBlock.builder()
+            .beginControlFlow("try ($T parser = factory().createParser($L))",
+                ClassName.get("com.fasterxml.jackson.core", "JsonParser"), source)
+            .addStatement("parser.nextToken()")
+            .addStatement("return $T.read(parser)", codecClassName)
+            .endControlFlow()
+            .build();
+    }
+
+    /**
+     * 通过编解码器将 obj 写入 target
+     *
+     * @param codecClassName
+     * @param target
+     * @return
+     */
+    protected CodeBlock writeWithCodec(ClassName codecClassName, String target) {
+        return CodeBlock.builder()
+            .beginControlFlow("try ($T generator = factory().createGenerator($L))",
+                ClassName.get("com.fasterxml.jackson.core", "JsonGenerator"), target)
+            .addStatement("$T.write(generator, obj)", codecClassName)
+            .endControlFlow()
+            .build();
+    }
+
+    protected MethodSpec setNonNullParameterMethod(TypeName annotatedElementType) {
+        return MethodSpec.methodBuilder("setNonNullParameter")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(PreparedStatement.class, "ps")
+            .addParameter(int.class, "i")
+            .addParameter(annotatedElementType, "parameter")
+            .addParameter(JDBC_TYPE_CLASS_NAME, "jdbcType")
+            .addException(SQLException.class)
+            .addStatement("ps.setBytes(i, toBytes(parameter))")
+            .build();
+    }
+
+    protected MethodSpec getNullableResultByColumnNameMethod(TypeName annotatedElementType,
+        boolean instrument) {
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("getNullableResult")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(ResultSet.class, "rs")
+            .addParameter(String.class, "columnName")
+            .addException(SQLException.class)
+            .returns(annotatedElementType);
+        if (instrument) {
+            // 埋点需要记录内容大小，读入字节数组后再解析
+            return methodBuilder.addStatement("return parse(rs.getBytes(columnName))").build();
+        }
+        return methodBuilder.addStatement("return parse(rs.getBinaryStream(columnName))").build();
+    }
+
+    protected MethodSpec getNullableResultByColumnIndexMethod(TypeName annotatedElementType,
+        boolean instrument) {
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("getNullableResult")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(ResultSet.class, "rs")
+            .addParameter(int.class, "columnIndex")
+            .addException(SQLException.class)
+            .returns(annotatedElementType);
+        if (instrument) {
+            // 埋点需要记录内容大小，读入字节数组后再解析
+            return methodBuilder.addStatement("return parse(rs.getBytes(columnIndex))").build();
+        }
+        return methodBuilder.addStatement("return parse(rs.getBinaryStream(columnIndex))").build();
+    }
+
+    protected MethodSpec getNullableResultFromCallableMethod(TypeName annotatedElementType) {
+        return MethodSpec.methodBuilder("getNullableResult")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(CallableStatement.class, "cs")
+            .addParameter(int.class, "columnIndex")
+            .addException(SQLException.class)
+            .returns(annotatedElementType)
+            .addStatement("return parse(cs.getBytes(columnIndex))")
+            .build();
+    }
+
+    protected MethodSpec parseStreamMethod(TypeName annotatedElementType,
+        ClassName codecClassName) {
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("parse")
+            .addAnnotation(ClassName.get("lombok", "SneakyThrows"))
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(InputStream.class, "stream")
+            .returns(annotatedElementType)
+            .beginControlFlow("if (stream == null)")
+            .addStatement("return null")
+            .endControlFlow();
+        if (Objects.isNull(codecClassName)) {
+            return methodBuilder
+                .beginControlFlow("try (stream)")
+                .addStatement("return serializers().reader.readValue(stream)")
+                .endControlFlow()
+                .build();
+        }
+        // parser 关闭时一并关闭 stream
+        return methodBuilder.addCode(readWithCodec(codecClassName, "stream")).build();
+    }
+
+    protected MethodSpec parseBytesMethod(TypeName annotatedElementType,
+        ClassName codecClassName) {
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("parse")
+            .addAnnotation(ClassName.get("lombok", "SneakyThrows"))
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(byte[].class, "bytes")
+            .returns(annotatedElementType);
+        if (Objects.isNull(codecClassName)) {
+            return methodBuilder
+                .addStatement("return bytes == null ? null : serializers().reader.readValue(bytes)")
+                .build();
+        }
+        return methodBuilder
+            .beginControlFlow("if (bytes == null)")
+            .addStatement("return null")
+            .endControlFlow()
+            .addCode(readWithCodec(codecClassName, "bytes"))
+            .build();
+    }
+
+    protected MethodSpec toBytesMethod(TypeName annotatedElementType, ClassName codecClassName,
+        boolean instrument) {
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("toBytes")
+            .addAnnotation(ClassName.get("lombok", "SneakyThrows"))
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(annotatedElementType, "obj")
+            .returns(byte[].class);
+        if (Objects.isNull(codecClassName)) {
+            return methodBuilder.addCode(returnSerialized(byte[].class,
+                CodeBlock.of("serializers().writer.writeValueAsBytes(obj)"), "length", instrument)).build();
+        }
+        return methodBuilder
+            .addStatement("$T output = new $T()", ByteArrayOutputStream.class,
+                ByteArrayOutputStream.class)
+            .addCode(writeWithCodec(codecClassName, "output"))
+            .addCode(returnSerialized(byte[].class, CodeBlock.of("output.toByteArray()"), "length",
+                instrument))
+            .build();
+    }
+}
@@ -0,0 +1,137 @@
+package cc.ddrpa.dorian.norbo.model;
+
+import com.squareup.javapoet.TypeName;
+import javax.lang.model.element.VariableElement;
+
+/**
+ * 实体类属性与数据库列的映射，按 MyBatis-Plus 的默认规则在编译期推断
+ *
+ * @param field           属性
+ * @param propertyName    属性名
+ * @param columnName      列名，来自 {@code @TableId} / {@code @TableField} 的 value，未指定时为属性名的下划线形式
+ * @param type            属性类型
+ * @param id              是否为主键
+ * @param autoIncrement   主键是否由数据库生成（{@code IdType.AUTO}），插入时不写入该列
+ * @param typeHandler     {@code @TableField} 指定的 TypeHandler 全限定名，未指定时为 null
+ * @param jdbcType        {@code @TableField} 指定的 JdbcType 名称，未指定时为 null
+ * @param select          查询时是否默认包含该列，来自 {@code @TableField(select = ...)}
+ * @param version         是否为 {@code @Version} 修饰的乐观锁版本列
+ * @param logicNotDeleteValue 逻辑删除列未删除时的值，来自 {@code @TableLogic}，非逻辑删除列为 null
+ * @param fill            {@code @TableField(fill = ...)} 的 FieldFill 名称，未指定时为 {@code DEFAULT}
+ * @param whereStrategy   {@code @TableField(whereStrategy = ...)} 的 FieldStrategy 名称，未指定时为 {@code DEFAULT}
+ * @param condition       {@code @TableField(condition = ...)} 指定的条件格式，未指定时为 null
+ */
+public record ColumnModel(VariableElement field,
+                          String propertyName,
+                          String columnName,
+                          TypeName type,
+                          boolean id,
+                          boolean autoIncrement,
+                          String typeHandler,
+                          String jdbcType,
+                          boolean select,
+                          boolean version,
+                          String logicNotDeleteValue,
+                          String fill,
+                          String whereStrategy,
+                          String condition) {
+
+    /**
+     * 是否为 {@code @TableLogic} 修饰的逻辑删除列
+     *
+     * @return
+     */
+    public boolean logicDelete() {
+        return logicNotDeleteValue != null;
+    }
+
+    /**
+     * 是否只在插入时自动填充（{@code FieldFill.INSERT}），如创建时间、创建人
+     *
+     * @return
+     */
+    public boolean insertFill() {
+        return "INSERT".equals(fill);
+    }
+
+    /**
+     * 筛选未删除记录的条件，与 MyBatis-Plus 一致，字符串类型的值使用单引号，{@code null} 使用 IS NULL
+     *
+     * @return
+     */
+    public String logicNotDeletedCondition() {
+        if ("null".equalsIgnoreCase(logicNotDeleteValue)) {
+            return columnName + " IS NULL";
+        }
+        return columnName + " = " + (String.class.getName().equals(type.toString())
+            ? "'" + logicNotDeleteValue + "'" : logicNotDeleteValue);
+    }
+
+    /**
+     * 按 JavaBean 规范推断的 getter 方法名，基本类型 boolean 使用 is 前缀
+     *
+     * @return
+     */
+    public String getterName() {
+        String prefix = TypeName.BOOLEAN.equals(type) ? "is" : "get";
+        return prefix + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+    }
+
+    /**
+     * 按 JavaBean 规范推断的 setter 方法名
+     *
+     * @return
+     */
+    public String setterName() {
+        return "set" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+    }
+
+    /**
+     * 生成的 Mapper 中列名常量的名称，如 {@code createTime} 对应 {@code COLUMN_CREATE_TIME}
+     *
+     * @return
+     */
+    public String constantName() {
+        return "COLUMN_" + propertyName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+    }
+
+    /**
+     * MyBatis 参数占位符，如 {@code #{item.name,typeHandler=...}}
+     *
+     * @param prefix 参数前缀，如 {@code item}
+     * @return
+     */
+    public String placeholder(String prefix) {
+        StringBuilder builder = new StringBuilder("#{");
+        if (!prefix.isEmpty()) {
+            builder.append(prefix).append('.');
+        }
+        builder.append(propertyName);
+        String mapping = parameterMapping();
+        if (mapping != null) {
+            builder.append(',').append(mapping);
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * 占位符中属性名之后的部分，如 {@code typeHandler=...,jdbcType=...}，都未指定时为 null
+     * <p>
+     * 也用于 {@code UpdateWrapper#set(column, val, mapping)}
+     *
+     * @return
+     */
+    public String parameterMapping() {
+        if (typeHandler == null && jdbcType == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        if (typeHandler != null) {
+            builder.append("typeHandler=").append(typeHandler);
+        }
+        if (jdbcType != null) {
+            builder.append(builder.isEmpty() ? "" : ",").append("jdbcType=").append(jdbcType);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package cc.ddrpa.dorian.norbo.model;
+
+import cc.ddrpa.dorian.norbo.jeecgboot.annotation.JeecgBootController;
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPMapper;
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPRepository;
+import com.squareup.javapoet.ClassName;
+import java.util.List;
+import java.util.Optional;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * 实体类模型，每一轮处理中只构建一次，供各个生成器共享
+ * <p>
+ * 未使用的注解对应的属性为 null，但生成类的类名总会被推断出来，以便生成器之间相互引用
+ *
+ * @param element             实体类
+ * @param entityClassName     实体类类名
+ * @param mapper              实体类上的 {@code @MPMapper}
+ * @param mapperClassName     Mapper 类名
+ * @param repository          实体类上的 {@code @MPRepository}
+ * @param repositoryClassName Repository 类名
+ * @param repositoryBeanName  Repository 的 bean name
+ * @param controller          实体类上的 {@code @JeecgBootController}
+ * @param controllerClassName Controller 类名
+ * @param tableName           表名
+ * @param autoResultMap       是否使用 MyBatis-Plus 自动生成的 ResultMap
+ * @param columns             映射到数据库列的属性
+ */
+public record EntityModel(TypeElement element,
+                          ClassName entityClassName,
+                          MPMapper mapper,
+                          ClassName mapperClassName,
+                          MPRepository repository,
+                          ClassName repositoryClassName,
+                          String repositoryBeanName,
+                          JeecgBootController controller,
+                          ClassName controllerClassName,
+                          String tableName,
+                          boolean autoResultMap,
+                          List<ColumnModel> columns) {
+
+    /**
+     * 主键列
+     *
+     * @return
+     */
+    public Optional<ColumnModel> idColumn() {
+        return columns.stream().filter(ColumnModel::id).findFirst();
+    }
+
+    /**
+     * 逻辑删除列
+     *
+     * @return
+     */
+    public Optional<ColumnModel> logicDeleteColumn() {
+        return columns.stream().filter(ColumnModel::logicDelete).findFirst();
+    }
+
+    /**
+     * 推断 bean name
+     * <p>
+     * 一般为首字母小写；如果连续 N 个字母为大写，则前 N-1 个字母小写
+     *
+     * @param simpleClassName
+     * @return
+     */
+    public static String beanName(String simpleClassName) {
+        int charCount = 0;
+        while (charCount < simpleClassName.length()
+            && Character.isUpperCase(simpleClassName.charAt(charCount))) {
+            charCount++;
+        }
+        if (charCount <= 1) {
+            // 第二个字母为小写，按常见驼峰处理
+            return simpleClassName.substring(0, 1).toLowerCase() + simpleClassName.substring(1);
+        }
+        // 第 N 个字母为小写，前 N-1 个字母小写
+        return simpleClassName.substring(0, charCount - 1).toLowerCase()
+            + simpleClassName.substring(charCount - 1);
+    }
+}
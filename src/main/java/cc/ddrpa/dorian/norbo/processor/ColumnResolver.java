@@ -0,0 +1,220 @@
+package cc.ddrpa.dorian.norbo.processor;
+
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPTypeHandler;
+import cc.ddrpa.dorian.norbo.mabtisplus.generator.MPTypeHandlerGenerator;
+import cc.ddrpa.dorian.norbo.model.ColumnModel;
+import cc.ddrpa.dorian.norbo.util.AnnotationIndex;
+import cc.ddrpa.dorian.norbo.util.AnnotationIndex.IndexedAnnotation;
+import com.squareup.javapoet.TypeName;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * 按 MyBatis-Plus 的默认规则，从 {@code @TableName}、{@code @TableId}、{@code @TableField} 推断表名与列
+ * <p>
+ * 只读取注解，不考虑全局配置中的表名前缀、列名格式等设置
+ */
+class ColumnResolver {
+
+    private static final String TABLE_NAME = "com.baomidou.mybatisplus.annotation.TableName";
+    private static final String TABLE_ID = "com.baomidou.mybatisplus.annotation.TableId";
+    private static final String TABLE_FIELD = "com.baomidou.mybatisplus.annotation.TableField";
+    private static final String TABLE_LOGIC = "com.baomidou.mybatisplus.annotation.TableLogic";
+    private static final String VERSION = "com.baomidou.mybatisplus.annotation.Version";
+    private static final String UNKNOWN_TYPE_HANDLER = "org.apache.ibatis.type.UnknownTypeHandler";
+    private static final String DEFAULT_ID_NAME = "id";
+    /**
+     * {@code @TableLogic} 未指定 value 时，MyBatis-Plus 全局配置的默认值
+     */
+    private static final String DEFAULT_LOGIC_NOT_DELETE_VALUE = "0";
+
+    private final GeneratorContext context;
+    private final AnnotationIndex annotations;
+
+    ColumnResolver(GeneratorContext context) {
+        this.context = context;
+        this.annotations = context.annotations();
+    }
+
+    /**
+     * 表名，{@code @TableName} 未指定时为类名的下划线形式
+     *
+     * @param element
+     * @return
+     */
+    String tableName(TypeElement element) {
+        Optional<IndexedAnnotation> annotation = annotations.get(element, TABLE_NAME);
+        String tableName = annotation.flatMap(a -> a.getString("value"))
+            .orElseGet(() -> camelToUnderline(element.getSimpleName().toString()));
+        return annotation.flatMap(a -> a.getString("schema"))
+            .map(schema -> schema + "." + tableName)
+            .orElse(tableName);
+    }
+
+    /**
+     * 是否通过 {@code @TableName(autoResultMap = true)} 让 MyBatis-Plus 生成包含 TypeHandler 的 ResultMap
+     *
+     * @param element
+     * @return
+     */
+    boolean autoResultMap(TypeElement element) {
+        return annotations.get(element, TABLE_NAME)
+            .map(a -> a.getBoolean("autoResultMap", false))
+            .orElse(false);
+    }
+
+    /**
+     * 映射到数据库列的属性，父类的属性在前；静态、transient 以及 {@code @TableField(exist = false)} 的属性被忽略
+     *
+     * @param element
+     * @return
+     */
+    List<ColumnModel> columns(TypeElement element) {
+        Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        for (TypeElement current = element; current != null; current = superclass(current)) {
+            hierarchy.push(current);
+        }
+        boolean hasTableId = false;
+        Map<String, VariableElement> fields = new LinkedHashMap<>();
+        for (TypeElement type : hierarchy) {
+            for (Element enclosed : type.getEnclosedElements()) {
+                if (enclosed.getKind() != ElementKind.FIELD
+                    || enclosed.getModifiers().contains(Modifier.STATIC)
+                    || enclosed.getModifiers().contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                if (!annotations.get(enclosed, TABLE_FIELD)
+                    .map(a -> a.getBoolean("exist", true))
+                    .orElse(true)) {
+                    continue;
+                }
+                hasTableId |= annotations.has(enclosed, TABLE_ID);
+                // 子类的同名属性覆盖父类的属性
+                String name = enclosed.getSimpleName().toString();
+                fields.remove(name);
+                fields.put(name, (VariableElement) enclosed);
+            }
+        }
+        List<ColumnModel> columns = new ArrayList<>(fields.size());
+        for (VariableElement field : fields.values()) {
+            columns.add(column(field, hasTableId));
+        }
+        return columns;
+    }
+
+    private ColumnModel column(VariableElement field, boolean hasTableId) {
+        String propertyName = field.getSimpleName().toString();
+        Optional<IndexedAnnotation> tableId = annotations.get(field, TABLE_ID);
+        Optional<IndexedAnnotation> tableField = annotations.get(field, TABLE_FIELD);
+        // 没有 @TableId 时，MyBatis-Plus 将名为 id 的属性作为主键
+        boolean id = tableId.isPresent() || (!hasTableId && DEFAULT_ID_NAME.equals(propertyName));
+        String columnName = tableId.or(() -> tableField)
+            .flatMap(a -> a.getString("value"))
+            .orElseGet(() -> camelToUnderline(propertyName));
+        boolean autoIncrement = tableId.flatMap(a -> a.getEnum("type"))
+            .map("AUTO"::equals)
+            .orElse(false);
+        String typeHandler = tableField
+            .flatMap(a -> a.explicitValue("typeHandler"))
+            .flatMap(v -> typeHandlerName(v, field))
+            .filter(name -> !UNKNOWN_TYPE_HANDLER.equals(name))
+            .orElse(null);
+        String jdbcType = tableField.flatMap(a -> a.getEnum("jdbcType"))
+            .filter(name -> !"UNDEFINED".equals(name))
+            .orElse(null);
+        boolean select = tableField
+            .map(a -> a.getBoolean("select", true))
+            .orElse(true);
+        String logicNotDeleteValue = annotations.get(field, TABLE_LOGIC)
+            .map(a -> a.getString("value").orElse(DEFAULT_LOGIC_NOT_DELETE_VALUE))
+            .orElse(null);
+        String fill = tableField.flatMap(a -> a.getEnum("fill"))
+            .orElse("DEFAULT");
+        String whereStrategy = tableField.flatMap(a -> a.getEnum("whereStrategy"))
+            .orElse("DEFAULT");
+        String condition = tableField.flatMap(a -> a.getString("condition"))
+            .orElse(null);
+        return new ColumnModel(field, propertyName, columnName, TypeName.get(field.asType()),
+            id, autoIncrement, typeHandler, jdbcType, select, annotations.has(field, VERSION),
+            logicNotDeleteValue, fill, whereStrategy, condition);
+    }
+
+    /**
+     * TypeHandler 的二进制名，MyBatis 按二进制名加载类，嵌套类需要使用 Outer$Inner 的形式
+     * <p>
+     * 本轮才生成的 TypeHandler 无法解析，javac 也不保留源码中的类名，此时按属性或属性类型上的
+     * {@code @MPTypeHandler} 推断将要生成的类名
+     *
+     * @param annotationValue
+     * @param field
+     * @return
+     */
+    private Optional<String> typeHandlerName(AnnotationValue annotationValue,
+        VariableElement field) {
+        if (annotationValue.getValue() instanceof DeclaredType declaredType) {
+            return Optional.of(context.getElementUtils()
+                .getBinaryName((TypeElement) declaredType.asElement())
+                .toString());
+        }
+        Element annotated = field;
+        MPTypeHandler annotation = field.getAnnotation(MPTypeHandler.class);
+        if (Objects.isNull(annotation) && field.asType().getKind() == TypeKind.DECLARED) {
+            annotated = ((DeclaredType) field.asType()).asElement();
+            annotation = annotated.getAnnotation(MPTypeHandler.class);
+        }
+        if (Objects.isNull(annotation)) {
+            context.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "Cannot resolve typeHandler, it will be omitted from generated batch SQL",
+                field);
+            return Optional.empty();
+        }
+        return Optional.of(context.packageName(annotated, MPTypeHandler.class) + "."
+            + MPTypeHandlerGenerator.typeHandlerSimpleName(field.asType(), annotation.format()));
+    }
+
+    /**
+     * 与 MyBatis-Plus 的 {@code StringUtils.camelToUnderline} 一致
+     *
+     * @param name
+     * @return
+     */
+    static String camelToUnderline(String name) {
+        StringBuilder builder = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                builder.append('_');
+            }
+            builder.append(Character.toLowerCase(c));
+        }
+        return builder.toString();
+    }
+
+    private static TypeElement superclass(TypeElement element) {
+        TypeMirror superclass = element.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement superElement = (TypeElement) ((DeclaredType) superclass).asElement();
+        if (superElement.getQualifiedName().contentEquals(Object.class.getCanonicalName())) {
+            return null;
+        }
+        return superElement;
+    }
+}
@@ -0,0 +1,28 @@
+package cc.ddrpa.dorian.norbo.processor;
+
+/**
+ * 代码生成器
+ * <p>
+ * 由 {@link NorboProcessor} 通过 {@link java.util.ServiceLoader} 加载，实现类需要在
+ * {@code META-INF/services/cc.ddrpa.dorian.norbo.processor.Generator} 中注册，并提供无参构造函数
+ */
+public interface Generator {
+
+    /**
+     * 在每一轮处理中被调用一次
+     *
+     * @param context
+     */
+    void generate(GeneratorContext context);
+
+    /**
+     * 生成同一个包下共享的类，由 {@link NorboSharedProcessor} 在每一轮处理中调用一次
+     * <p>
+     * 共享类的内容取决于包中所有被注解的元素，在 Gradle 中需要由 aggregating 处理器生成；
+     * {@link #generate(GeneratorContext)} 只生成与单个被注解元素对应的类
+     *
+     * @param context
+     */
+    default void generateShared(GeneratorContext context) {
+    }
+}
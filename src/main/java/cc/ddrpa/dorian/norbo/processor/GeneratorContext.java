@@ -0,0 +1,193 @@
+package cc.ddrpa.dorian.norbo.processor;
+
+import cc.ddrpa.dorian.norbo.jeecgboot.annotation.JeecgBootController;
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPMapper;
+import cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPRepository;
+import cc.ddrpa.dorian.norbo.model.EntityModel;
+import cc.ddrpa.dorian.norbo.util.AnnotationIndex;
+import cc.ddrpa.dorian.norbo.util.AnnotationIndex.IndexedAnnotation;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeSpec;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * 一轮处理中各个生成器共享的上下文
+ * <p>
+ * 实体模型在首次访问时构建，此后同一轮内的生成器直接复用
+ */
+public class GeneratorContext {
+
+    private final ProcessingEnvironment processingEnv;
+    private final RoundEnvironment roundEnv;
+    private final AnnotationIndex annotations;
+    private List<EntityModel> entities;
+
+    public GeneratorContext(ProcessingEnvironment processingEnv, RoundEnvironment roundEnv) {
+        this.processingEnv = processingEnv;
+        this.roundEnv = roundEnv;
+        this.annotations = new AnnotationIndex(processingEnv.getElementUtils());
+    }
+
+    public Elements getElementUtils() {
+        return processingEnv.getElementUtils();
+    }
+
+    public Types getTypeUtils() {
+        return processingEnv.getTypeUtils();
+    }
+
+    public Filer getFiler() {
+        return processingEnv.getFiler();
+    }
+
+    public Messager getMessager() {
+        return processingEnv.getMessager();
+    }
+
+    public RoundEnvironment getRoundEnv() {
+        return roundEnv;
+    }
+
+    /**
+     * 本轮共享的注解索引
+     *
+     * @return
+     */
+    public AnnotationIndex annotations() {
+        return annotations;
+    }
+
+    /**
+     * 编译的源代码版本，生成代码时据此决定可以使用的 API
+     *
+     * @return
+     */
+    public SourceVersion getSourceVersion() {
+        return processingEnv.getSourceVersion();
+    }
+
+    /**
+     * 本轮被 {@code @MPMapper}、{@code @MPRepository} 或 {@code @JeecgBootController} 修饰的实体类
+     *
+     * @return
+     */
+    public List<EntityModel> entities() {
+        if (Objects.isNull(entities)) {
+            entities = Collections.unmodifiableList(buildEntities());
+        }
+        return entities;
+    }
+
+    /**
+     * 推断生成类的 packageName
+     * <p>
+     * 依次使用注解的 packageName、value 属性，都未指定时与被修饰元素位于同一个包下
+     *
+     * @param annotatedElement
+     * @param annotationType
+     * @return
+     */
+    public String packageName(Element annotatedElement,
+        Class<? extends Annotation> annotationType) {
+        Optional<IndexedAnnotation> annotation = annotations.get(annotatedElement,
+            annotationType.getCanonicalName());
+        for (String propertyName : List.of("packageName", "value")) {
+            Optional<String> optionalValue = annotation.flatMap(a -> a.getString(propertyName));
+            if (optionalValue.isPresent()) {
+                return optionalValue.get();
+            }
+        }
+        return getElementUtils().getPackageOf(annotatedElement).getQualifiedName()
+            .toString();
+    }
+
+    /**
+     * 写出生成类，失败时在被修饰元素上报告错误
+     *
+     * @param className
+     * @param typeSpec
+     * @param annotatedElement
+     */
+    public void write(ClassName className, TypeSpec typeSpec, Element annotatedElement) {
+        JavaFile file = JavaFile.builder(className.packageName(), typeSpec).build();
+        try {
+            file.writeTo(getFiler());
+        } catch (IOException e) {
+            getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Failed to write file for element",
+                annotatedElement);
+        }
+    }
+
+    private List<EntityModel> buildEntities() {
+        ColumnResolver columnResolver = new ColumnResolver(this);
+        Set<TypeElement> elements = new LinkedHashSet<>();
+        for (Class<? extends Annotation> annotationType : List.of(MPMapper.class,
+            MPRepository.class, JeecgBootController.class)) {
+            for (Element annotatedElement : roundEnv.getElementsAnnotatedWith(annotationType)) {
+                if (!annotatedElement.getKind().isClass()) {
+                    getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        String.format("Only class can be annotated with @%s",
+                            annotationType.getSimpleName()),
+                        annotatedElement);
+                    continue;
+                }
+                elements.add((TypeElement) annotatedElement);
+            }
+        }
+        List<EntityModel> models = new ArrayList<>(elements.size());
+        for (TypeElement element : elements) {
+            models.add(buildEntity(element, columnResolver));
+        }
+        return models;
+    }
+
+    private EntityModel buildEntity(TypeElement element, ColumnResolver columnResolver) {
+        String simpleName = element.getSimpleName().toString();
+        String entityPackageName = getElementUtils().getPackageOf(element).getQualifiedName()
+            .toString();
+        MPMapper mapper = element.getAnnotation(MPMapper.class);
+        MPRepository repository = element.getAnnotation(MPRepository.class);
+        JeecgBootController controller = element.getAnnotation(JeecgBootController.class);
+
+        // 未使用 @MPRepository 时，假定存储类与实体类位于同一个包下
+        String repositoryPackageName = Objects.nonNull(repository)
+            ? packageName(element, MPRepository.class) : entityPackageName;
+        // 未使用 @MPMapper 时，假定 Mapper 与存储类位于同一个包下
+        String mapperPackageName = Objects.nonNull(mapper)
+            ? packageName(element, MPMapper.class) : repositoryPackageName;
+        ClassName repositoryClassName = ClassName.get(repositoryPackageName,
+            simpleName + "Repository");
+        return new EntityModel(element,
+            ClassName.get(element),
+            mapper,
+            ClassName.get(mapperPackageName, simpleName + "Mapper"),
+            repository,
+            repositoryClassName,
+            EntityModel.beanName(repositoryClassName.simpleName()),
+            controller,
+            ClassName.get(entityPackageName, simpleName + "Controller"),
+            columnResolver.tableName(element),
+            columnResolver.autoResultMap(element),
+            columnResolver.columns(element));
+    }
+}
@@ -0,0 +1,74 @@
+package cc.ddrpa.dorian.norbo.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * 统一的注解处理器
+ * <p>
+ * 每一轮只扫描一次被注解的元素并构建实体模型，再依次交给各个 {@link Generator} 生成代码；
+ * 同一个包下共享的类由 {@link NorboSharedProcessor} 生成
+ */
+@SupportedAnnotationTypes({
+    "cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPMapper",
+    "cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPRepository",
+    "cc.ddrpa.dorian.norbo.mabtisplus.annotation.MPTypeHandler",
+    "cc.ddrpa.dorian.norbo.jeecgboot.annotation.JeecgBootController"})
+public class NorboProcessor extends AbstractProcessor {
+
+    private final List<Generator> generators = new ArrayList<>();
+
+    public NorboProcessor() {
+        super();
+    }
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        for (Generator generator : ServiceLoader.load(Generator.class,
+            NorboProcessor.class.getClassLoader())) {
+            generators.add(generator);
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // @SupportedAnnotationTypes 不会被继承，NorboSharedProcessor 处理同一组注解
+        return Set.of(NorboProcessor.class.getAnnotation(SupportedAnnotationTypes.class).value());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (annotations.isEmpty()) {
+            return false;
+        }
+        GeneratorContext context = new GeneratorContext(processingEnv, roundEnv);
+        for (Generator generator : generators) {
+            generate(generator, context);
+        }
+        return false;
+    }
+
+    /**
+     * 生成与单个被注解元素对应的类，在 Gradle 中为 isolating 处理器
+     *
+     * @param generator
+     * @param context
+     */
+    protected void generate(Generator generator, GeneratorContext context) {
+        generator.generate(context);
+    }
+}
@@ -0,0 +1,15 @@
+package cc.ddrpa.dorian.norbo.processor;
+
+/**
+ * 生成同一个包下共享的类，如 TypeHandler 共享的 ObjectMapperHolder、ListTotalCache 与 ExcelImportSupport
+ * <p>
+ * 共享类依赖包中所有被注解的元素，在 Gradle 中为 aggregating 处理器；与单个元素对应的类仍由
+ * isolating 的 {@link NorboProcessor} 生成，修改被注解的类时只需重新处理这一部分
+ */
+public class NorboSharedProcessor extends NorboProcessor {
+
+    @Override
+    protected void generate(Generator generator, GeneratorContext context) {
+        generator.generateShared(context);
+    }
+}
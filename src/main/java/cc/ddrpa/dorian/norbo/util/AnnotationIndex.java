@@ -0,0 +1,177 @@
+package cc.ddrpa.dorian.norbo.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.Elements;
+
+/**
+ * 一轮处理中元素上注解的索引
+ * <p>
+ * 每个元素的注解只在首次访问时遍历一次，按注解类型的 {@link TypeElement} 查找，不再比较类型的字符串形式；
+ * 属性值在建立索引时解析，未显式指定的属性使用注解声明中的默认值
+ */
+public class AnnotationIndex {
+
+    private final Elements elementUtils;
+    /**
+     * 注解类名对应的 TypeElement，不在 classpath 中的注解为 null
+     */
+    private final Map<String, TypeElement> annotationTypes = new HashMap<>();
+    private final Map<Element, Map<TypeElement, IndexedAnnotation>> annotations = new IdentityHashMap<>();
+
+    public AnnotationIndex(Elements elementUtils) {
+        this.elementUtils = elementUtils;
+    }
+
+    /**
+     * 元素上的注解
+     *
+     * @param element
+     * @param annotationClassName 注解的全限定名
+     * @return
+     */
+    public Optional<IndexedAnnotation> get(Element element, String annotationClassName) {
+        TypeElement annotationType = annotationTypes.computeIfAbsent(annotationClassName,
+            elementUtils::getTypeElement);
+        if (Objects.isNull(annotationType)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(annotationsOf(element).get(annotationType));
+    }
+
+    /**
+     * 元素上是否存在注解
+     *
+     * @param element
+     * @param annotationClassName 注解的全限定名
+     * @return
+     */
+    public boolean has(Element element, String annotationClassName) {
+        return get(element, annotationClassName).isPresent();
+    }
+
+    private Map<TypeElement, IndexedAnnotation> annotationsOf(Element element) {
+        return annotations.computeIfAbsent(element, e -> {
+            List<? extends AnnotationMirror> mirrors = e.getAnnotationMirrors();
+            if (mirrors.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            Map<TypeElement, IndexedAnnotation> indexed = new IdentityHashMap<>(mirrors.size());
+            for (AnnotationMirror mirror : mirrors) {
+                indexed.put((TypeElement) mirror.getAnnotationType().asElement(),
+                    new IndexedAnnotation(mirror, elementUtils));
+            }
+            return indexed;
+        });
+    }
+
+    /**
+     * 索引中的一个注解，属性值按属性名保存
+     */
+    public static class IndexedAnnotation {
+
+        private final AnnotationMirror mirror;
+        private final Map<String, AnnotationValue> values = new HashMap<>();
+        private final Map<String, AnnotationValue> explicitValues = new HashMap<>();
+
+        IndexedAnnotation(AnnotationMirror mirror, Elements elementUtils) {
+            this.mirror = mirror;
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues()
+                .entrySet()) {
+                explicitValues.put(entry.getKey().getSimpleName().toString(), entry.getValue());
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elementUtils.getElementValuesWithDefaults(
+                mirror).entrySet()) {
+                values.put(entry.getKey().getSimpleName().toString(), entry.getValue());
+            }
+        }
+
+        public AnnotationMirror mirror() {
+            return mirror;
+        }
+
+        /**
+         * 属性值，未显式指定时为注解声明中的默认值
+         *
+         * @param propertyName
+         * @return
+         */
+        public Optional<AnnotationValue> value(String propertyName) {
+            return Optional.ofNullable(values.get(propertyName));
+        }
+
+        /**
+         * 显式指定的属性值，用于默认值与未指定需要区别处理的场合
+         *
+         * @param propertyName
+         * @return
+         */
+        public Optional<AnnotationValue> explicitValue(String propertyName) {
+            return Optional.ofNullable(explicitValues.get(propertyName));
+        }
+
+        /**
+         * 字符串属性，空白字符串视为未指定
+         *
+         * @param propertyName
+         * @return
+         */
+        public Optional<String> getString(String propertyName) {
+            return value(propertyName)
+                .map(AnnotationValue::getValue)
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .filter(s -> !s.isBlank());
+        }
+
+        /**
+         * 字符串数组属性，未指定时为注解声明中的默认值
+         *
+         * @param propertyName
+         * @return
+         */
+        public List<String> getStringArray(String propertyName) {
+            return value(propertyName)
+                .map(AnnotationValue::getValue)
+                .filter(List.class::isInstance)
+                .map(v -> ((List<?>) v).stream()
+                    .map(item -> ((AnnotationValue) item).getValue())
+                    .filter(String.class::isInstance)
+                    .map(String.class::cast)
+                    .toList())
+                .orElse(List.of());
+        }
+
+        public boolean getBoolean(String propertyName, boolean defaultValue) {
+            return value(propertyName)
+                .map(AnnotationValue::getValue)
+                .filter(Boolean.class::isInstance)
+                .map(Boolean.class::cast)
+                .orElse(defaultValue);
+        }
+
+        /**
+         * 枚举属性的常量名
+         *
+         * @param propertyName
+         * @return
+         */
+        public Optional<String> getEnum(String propertyName) {
+            return value(propertyName)
+                .map(AnnotationValue::getValue)
+                .filter(VariableElement.class::isInstance)
+                .map(v -> ((VariableElement) v).getSimpleName().toString());
+        }
+    }
+}
@@ -8,14 +8,23 @@ import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeMirror;
 
 public class AnnotationUtils {
 
+    /**
+     * 逐个比较元素上的注解；在一轮处理中多次查找时使用 {@link AnnotationIndex}
+     *
+     * @param element
+     * @param annotationClassName
+     * @return
+     */
     public static Optional<AnnotationMirror> getAnnotationMirror(Element element,
         String annotationClassName) {
         for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
-            if (mirror.getAnnotationType().toString().equals(annotationClassName)) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName()
+                .contentEquals(annotationClassName)) {
                 return Optional.of(mirror);
             }
         }
@@ -0,0 +1,24 @@
+package cc.ddrpa.dorian.norbo.util;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+
+public class ElementUtils {
+
+    /**
+     * 获取元素所在的顶层类型
+     * <p>
+     * 作为生成文件的 originating element，供 Gradle 等构建工具的增量编译追踪生成文件的来源
+     *
+     * @param element
+     * @return
+     */
+    public static TypeElement topLevelType(Element element) {
+        Element current = element;
+        while (!(current.getEnclosingElement() instanceof PackageElement)) {
+            current = current.getEnclosingElement();
+        }
+        return (TypeElement) current;
+    }
+}
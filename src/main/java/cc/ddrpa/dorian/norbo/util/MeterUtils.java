@@ -0,0 +1,125 @@
+package cc.ddrpa.dorian.norbo.util;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import java.util.concurrent.TimeUnit;
+import javax.lang.model.element.Modifier;
+
+/**
+ * 生成 Micrometer 埋点代码
+ * <p>
+ * 指标在静态字段中注册到 {@code Metrics.globalRegistry}，调用时不再查找标签或拼接字符串
+ */
+public class MeterUtils {
+
+    public static final ClassName TIMER_CLASS_NAME = ClassName.get(
+        "io.micrometer.core.instrument", "Timer");
+    public static final ClassName DISTRIBUTION_SUMMARY_CLASS_NAME = ClassName.get(
+        "io.micrometer.core.instrument", "DistributionSummary");
+    private static final ClassName METRICS_CLASS_NAME = ClassName.get(
+        "io.micrometer.core.instrument", "Metrics");
+
+    /**
+     * 静态的 Timer 字段
+     *
+     * @param fieldName
+     * @param meterName
+     * @param tags      依次为标签名与标签值
+     * @return
+     */
+    public static FieldSpec timerField(String fieldName, String meterName, String... tags) {
+        return FieldSpec.builder(TIMER_CLASS_NAME, fieldName,
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer(meterInitializer(TIMER_CLASS_NAME, meterName, null, tags))
+            .build();
+    }
+
+    /**
+     * 静态的 DistributionSummary 字段
+     *
+     * @param fieldName
+     * @param meterName
+     * @param baseUnit
+     * @param tags      依次为标签名与标签值
+     * @return
+     */
+    public static FieldSpec summaryField(String fieldName, String meterName, String baseUnit,
+        String... tags) {
+        return FieldSpec.builder(DISTRIBUTION_SUMMARY_CLASS_NAME, fieldName,
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer(meterInitializer(DISTRIBUTION_SUMMARY_CLASS_NAME, meterName, baseUnit,
+                tags))
+            .build();
+    }
+
+    /**
+     * 保留方法签名、注解与文档，将方法体包裹在 try / finally 中，由 timerField 记录耗时
+     * <p>
+     * 抛出异常的调用同样会被记录
+     *
+     * @param method
+     * @param timerField
+     * @return
+     */
+    public static MethodSpec timed(MethodSpec method, String timerField) {
+        return timed(method, timerField, CodeBlock.of(""));
+    }
+
+    /**
+     * 同 {@link #timed(MethodSpec, String)}，在原方法体之前执行 before
+     *
+     * @param method
+     * @param timerField
+     * @param before
+     * @return
+     */
+    public static MethodSpec timed(MethodSpec method, String timerField, CodeBlock before) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(method.name)
+            .addJavadoc(method.javadoc)
+            .addAnnotations(method.annotations)
+            .addModifiers(method.modifiers)
+            .addTypeVariables(method.typeVariables)
+            .addParameters(method.parameters)
+            .varargs(method.varargs)
+            .addExceptions(method.exceptions);
+        if (!method.isConstructor()) {
+            builder.returns(method.returnType);
+        }
+        return builder.addStatement("long startNanos = $T.nanoTime()", System.class)
+            .beginControlFlow("try")
+            .addCode(before)
+            .addCode(method.code)
+            .nextControlFlow("finally")
+            .addStatement("$L.record($T.nanoTime() - startNanos, $T.NANOSECONDS)", timerField,
+                System.class, TimeUnit.class)
+            .endControlFlow()
+            .build();
+    }
+
+    /**
+     * 由方法名推断指标字段名，如 {@code queryPageList} 对应 {@code QUERY_PAGE_LIST_TIMER}
+     *
+     * @param methodName
+     * @param suffix
+     * @return
+     */
+    public static String fieldName(String methodName, String suffix) {
+        return methodName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase() + "_" + suffix;
+    }
+
+    private static CodeBlock meterInitializer(TypeName meterType, String meterName,
+        String baseUnit, String... tags) {
+        CodeBlock.Builder builder = CodeBlock.builder()
+            .add("$T.builder($S)\n$>$>", meterType, meterName);
+        for (int i = 0; i + 1 < tags.length; i += 2) {
+            builder.add(".tag($S, $S)\n", tags[i], tags[i + 1]);
+        }
+        if (baseUnit != null) {
+            builder.add(".baseUnit($S)\n", baseUnit);
+        }
+        return builder.add(".register($T.globalRegistry)$<$<", METRICS_CLASS_NAME).build();
+    }
+}